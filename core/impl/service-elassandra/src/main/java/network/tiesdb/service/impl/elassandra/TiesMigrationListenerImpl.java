@@ -23,6 +23,10 @@ import org.apache.cassandra.service.MigrationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesTableBinding;
+
 /**
  * Apache Cassandra migration listener for TiesDB.
  * 
@@ -43,6 +47,7 @@ public class TiesMigrationListenerImpl extends MigrationListener {
     public void onCreateKeyspace(String ksName) {
         if (ksName.startsWith("TIE")) {
             logger.debug("TiesDB keyspace created {}", ksName);
+            service.getResultCache().clearAbsent();
         }
         super.onCreateKeyspace(ksName);
     }
@@ -51,10 +56,60 @@ public class TiesMigrationListenerImpl extends MigrationListener {
     public void onDropKeyspace(String ksName) {
         if (ksName.startsWith("TIE")) {
             logger.debug("TiesDB keyspace removed {}", ksName);
+            service.getResultCache().forgetTablesOf(ksName);
+            TiesTableBinding.invalidate(ksName);
+            TiesStatementCache.invalidate(ksName);
+            TiesSchemaUtil.invalidateFieldDescriptionsOf(ksName);
         }
         super.onDropKeyspace(ksName);
     }
 
+    @Override
+    public void onCreateColumnFamily(String ksName, String cfName) {
+        if (ksName.startsWith("TIE")) {
+            logger.debug("TiesDB table created {}.{}", ksName, cfName);
+            service.getResultCache().clearAbsent();
+            TiesTableBinding.invalidate(ksName, cfName);
+            TiesStatementCache.invalidate(ksName, cfName);
+            TiesSchemaUtil.invalidateFieldDescriptionsOf(ksName, cfName);
+        }
+        super.onCreateColumnFamily(ksName, cfName);
+    }
+
+    @Override
+    public void onUpdateColumnFamily(String ksName, String cfName, boolean affectsStatements) {
+        if (ksName.startsWith("TIE")) {
+            logger.debug("TiesDB table updated {}.{}", ksName, cfName);
+            TiesTableBinding.invalidate(ksName, cfName);
+            TiesStatementCache.invalidate(ksName, cfName);
+            TiesSchemaUtil.invalidateFieldDescriptionsOf(ksName, cfName);
+        }
+        super.onUpdateColumnFamily(ksName, cfName, affectsStatements);
+    }
+
+    @Override
+    public void onDropColumnFamily(String ksName, String cfName) {
+        if (ksName.startsWith("TIE")) {
+            logger.debug("TiesDB table removed {}.{}", ksName, cfName);
+            service.getResultCache().forgetTableOf(ksName, cfName);
+            TiesTableBinding.invalidate(ksName, cfName);
+            TiesStatementCache.invalidate(ksName, cfName);
+            TiesSchemaUtil.invalidateFieldDescriptionsOf(ksName, cfName);
+        }
+        super.onDropColumnFamily(ksName, cfName);
+    }
+
+    @Override
+    public void onUpdateUserType(String ksName, String typeName) {
+        if (ksName.startsWith("TIE")) {
+            logger.debug("TiesDB type updated {}.{}", ksName, typeName);
+            TiesTableBinding.invalidate(ksName);
+            TiesStatementCache.invalidate(ksName);
+            TiesSchemaUtil.invalidateFieldDescriptionsOf(ksName);
+        }
+        super.onUpdateUserType(ksName, typeName);
+    }
+
     void registerMigrationListener() {
         logger.trace("Waiting for MigrationManager is ready...");
         MigrationManager.waitUntilReadyForBootstrap();
@@ -0,0 +1,158 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra;
+
+import java.util.Map;
+
+/**
+ * TiesDB service result cache configuration.
+ */
+public class TiesServiceCacheConfig {
+
+    private Boolean enabled;
+
+    private Long sizeInMb;
+
+    private Long expireAfterWriteInSeconds;
+
+    private Long offHeapSizeInMb;
+
+    private Long writeThroughSizeInMb;
+
+    private Long negativeExpireAfterWriteInMillis;
+
+    private Map<String, Long> tablespaceQuotasInMb;
+
+    private Boolean clusterInvalidation;
+
+    private Long clusterProbeIntervalInMillis;
+
+    private Integer warmupQueriesCount;
+
+    private Integer warmupQueriesPerSecond;
+
+    private Long warmupSaveIntervalInSeconds;
+
+    private String warmupFile;
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Long getSizeInMb() {
+        return sizeInMb;
+    }
+
+    public void setSizeInMb(Long sizeInMb) {
+        this.sizeInMb = sizeInMb;
+    }
+
+    public Long getExpireAfterWriteInSeconds() {
+        return expireAfterWriteInSeconds;
+    }
+
+    public void setExpireAfterWriteInSeconds(Long expireAfterWriteInSeconds) {
+        this.expireAfterWriteInSeconds = expireAfterWriteInSeconds;
+    }
+
+    public Long getOffHeapSizeInMb() {
+        return offHeapSizeInMb;
+    }
+
+    public void setOffHeapSizeInMb(Long offHeapSizeInMb) {
+        this.offHeapSizeInMb = offHeapSizeInMb;
+    }
+
+    public Long getWriteThroughSizeInMb() {
+        return writeThroughSizeInMb;
+    }
+
+    public void setWriteThroughSizeInMb(Long writeThroughSizeInMb) {
+        this.writeThroughSizeInMb = writeThroughSizeInMb;
+    }
+
+    public Long getNegativeExpireAfterWriteInMillis() {
+        return negativeExpireAfterWriteInMillis;
+    }
+
+    public void setNegativeExpireAfterWriteInMillis(Long negativeExpireAfterWriteInMillis) {
+        this.negativeExpireAfterWriteInMillis = negativeExpireAfterWriteInMillis;
+    }
+
+    public Map<String, Long> getTablespaceQuotasInMb() {
+        return tablespaceQuotasInMb;
+    }
+
+    public void setTablespaceQuotasInMb(Map<String, Long> tablespaceQuotasInMb) {
+        this.tablespaceQuotasInMb = tablespaceQuotasInMb;
+    }
+
+    public Boolean getClusterInvalidation() {
+        return clusterInvalidation;
+    }
+
+    public void setClusterInvalidation(Boolean clusterInvalidation) {
+        this.clusterInvalidation = clusterInvalidation;
+    }
+
+    public Long getClusterProbeIntervalInMillis() {
+        return clusterProbeIntervalInMillis;
+    }
+
+    public void setClusterProbeIntervalInMillis(Long clusterProbeIntervalInMillis) {
+        this.clusterProbeIntervalInMillis = clusterProbeIntervalInMillis;
+    }
+
+    public Integer getWarmupQueriesCount() {
+        return warmupQueriesCount;
+    }
+
+    public void setWarmupQueriesCount(Integer warmupQueriesCount) {
+        this.warmupQueriesCount = warmupQueriesCount;
+    }
+
+    public Integer getWarmupQueriesPerSecond() {
+        return warmupQueriesPerSecond;
+    }
+
+    public void setWarmupQueriesPerSecond(Integer warmupQueriesPerSecond) {
+        this.warmupQueriesPerSecond = warmupQueriesPerSecond;
+    }
+
+    public Long getWarmupSaveIntervalInSeconds() {
+        return warmupSaveIntervalInSeconds;
+    }
+
+    public void setWarmupSaveIntervalInSeconds(Long warmupSaveIntervalInSeconds) {
+        this.warmupSaveIntervalInSeconds = warmupSaveIntervalInSeconds;
+    }
+
+    public String getWarmupFile() {
+        return warmupFile;
+    }
+
+    public void setWarmupFile(String warmupFile) {
+        this.warmupFile = warmupFile;
+    }
+
+}
@@ -37,12 +37,33 @@ public class TiesServiceConfigImpl implements TiesServiceConfig {
     static final String BINDING = "network.tiesdb.service.TiesDB";
     static final String SHORT_BINDING = "ServiceTiesDB";
 
+    static final int DEFAULT_SCOPE_THREADS_COUNT = 32;
+    static final int DEFAULT_SCOPE_QUEUE_SIZE = 4096;
+    static final int DEFAULT_SCAN_THREADS_COUNT = Runtime.getRuntime().availableProcessors();
+    static final int DEFAULT_LOOKUP_CONCURRENCY = 16;
+
     private boolean serviceStopCritical = true;
 
     private List<TiesTransportConfig> transports;
 
     private TiesSchemaConfig schemaConfig;
 
+    private TiesServiceConsistencyConfig consistency;
+
+    private TiesServiceCacheConfig cache;
+
+    private int scopeThreadsCount = DEFAULT_SCOPE_THREADS_COUNT;
+
+    private int scopeQueueSize = DEFAULT_SCOPE_QUEUE_SIZE;
+
+    private int scanThreadsCount = DEFAULT_SCAN_THREADS_COUNT;
+
+    private boolean rangeScan = false;
+
+    private int lookupConcurrency = DEFAULT_LOOKUP_CONCURRENCY;
+
+    private boolean elasticsearchPushdown = false;
+
     public TiesServiceConfigImpl() {
         // NOP Is not empty config values
     }
@@ -83,4 +104,68 @@ public class TiesServiceConfigImpl implements TiesServiceConfig {
     public TiesSchemaConfig getSchemaConfig() {
         return schemaConfig;
     }
+
+    public TiesServiceConsistencyConfig getConsistency() {
+        return consistency;
+    }
+
+    public void setConsistency(TiesServiceConsistencyConfig consistency) {
+        this.consistency = consistency;
+    }
+
+    public TiesServiceCacheConfig getCache() {
+        return cache;
+    }
+
+    public void setCache(TiesServiceCacheConfig cache) {
+        this.cache = cache;
+    }
+
+    public int getScopeThreadsCount() {
+        return scopeThreadsCount;
+    }
+
+    public void setScopeThreadsCount(int scopeThreadsCount) {
+        this.scopeThreadsCount = scopeThreadsCount;
+    }
+
+    public int getScopeQueueSize() {
+        return scopeQueueSize;
+    }
+
+    public void setScopeQueueSize(int scopeQueueSize) {
+        this.scopeQueueSize = scopeQueueSize;
+    }
+
+    public int getScanThreadsCount() {
+        return scanThreadsCount;
+    }
+
+    public void setScanThreadsCount(int scanThreadsCount) {
+        this.scanThreadsCount = scanThreadsCount;
+    }
+
+    public boolean isRangeScan() {
+        return rangeScan;
+    }
+
+    public void setRangeScan(boolean rangeScan) {
+        this.rangeScan = rangeScan;
+    }
+
+    public int getLookupConcurrency() {
+        return lookupConcurrency;
+    }
+
+    public void setLookupConcurrency(int lookupConcurrency) {
+        this.lookupConcurrency = lookupConcurrency;
+    }
+
+    public boolean isElasticsearchPushdown() {
+        return elasticsearchPushdown;
+    }
+
+    public void setElasticsearchPushdown(boolean elasticsearchPushdown) {
+        this.elasticsearchPushdown = elasticsearchPushdown;
+    }
 }
\ No newline at end of file
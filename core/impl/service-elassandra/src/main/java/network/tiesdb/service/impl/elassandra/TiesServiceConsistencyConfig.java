@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra;
+
+import java.util.Map;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+
+/**
+ * TiesDB service consistency configuration. Unset values of a tablespace
+ * override are inherited from the service level configuration.
+ */
+public class TiesServiceConsistencyConfig {
+
+    private ConsistencyLevel read;
+
+    private ConsistencyLevel write;
+
+    private ConsistencyLevel serial;
+
+    private Boolean honorAction;
+
+    private Boolean local;
+
+    private Map<String, TiesServiceConsistencyConfig> tablespaces;
+
+    public ConsistencyLevel getRead() {
+        return read;
+    }
+
+    public void setRead(ConsistencyLevel read) {
+        this.read = read;
+    }
+
+    public ConsistencyLevel getWrite() {
+        return write;
+    }
+
+    public void setWrite(ConsistencyLevel write) {
+        this.write = write;
+    }
+
+    public ConsistencyLevel getSerial() {
+        return serial;
+    }
+
+    public void setSerial(ConsistencyLevel serial) {
+        this.serial = serial;
+    }
+
+    public Boolean getHonorAction() {
+        return honorAction;
+    }
+
+    public void setHonorAction(Boolean honorAction) {
+        this.honorAction = honorAction;
+    }
+
+    public Boolean getLocal() {
+        return local;
+    }
+
+    public void setLocal(Boolean local) {
+        this.local = local;
+    }
+
+    public Map<String, TiesServiceConsistencyConfig> getTablespaces() {
+        return tablespaces;
+    }
+
+    public void setTablespaces(Map<String, TiesServiceConsistencyConfig> tablespaces) {
+        this.tablespaces = tablespaces;
+    }
+
+}
@@ -23,6 +23,13 @@ import static java.util.Objects.requireNonNull;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
@@ -38,11 +45,17 @@ import network.tiesdb.schema.api.TiesSchema;
 import network.tiesdb.schema.api.TiesSchemaFactory;
 import network.tiesdb.service.api.TiesService;
 import network.tiesdb.service.impl.elassandra.schema.TiesServiceSchemaImpl;
+import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeAsync;
+import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeAsyncImpl;
 import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeBilling;
 import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeBillingWrapper;
+import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeConsistency;
+import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeExtended;
 import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeImpl;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCache;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCacheAdmin;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCacheWarmup;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil;
-import network.tiesdb.service.scope.api.TiesServiceScope;
 import network.tiesdb.service.scope.api.TiesServiceScopeException;
 import network.tiesdb.transport.api.TiesTransportServer;
 
@@ -57,12 +70,23 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
 
     private static final TiesServiceImplVersion IMPLEMENTATION_VERSION = TiesServiceImplVersion.v_0_0_1_prealpha;
 
+    private static final int SCAN_QUEUE_SIZE = 1024;
+
     protected final TiesServiceConfig config;
 
     private final AtomicReference<List<TiesTransportServer>> transportsRef = new AtomicReference<>();
     private final AtomicReference<TiesServiceSchemaImpl> schemaImplRef = new AtomicReference<>();
     private final AtomicReference<TiesServiceScopeBilling> billingRef = new AtomicReference<>();
+    private final AtomicReference<ExecutorService> scopeExecutorRef = new AtomicReference<>();
+    private final AtomicReference<ThreadPoolExecutor> scanExecutorRef = new AtomicReference<>();
     private final TiesMigrationListenerImpl migrationListener;
+    private final TiesServiceScopeConsistency consistency;
+    private final TiesResultCache resultCache;
+    private final TiesResultCacheAdmin resultCacheAdmin;
+    private final TiesResultCacheWarmup resultCacheWarmup;
+    private final int lookupConcurrency;
+    private final boolean elasticsearchPushdown;
+    private final boolean rangeScan;
 
     public TiesServiceImpl(TiesServiceConfig config) {
         if (null == config) {
@@ -70,6 +94,21 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
         }
         this.config = config;
         this.migrationListener = createTiesMigrationListener();
+        this.consistency = new TiesServiceScopeConsistency(
+                config instanceof TiesServiceConfigImpl ? ((TiesServiceConfigImpl) config).getConsistency() : null);
+        TiesServiceCacheConfig cacheConfig = config instanceof TiesServiceConfigImpl ? ((TiesServiceConfigImpl) config).getCache()
+                : null;
+        this.resultCache = new TiesResultCache(cacheConfig);
+        this.resultCacheAdmin = new TiesResultCacheAdmin(resultCache);
+        this.resultCacheWarmup = new TiesResultCacheWarmup(cacheConfig);
+        this.lookupConcurrency = config instanceof TiesServiceConfigImpl ? ((TiesServiceConfigImpl) config).getLookupConcurrency()
+                : TiesServiceConfigImpl.DEFAULT_LOOKUP_CONCURRENCY;
+        if (0 >= lookupConcurrency) {
+            throw new IllegalArgumentException("TiesDB Service lookup concurrency should be positive");
+        }
+        this.elasticsearchPushdown = config instanceof TiesServiceConfigImpl
+                && ((TiesServiceConfigImpl) config).isElasticsearchPushdown();
+        this.rangeScan = config instanceof TiesServiceConfigImpl && ((TiesServiceConfigImpl) config).isRangeScan();
     }
 
     protected TiesMigrationListenerImpl createTiesMigrationListener() {
@@ -105,7 +144,7 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
         requireNonNull(schemaFactory, "TiesDB Schema Factory not found");
         TiesSchema schema = schemaFactory.createSchema(this);
         initTiesScopeBilling(schema);
-        TiesServiceSchemaImpl schemaImpl = new TiesServiceSchemaImpl(schema);
+        TiesServiceSchemaImpl schemaImpl = new TiesServiceSchemaImpl(schema, elasticsearchPushdown);
         if (!schemaImplRef.compareAndSet(null, schemaImpl)) {
             throw new TiesConfigurationException("TiesDB Schema have already been initialized");
         }
@@ -117,7 +156,7 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
             throw new TiesConfigurationException("No TiesDB Schema was found for Billing");
         }
         logger.trace("Creating TiesDB Scope Billing for {}...", schema.toString());
-        TiesServiceScopeBilling billing = new TiesServiceScopeBilling(schema);
+        TiesServiceScopeBilling billing = new TiesServiceScopeBilling(schema, consistency);
         if (!billingRef.compareAndSet(null, billing)) {
             throw new TiesConfigurationException("TiesDB Scope Billing have already been initialized");
         }
@@ -146,8 +185,13 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
     }
 
     protected void stopInternal() {
+        stopResultCacheWarmup();
         stopSchema();
         stopTiesTransports();
+        stopResultCache();
+        stopScopeExecutor();
+        stopScanExecutor();
+        resultCacheAdmin.unregister();
         migrationListener.unregisterMigrationListener();
     }
 
@@ -155,7 +199,131 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
         migrationListener.registerMigrationListener();
         checkDatabaseStructures();
         startSchema();
+        logger.trace("Registering TiesDB Result Cache MBeans...");
+        resultCacheAdmin.register();
+        startScopeExecutor();
+        startScanExecutor();
         startTiesTransports();
+        startResultCacheWarmup();
+    }
+
+    private void startResultCacheWarmup() {
+        logger.trace("Starting TiesDB Result Cache Warmup...");
+        resultCacheWarmup.start(query -> {
+            try (TiesServiceScopeImpl scope = new TiesServiceScopeImpl(this)) {
+                scope.warmup(query);
+            }
+        });
+    }
+
+    private void stopResultCacheWarmup() {
+        logger.trace("Stopping TiesDB Result Cache Warmup...");
+        resultCacheWarmup.stop();
+    }
+
+    private void stopResultCache() {
+        logger.trace("Stopping TiesDB Result Cache...");
+        resultCache.close();
+    }
+
+    private void startScopeExecutor() throws TiesConfigurationException {
+        logger.trace("Starting TiesDB Service Scope Executor...");
+        int threadsCount = TiesServiceConfigImpl.DEFAULT_SCOPE_THREADS_COUNT;
+        int queueSize = TiesServiceConfigImpl.DEFAULT_SCOPE_QUEUE_SIZE;
+        if (config instanceof TiesServiceConfigImpl) {
+            threadsCount = ((TiesServiceConfigImpl) config).getScopeThreadsCount();
+            queueSize = ((TiesServiceConfigImpl) config).getScopeQueueSize();
+        }
+        if (0 >= threadsCount || 0 >= queueSize) {
+            throw new TiesConfigurationException("TiesDB Service Scope Executor threads count and queue size should be positive");
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Saturated executor rejects actions, so they fail fast instead of
+        // running in the transport thread
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadsCount, threadsCount, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread t = new Thread(r, "TiesServiceScope-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        if (!scopeExecutorRef.compareAndSet(null, executor)) {
+            executor.shutdown();
+            throw new TiesConfigurationException("TiesDB Service Scope Executor have already been started");
+        }
+    }
+
+    private void stopScopeExecutor() {
+        logger.trace("Stopping TiesDB Service Scope Executor...");
+        ExecutorService executor = scopeExecutorRef.getAndSet(null);
+        if (null == executor) {
+            logger.trace("No TiesDB Service Scope Executor to stop");
+            return;
+        }
+        shutdown(executor, "Scope");
+    }
+
+    private void startScanExecutor() throws TiesConfigurationException {
+        int threadsCount = config instanceof TiesServiceConfigImpl ? ((TiesServiceConfigImpl) config).getScanThreadsCount()
+                : TiesServiceConfigImpl.DEFAULT_SCAN_THREADS_COUNT;
+        if (0 > threadsCount) {
+            throw new TiesConfigurationException("TiesDB Service Scan Executor threads count should not be negative");
+        }
+        if (0 == threadsCount) {
+            logger.trace("TiesDB Service Scan Executor is disabled");
+            return;
+        }
+        logger.trace("Starting TiesDB Service Scan Executor...");
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threadsCount, threadsCount, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(SCAN_QUEUE_SIZE), r -> {
+                    Thread t = new Thread(r, "TiesServiceScan-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (r, e) -> {
+                    // Saturated executor runs scan worker in the scanning thread
+                    if (e.isShutdown()) {
+                        throw new RejectedExecutionException("TiesDB Service Scan Executor is shut down");
+                    }
+                    r.run();
+                });
+        executor.allowCoreThreadTimeOut(true);
+        if (!scanExecutorRef.compareAndSet(null, executor)) {
+            executor.shutdown();
+            throw new TiesConfigurationException("TiesDB Service Scan Executor have already been started");
+        }
+    }
+
+    private void stopScanExecutor() {
+        logger.trace("Stopping TiesDB Service Scan Executor...");
+        ExecutorService executor = scanExecutorRef.getAndSet(null);
+        if (null == executor) {
+            logger.trace("No TiesDB Service Scan Executor to stop");
+            return;
+        }
+        shutdown(executor, "Scan");
+    }
+
+    private static void shutdown(ExecutorService executor, String name) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("TiesDB Service {} Executor has not been terminated in time, forcing shutdown", name);
+                shutdownNow(executor);
+            }
+        } catch (InterruptedException e) {
+            shutdownNow(executor);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void shutdownNow(ExecutorService executor) {
+        // Dropped tasks are cancelled to complete whoever waits for them
+        for (Runnable task : executor.shutdownNow()) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
     }
 
     private void startSchema() throws TiesConfigurationException {
@@ -172,6 +340,48 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
         }
     }
 
+    public TiesServiceScopeConsistency getConsistency() {
+        return consistency;
+    }
+
+    /**
+     * @return executor of parallel table scans or null if scans should not
+     *         be parallel
+     */
+    public ThreadPoolExecutor getScanExecutor() {
+        return scanExecutorRef.get();
+    }
+
+    /**
+     * @return true if selects unrestricted by partitions are scanned by token
+     *         ranges in parallel
+     */
+    public boolean isRangeScan() {
+        return rangeScan;
+    }
+
+    /**
+     * @return maximum count of partitions read in parallel by a single select
+     */
+    public int getLookupConcurrency() {
+        return lookupConcurrency;
+    }
+
+    /**
+     * @return true if selects of tables are searched by Elasticsearch index
+     */
+    public boolean isElasticsearchPushdown() {
+        return elasticsearchPushdown;
+    }
+
+    public TiesResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public TiesResultCacheWarmup getResultCacheWarmup() {
+        return resultCacheWarmup;
+    }
+
     public TiesServiceSchemaImpl getSchemaImpl() throws TiesConfigurationException {
         TiesServiceSchemaImpl schemaImpl = schemaImplRef.get();
         if (null == schemaImpl) {
@@ -224,8 +434,7 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
     }
 
     @Override
-    public TiesServiceScope newServiceScope() throws TiesServiceScopeException {
-        // return new TiesServiceScopeImpl(this);
+    public TiesServiceScopeExtended newServiceScope() throws TiesServiceScopeException {
         try {
             return new TiesServiceScopeBillingWrapper(new TiesServiceScopeImpl(this), billingRef.get());
         } catch (TiesConfigurationException e) {
@@ -233,4 +442,17 @@ public abstract class TiesServiceImpl implements TiesService, Runnable {
         }
     }
 
+    /**
+     * Opens asynchronous service scope. Actions of the scope are executed on
+     * the service scope executor, so transports can have many requests in
+     * flight per connection.
+     */
+    public TiesServiceScopeAsync newServiceScopeAsync() throws TiesServiceScopeException {
+        ExecutorService executor = scopeExecutorRef.get();
+        if (null == executor) {
+            throw new TiesServiceScopeException("TiesDB Service Scope Executor have not been started");
+        }
+        return new TiesServiceScopeAsyncImpl(newServiceScope(), executor);
+    }
+
 }
\ No newline at end of file
@@ -22,6 +22,7 @@ import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.*;
 
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Set;
 import java.util.UUID;
@@ -32,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import org.apache.cassandra.db.ConsistencyLevel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +44,7 @@ import network.tiesdb.schema.api.TiesSchema.Index;
 import network.tiesdb.schema.api.TiesSchema.IndexType;
 import network.tiesdb.schema.api.TiesSchema.Table;
 import network.tiesdb.schema.api.TiesSchema.Tablespace;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesElasticUtil;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.SchemaDescription;
 import network.tiesdb.service.scope.api.TiesServiceScopeException;
@@ -69,8 +72,11 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
 
     private final TiesSchema schema;
 
-    public TiesServiceSchemaImpl(TiesSchema schema) {
+    private final boolean indexed;
+
+    public TiesServiceSchemaImpl(TiesSchema schema, boolean indexed) {
         this.schema = schema;
+        this.indexed = indexed;
     }
 
     public void refreshSchema(String tablespaceName, String tableName) {
@@ -81,6 +87,9 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
             loadFieldDescriptions(tablespaceName, tableName, fieldDescriptions::add);
 
             refreshTiesDBStorage(tablespaceName, tableName, fieldDescriptions);
+            if (indexed) {
+                TiesElasticUtil.refreshIndex(tablespaceName, tableName, fieldDescriptions);
+            }
 
             LOG.debug("Schema `{}`.`{}` refreshed successfully", tablespaceName, tableName);
         } catch (Throwable e) {
@@ -106,13 +115,16 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
             UUID newSchemaVersion = UUID.randomUUID();
 
             try {
+                LinkedList<FieldDescription> fieldDescriptions = new LinkedList<>();
                 for (String fieldName : t.getFieldNames()) {
                     Field f = t.getField(fieldName);
-                    storeFieldDescription(tablespaceName, tableName, newSchemaVersion,
-                            new FieldDescription(f.getName(), f.getType().toLowerCase()));
+                    FieldDescription fieldDescription = new FieldDescription(f.getName(), f.getType().toLowerCase());
+                    storeFieldDescription(tablespaceName, tableName, newSchemaVersion, fieldDescription);
+                    fieldDescriptions.add(fieldDescription);
                 }
                 storeSchemaDescription(tablespaceName, tableName, newSchemaVersion, new Date(), DEFAULT_UPDATE_DELAY,
                         DEFAULT_UPDATE_DELAY_UNIT);
+                cacheFieldDescriptions(tablespaceName, tableName, newSchemaVersion, fieldDescriptions);
 
                 createTiesDBStorage(//
                         tablespaceName, //
@@ -123,6 +135,7 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
                 );
 
                 refreshSchema(tablespaceName, tableName);
+                refreshSecondaryIndexes(tablespaceName, tableName, indexes);
 
             } catch (Throwable e) {
                 try {
@@ -279,15 +292,17 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
                 }
 
                 LinkedList<FieldDescription> cachedDescriptions = new LinkedList<>();
-                loadFieldDescriptions(sd.getTablespace(), sd.getTable(), cachedDescriptions::add);
+                reloadFieldDescriptions(sd.getTablespace(), sd.getTable(), cachedDescriptions::add);
 
                 LinkedList<FieldDescription> contractDescriptions = new LinkedList<>();
+                Set<Index> contractIndexes;
                 {
                     Table t = getTableFromSchema(sd.getTablespace(), sd.getTable());
                     for (String fieldName : t.getFieldNames()) {
                         Field f = t.getField(fieldName);
                         contractDescriptions.add(new FieldDescription(f.getName(), f.getType().toLowerCase()));
                     }
+                    contractIndexes = t.getIndexes();
                 }
                 LOG.debug("Finished loading data for schema: {}", sd);
                 if (cachedDescriptions.equals(contractDescriptions)) {
@@ -302,15 +317,21 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
                     }
                     {
                         UUID oldSchemaVersion = sd.getVersion(), newSchemaVersion = UUID.randomUUID();
+                        LinkedList<FieldDescription> newDescriptions = new LinkedList<>(contractDescriptions);
                         try {
                             for (FieldDescription fieldDescription : contractDescriptions) {
                                 storeFieldDescription(sd.getTablespace(), sd.getTable(), newSchemaVersion, fieldDescription);
                             }
                             if (contractDescriptions.removeAll(cachedDescriptions) && !contractDescriptions.isEmpty()) {
                                 refreshTiesDBStorage(sd.getTablespace(), sd.getTable(), contractDescriptions);
+                                if (indexed) {
+                                    TiesElasticUtil.refreshIndex(sd.getTablespace(), sd.getTable(), contractDescriptions);
+                                }
                             }
                             updateSchemaDescriptionSucces(sd, newSchemaVersion, now, DEFAULT_UPDATE_DELAY, DEFAULT_UPDATE_DELAY_UNIT);
+                            cacheFieldDescriptions(sd.getTablespace(), sd.getTable(), newSchemaVersion, newDescriptions);
                             removeFieldDescriptionsByVersion(sd.getTablespace(), sd.getTable(), oldSchemaVersion);
+                            publishSchemaVersion(sd.getTablespace(), sd.getTable());
                         } catch (Throwable e) {
                             try {
                                 removeFieldDescriptionsByVersion(sd.getTablespace(), sd.getTable(), newSchemaVersion);
@@ -322,6 +343,7 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
                         }
                     }
                 }
+                refreshSecondaryIndexes(sd.getTablespace(), sd.getTable(), contractIndexes);
             } catch (Throwable e) {
                 LOG.error("Update failed for schema: {}", sd, e);
                 try {
@@ -334,6 +356,32 @@ public class TiesServiceSchemaImpl implements TiesDaemon {
 
     }
 
+    /**
+     * Increments the cache generation of the table, so other nodes recheck
+     * their field descriptions of it on the next cluster generation probe.
+     */
+    private static void publishSchemaVersion(String tablespaceName, String tableName) {
+        try {
+            incrementCacheGeneration(tablespaceName, tableName, ConsistencyLevel.QUORUM);
+        } catch (Throwable e) {
+            LOG.warn("Failed to publish schema `{}`.`{}` version update", tablespaceName, tableName, e);
+        }
+    }
+
+    /**
+     * Creates secondary indexes of the fields of non-primary contract indexes.
+     */
+    private static void refreshSecondaryIndexes(String tablespaceName, String tableName, Set<Index> indexes) {
+        Set<String> fieldNames = indexes.stream() //
+                .filter(i -> !IndexType.PRIMARY.equals(i.getType())) //
+                .flatMap(i -> i.getFields().stream()) //
+                .map(f -> f.getName()) //
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (!fieldNames.isEmpty()) {
+            createSecondaryIndexes(tablespaceName, tableName, fieldNames);
+        }
+    }
+
     private Table getTableFromSchema(String tablespaceName, String tableName) throws IllegalArgumentException {
         Tablespace ts = schema.getTablespace(tablespaceName);
         if (null == ts) {
@@ -0,0 +1,105 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.cassandra.exceptions.RequestValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+
+/**
+ * Execution of batch modifications grouped by partition. Modifications of a
+ * partition are written as one conditional batch and reported by their
+ * single executions only if the batch was not applied or was rejected before
+ * execution. Other batch errors are reported for each of the modifications,
+ * as the batch may have been applied, e.g. on write timeout.
+ */
+final class TiesBatchExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesBatchExecutor.class);
+
+    interface Batch<R> {
+
+        /**
+         * @return false if the batch was not applied
+         */
+        boolean execute(List<Integer> partition) throws Throwable;
+
+        R execute(int index) throws Throwable;
+
+        R success(int index);
+
+        void setResult(int index, R result) throws TiesServiceScopeException;
+
+        void setError(int index, Throwable error) throws TiesServiceScopeException;
+
+    }
+
+    private TiesBatchExecutor() {
+    }
+
+    static <R> void execute(Object batchId, Collection<List<Integer>> partitions, Batch<R> batch) throws TiesServiceScopeException {
+        for (List<Integer> partition : partitions) {
+            if (partition.size() > 1) {
+                boolean applied;
+                try {
+                    applied = batch.execute(partition);
+                } catch (Throwable e) {
+                    if (!isRejected(e)) {
+                        LOG.debug("Batch {} partition of modifications {} failed", batchId, partition, e);
+                        for (int i : partition) {
+                            batch.setError(i, e);
+                        }
+                        continue;
+                    }
+                    LOG.debug("Batch {} partition of modifications {} rejected, falling back to single modifications", batchId,
+                            partition, e);
+                    applied = false;
+                }
+                if (applied) {
+                    for (int i : partition) {
+                        batch.setResult(i, batch.success(i));
+                    }
+                    continue;
+                }
+            }
+            for (int i : partition) {
+                try {
+                    batch.setResult(i, batch.execute(i));
+                } catch (Throwable e) {
+                    LOG.debug("Batch {} modification {} failed", batchId, i, e);
+                    batch.setError(i, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the statement was rejected by validation before
+     *         execution, so nothing has been written
+     */
+    private static boolean isRejected(Throwable e) {
+        return e instanceof RequestValidationException || e.getCause() instanceof RequestValidationException;
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+
+import network.tiesdb.api.TiesVersion;
+import network.tiesdb.service.scope.api.TiesServiceScopeBillingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeHealingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
+
+/**
+ * Asynchronous TiesDB service scope. Actions are executed on the service
+ * scope executor and the returned futures complete when action results are
+ * set, or exceptionally with the action failure.
+ *
+ * Execution itself is not asynchronous: actions run the same blocking
+ * Cassandra queries and conditional updates as the synchronous scope, each
+ * holding a scope executor thread until it completes. The scope only moves
+ * this work off the transport threads and bounds it by the executor size.
+ *
+ * Actions submitted to a saturated executor or to a closed scope are not
+ * run, their futures complete exceptionally with TiesServiceScopeException.
+ * Closing the scope waits for the actions in flight to complete.
+ */
+public interface TiesServiceScopeAsync extends Closeable {
+
+    TiesVersion getServiceVersion();
+
+    CompletableFuture<Void> insert(TiesServiceScopeModificationAction action);
+
+    CompletableFuture<Void> update(TiesServiceScopeModificationAction action);
+
+    CompletableFuture<Void> delete(TiesServiceScopeModificationAction action);
+
+    CompletableFuture<Void> batch(TiesServiceScopeBatchModificationAction action);
+
+    CompletableFuture<Void> select(TiesServiceScopeRecollectionAction action);
+
+    CompletableFuture<Void> heal(TiesServiceScopeHealingAction action);
+
+    CompletableFuture<Void> schema(TiesServiceScopeSchemaAction action);
+
+    CompletableFuture<Void> result(TiesServiceScopeResultAction action);
+
+    CompletableFuture<Void> billing(TiesServiceScopeBillingAction action);
+
+}
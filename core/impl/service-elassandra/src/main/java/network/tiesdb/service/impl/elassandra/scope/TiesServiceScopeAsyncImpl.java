@@ -0,0 +1,186 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import network.tiesdb.api.TiesVersion;
+import network.tiesdb.service.scope.api.TiesServiceScopeBillingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeHealingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
+
+public class TiesServiceScopeAsyncImpl implements TiesServiceScopeAsync {
+
+    @FunctionalInterface
+    private static interface ScopeCall {
+
+        void call() throws TiesServiceScopeException;
+
+    }
+
+    /**
+     * Action queued to the executor. Completes its future when it is run or
+     * cancelled, including cancellation of the tasks dropped by the executor
+     * shutdown, so that close() is never left waiting for them.
+     */
+    private final class ScopeTask extends FutureTask<Void> {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        ScopeTask(ScopeCall call) {
+            super(() -> {
+                call.call();
+                return null;
+            });
+        }
+
+        @Override
+        protected void done() {
+            try {
+                get();
+                future.complete(null);
+            } catch (ExecutionException e) {
+                future.completeExceptionally(e.getCause());
+            } catch (CancellationException | InterruptedException e) {
+                future.completeExceptionally(new TiesServiceScopeException("Service scope action was cancelled", e));
+            } finally {
+                release();
+            }
+        }
+
+    }
+
+    private final TiesServiceScopeExtended scope;
+    private final Executor executor;
+
+    private int inFlight;
+    private boolean closed;
+
+    public TiesServiceScopeAsyncImpl(TiesServiceScopeExtended scope, Executor executor) {
+        this.scope = scope;
+        this.executor = executor;
+    }
+
+    private CompletableFuture<Void> submit(ScopeCall call) {
+        synchronized (this) {
+            if (closed) {
+                return rejected(new TiesServiceScopeException("Service scope is closed"));
+            }
+            inFlight++;
+        }
+        ScopeTask task = new ScopeTask(call);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            release();
+            return rejected(new TiesServiceScopeException("Service scope executor rejected the action", e));
+        }
+        return task.future;
+    }
+
+    private static CompletableFuture<Void> rejected(TiesServiceScopeException e) {
+        CompletableFuture<Void> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(e);
+        return rejected;
+    }
+
+    private synchronized void release() {
+        if (0 == --inFlight) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+            try {
+                while (0 < inFlight) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + inFlight + " service scope actions");
+            }
+        }
+        scope.close();
+    }
+
+    @Override
+    public TiesVersion getServiceVersion() {
+        return scope.getServiceVersion();
+    }
+
+    @Override
+    public CompletableFuture<Void> insert(TiesServiceScopeModificationAction action) {
+        return submit(() -> scope.insert(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(TiesServiceScopeModificationAction action) {
+        return submit(() -> scope.update(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(TiesServiceScopeModificationAction action) {
+        return submit(() -> scope.delete(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> batch(TiesServiceScopeBatchModificationAction action) {
+        return submit(() -> scope.batch(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> select(TiesServiceScopeRecollectionAction action) {
+        return submit(() -> scope.select(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> heal(TiesServiceScopeHealingAction action) {
+        return submit(() -> scope.heal(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> schema(TiesServiceScopeSchemaAction action) {
+        return submit(() -> scope.schema(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> result(TiesServiceScopeResultAction action) {
+        return submit(() -> scope.result(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> billing(TiesServiceScopeBillingAction action) {
+        return submit(() -> scope.billing(action));
+    }
+
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import network.tiesdb.service.scope.api.TiesEntryExtended;
+import network.tiesdb.service.scope.api.TiesServiceScopeAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+
+/**
+ * Modification of many entries in a single action. Results are reported per
+ * entry by the entry position in the batch.
+ */
+public interface TiesServiceScopeBatchModificationAction extends TiesServiceScopeAction {
+
+    enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    interface Modification {
+
+        Operation getOperation();
+
+        TiesEntryExtended getEntry() throws TiesServiceScopeException;
+
+    }
+
+    BigInteger getMessageId();
+
+    TiesServiceScopeModificationAction.ActionConsistency getConsistency();
+
+    List<Modification> getModifications() throws TiesServiceScopeException;
+
+    void setResult(int index, TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException;
+
+    void setError(int index, Throwable error) throws TiesServiceScopeException;
+
+}
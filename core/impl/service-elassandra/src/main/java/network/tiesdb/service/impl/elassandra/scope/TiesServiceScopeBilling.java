@@ -53,6 +53,8 @@ public class TiesServiceScopeBilling {
 
     private final TiesSchema schema;
 
+    private final TiesServiceScopeConsistency consistency;
+
     protected static class ChequeAquiringException extends RuntimeException {
 
         private static final long serialVersionUID = -4051578732628635680L;
@@ -252,7 +254,9 @@ public class TiesServiceScopeBilling {
                     TiesServiceScopeException e = null;
                     if (!isAquired) {
                         try {
-                            TiesSchemaUtil.updateChequeSession(getChequeDescription(ch), ch.getChequeCropDelta());
+                            TiesSchemaUtil.updateChequeSession(getChequeDescription(ch), ch.getChequeCropDelta(), //
+                                    consistency.getWriteLevel(ch.getTablespaceName()), //
+                                    consistency.getSerialLevel(ch.getTablespaceName()));
                             isAquired = true;
                         } catch (TiesServiceScopeException ex) {
                             e = ex;
@@ -265,7 +269,9 @@ public class TiesServiceScopeBilling {
                                     ch, "Crops amount is insufficient to create a new session for Cheque " + printCheque(ch));
                         }
                         try {
-                            TiesSchemaUtil.createChequeSession(getChequeDescription(ch));
+                            TiesSchemaUtil.createChequeSession(getChequeDescription(ch), //
+                                    consistency.getWriteLevel(ch.getTablespaceName()), //
+                                    consistency.getSerialLevel(ch.getTablespaceName()));
                             isAquired = true;
                         } catch (TiesServiceScopeException ex) {
                             if (null == e) {
@@ -304,8 +310,9 @@ public class TiesServiceScopeBilling {
         Billing getBilling();
     }
 
-    public TiesServiceScopeBilling(TiesSchema schema) throws TiesConfigurationException {
+    public TiesServiceScopeBilling(TiesSchema schema, TiesServiceScopeConsistency consistency) throws TiesConfigurationException {
         this.schema = schema;
+        this.consistency = consistency;
     }
 
     public <T extends PaidAction> T checkActionBillingBlank(T action) throws TiesServiceScopeException {
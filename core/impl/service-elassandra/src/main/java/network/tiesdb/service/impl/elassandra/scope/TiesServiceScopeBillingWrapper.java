@@ -20,12 +20,16 @@ package network.tiesdb.service.impl.elassandra.scope;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import network.tiesdb.api.TiesVersion;
 import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeBilling.Billing;
 import network.tiesdb.service.impl.elassandra.scope.TiesServiceScopeBilling.PaidAction;
 import network.tiesdb.service.scope.api.TiesEntryExtended;
-import network.tiesdb.service.scope.api.TiesServiceScope;
 import network.tiesdb.service.scope.api.TiesServiceScopeAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeBillingAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeException;
@@ -35,13 +39,13 @@ import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
 
-public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
+public class TiesServiceScopeBillingWrapper implements TiesServiceScopeExtended {
 
-    private final TiesServiceScope scope;
+    private final TiesServiceScopeExtended scope;
 
     private final TiesServiceScopeBilling billing;
 
-    public TiesServiceScopeBillingWrapper(TiesServiceScope scope, TiesServiceScopeBilling billing) {
+    public TiesServiceScopeBillingWrapper(TiesServiceScopeExtended scope, TiesServiceScopeBilling billing) {
         this.scope = scope;
         this.billing = billing;
     }
@@ -74,6 +78,10 @@ public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
         scope.heal(wrap(action));
     }
 
+    public void batch(TiesServiceScopeBatchModificationAction action) throws TiesServiceScopeException {
+        scope.batch(wrap(action));
+    }
+
     public void schema(TiesServiceScopeSchemaAction action) throws TiesServiceScopeException {
         scope.schema(action);
     }
@@ -91,13 +99,23 @@ public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
     }
 
     private TiesServiceScopeRecollectionAction wrap(TiesServiceScopeRecollectionAction action) throws TiesServiceScopeException {
+        if (action instanceof TiesServiceScopeRecollectionPagedAction) {
+            return check(new TiesServiceScopePaidPagedRecollection((TiesServiceScopeRecollectionPagedAction) action));
+        }
         return check(new TiesServiceScopePaidRecollection(action));
     }
 
     private TiesServiceScopeHealingAction wrap(TiesServiceScopeHealingAction action) throws TiesServiceScopeException {
+        if (action instanceof TiesServiceScopeConsistentHealingAction) {
+            return check(new TiesServiceScopePaidConsistentHealing((TiesServiceScopeConsistentHealingAction) action));
+        }
         return check(new TiesServiceScopePaidHealing(action));
     }
 
+    private TiesServiceScopeBatchModificationAction wrap(TiesServiceScopeBatchModificationAction action) throws TiesServiceScopeException {
+        return check(new TiesServiceScopePaidBatchModification(action));
+    }
+
     private <T extends PaidAction & TiesServiceScopeAction> T check(T action) throws TiesServiceScopeException {
         return billing.checkActionBillingBlank(action);
     }
@@ -164,6 +182,88 @@ public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
 
     }
 
+    private class TiesServiceScopePaidBatchModification extends TiesServiceScopePaidAction
+            implements TiesServiceScopeBatchModificationAction {
+
+        private final TiesServiceScopeBatchModificationAction action;
+        private final Set<Integer> rejected = new HashSet<>();
+        private List<Modification> modifications;
+        private boolean billed;
+
+        public TiesServiceScopePaidBatchModification(TiesServiceScopeBatchModificationAction action) {
+            super(action.getMessageId());
+            this.action = action;
+        }
+
+        public TiesServiceScopeModificationAction.ActionConsistency getConsistency() {
+            return action.getConsistency();
+        }
+
+        public BigInteger getMessageId() {
+            return action.getMessageId();
+        }
+
+        public synchronized List<Modification> getModifications() throws TiesServiceScopeException {
+            if (null == this.modifications) {
+                List<Modification> modifications = new ArrayList<>();
+                for (Modification modification : action.getModifications()) {
+                    Operation operation = modification.getOperation();
+                    TiesEntryExtended entry = modification.getEntry();
+                    modifications.add(new Modification() {
+
+                        @Override
+                        public Operation getOperation() {
+                            return operation;
+                        }
+
+                        @Override
+                        public TiesEntryExtended getEntry() {
+                            return entry;
+                        }
+
+                    });
+                }
+                this.modifications = Collections.unmodifiableList(modifications);
+            }
+            return this.modifications;
+        }
+
+        /**
+         * Entries are billed on prerequisites check, so that modifications
+         * rejected by the scope before it are not billed.
+         */
+        @Override
+        public void checkPrerequisites() throws TiesServiceScopeException {
+            synchronized (this) {
+                if (!billed) {
+                    List<Modification> modifications = getModifications();
+                    for (int i = 0; i < modifications.size(); i++) {
+                        if (!rejected.contains(i)) {
+                            bill.addEntry(modifications.get(i).getEntry());
+                        }
+                    }
+                    billed = true;
+                    checkBilling();
+                }
+            }
+            super.checkPrerequisites();
+        }
+
+        public void setResult(int index, TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
+            action.setResult(index, result);
+        }
+
+        public void setError(int index, Throwable error) throws TiesServiceScopeException {
+            synchronized (this) {
+                if (!billed) {
+                    rejected.add(index);
+                }
+            }
+            action.setError(index, error);
+        }
+
+    }
+
     private class TiesServiceScopePaidRecollection extends TiesServiceScopePaidAction implements TiesServiceScopeRecollectionAction {
 
         private final TiesServiceScopeRecollectionAction action;
@@ -202,6 +302,30 @@ public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
 
     }
 
+    private class TiesServiceScopePaidPagedRecollection extends TiesServiceScopePaidRecollection
+            implements TiesServiceScopeRecollectionPagedAction {
+
+        private final TiesServiceScopeRecollectionPagedAction action;
+
+        public TiesServiceScopePaidPagedRecollection(TiesServiceScopeRecollectionPagedAction action) {
+            super(action);
+            this.action = action;
+        }
+
+        public int getLimit() {
+            return action.getLimit();
+        }
+
+        public int getPageSize() {
+            return action.getPageSize();
+        }
+
+        public byte[] getPagingToken() {
+            return action.getPagingToken();
+        }
+
+    }
+
     private class TiesServiceScopePaidHealing extends TiesServiceScopePaidAction implements TiesServiceScopeHealingAction {
 
         private final TiesServiceScopeHealingAction action;
@@ -232,4 +356,20 @@ public class TiesServiceScopeBillingWrapper implements TiesServiceScope {
 
     }
 
+    private class TiesServiceScopePaidConsistentHealing extends TiesServiceScopePaidHealing
+            implements TiesServiceScopeConsistentHealingAction {
+
+        private final TiesServiceScopeConsistentHealingAction action;
+
+        public TiesServiceScopePaidConsistentHealing(TiesServiceScopeConsistentHealingAction action) {
+            super(action);
+            this.action = action;
+        }
+
+        public TiesServiceScopeModificationAction.ActionConsistency getConsistency() {
+            return action.getConsistency();
+        }
+
+    }
+
 }
@@ -0,0 +1,193 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceConsistencyConfig;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+
+/**
+ * Maps request consistency of TiesDB actions to Cassandra consistency levels.
+ *
+ * Count consistency is mapped to the smallest level covering the requested
+ * number of replicas and quorum consistency to QUORUM. Percent consistency is
+ * mapped to the weakest level guaranteed to cover it for any replication
+ * factor: QUORUM for up to a half of the replicas and ALL above that. Actions
+ * without consistency, or all actions when honorAction is disabled, use the
+ * configured read and write levels.
+ */
+public class TiesServiceScopeConsistency {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesServiceScopeConsistency.class);
+
+    private static final ConsistencyLevel DEFAULT_READ = ConsistencyLevel.QUORUM;
+    private static final ConsistencyLevel DEFAULT_WRITE = ConsistencyLevel.QUORUM;
+    private static final ConsistencyLevel DEFAULT_SERIAL = ConsistencyLevel.SERIAL;
+
+    private static final class Levels {
+
+        private final ConsistencyLevel read;
+        private final ConsistencyLevel write;
+        private final ConsistencyLevel serial;
+        private final boolean honorAction;
+        private final boolean local;
+
+        Levels(ConsistencyLevel read, ConsistencyLevel write, ConsistencyLevel serial, boolean honorAction, boolean local) {
+            if (!serial.isSerialConsistency()) {
+                throw new IllegalArgumentException("Serial consistency level expected but " + serial + " found");
+            }
+            this.read = read;
+            this.write = write;
+            this.serial = serial;
+            this.honorAction = honorAction;
+            this.local = local;
+        }
+
+        Levels override(TiesServiceConsistencyConfig config) {
+            return new Levels(//
+                    null != config.getRead() ? config.getRead() : read, //
+                    null != config.getWrite() ? config.getWrite() : write, //
+                    null != config.getSerial() ? config.getSerial() : serial, //
+                    null != config.getHonorAction() ? config.getHonorAction() : honorAction, //
+                    null != config.getLocal() ? config.getLocal() : local);
+        }
+
+        ConsistencyLevel getRead() {
+            return local ? toLocal(read) : read;
+        }
+
+        ConsistencyLevel getWrite() {
+            return local ? toLocal(write) : write;
+        }
+
+        ConsistencyLevel getSerial() {
+            return local ? toLocal(serial) : serial;
+        }
+
+        @Override
+        public String toString() {
+            return "Levels [read=" + read + ", write=" + write + ", serial=" + serial + ", honorAction=" + honorAction + ", local="
+                    + local + "]";
+        }
+
+    }
+
+    private final Levels defaults;
+    private final Map<String, Levels> tablespaces;
+
+    public TiesServiceScopeConsistency(TiesServiceConsistencyConfig config) {
+        Levels defaults = new Levels(DEFAULT_READ, DEFAULT_WRITE, DEFAULT_SERIAL, true, false);
+        Map<String, Levels> tablespaces = new HashMap<>();
+        if (null != config) {
+            defaults = defaults.override(config);
+            if (null != config.getTablespaces()) {
+                for (Map.Entry<String, TiesServiceConsistencyConfig> e : config.getTablespaces().entrySet()) {
+                    Levels levels = null == e.getValue() ? defaults : defaults.override(e.getValue());
+                    LOG.debug("Consistency for tablespace `{}`: {}", e.getKey(), levels);
+                    tablespaces.put(e.getKey(), levels);
+                }
+            }
+        }
+        LOG.debug("Default consistency: {}", defaults);
+        this.defaults = defaults;
+        this.tablespaces = Collections.unmodifiableMap(tablespaces);
+    }
+
+    private Levels getLevels(String tablespaceName) {
+        Levels levels = tablespaces.get(tablespaceName);
+        return null != levels ? levels : defaults;
+    }
+
+    public ConsistencyLevel getReadLevel(String tablespaceName, TiesServiceScopeModificationAction.ActionConsistency consistency)
+            throws TiesServiceScopeException {
+        Levels levels = getLevels(tablespaceName);
+        return levels.honorAction && null != consistency ? map(consistency, levels.local) : levels.getRead();
+    }
+
+    public ConsistencyLevel getWriteLevel(String tablespaceName, TiesServiceScopeModificationAction.ActionConsistency consistency)
+            throws TiesServiceScopeException {
+        Levels levels = getLevels(tablespaceName);
+        return levels.honorAction && null != consistency ? map(consistency, levels.local) : levels.getWrite();
+    }
+
+    public ConsistencyLevel getWriteLevel(String tablespaceName) {
+        return getLevels(tablespaceName).getWrite();
+    }
+
+    public ConsistencyLevel getSerialLevel(String tablespaceName) {
+        return getLevels(tablespaceName).getSerial();
+    }
+
+    private static ConsistencyLevel map(TiesServiceScopeModificationAction.ActionConsistency consistency, boolean local)
+            throws TiesServiceScopeException {
+        ConsistencyLevel level = consistency.accept(new TiesServiceScopeModificationAction.ActionConsistency.Visitor<ConsistencyLevel>() {
+
+            @Override
+            public ConsistencyLevel on(TiesServiceScopeModificationAction.ActionConsistency.CountConsistency c) {
+                int count = c.getValue();
+                return count <= 1 //
+                        ? ConsistencyLevel.ONE
+                        : count == 2 //
+                                ? ConsistencyLevel.TWO
+                                : count == 3 //
+                                        ? ConsistencyLevel.THREE
+                                        : ConsistencyLevel.ALL;
+            }
+
+            @Override
+            public ConsistencyLevel on(TiesServiceScopeModificationAction.ActionConsistency.PercentConsistency c) {
+                int percent = c.getValue();
+                return percent <= 0 //
+                        ? ConsistencyLevel.ONE
+                        : percent <= 50 //
+                                ? ConsistencyLevel.QUORUM
+                                : ConsistencyLevel.ALL;
+            }
+
+            @Override
+            public ConsistencyLevel on(TiesServiceScopeModificationAction.ActionConsistency.QuorumConsistency c) {
+                return ConsistencyLevel.QUORUM;
+            }
+
+        });
+        return local ? toLocal(level) : level;
+    }
+
+    private static ConsistencyLevel toLocal(ConsistencyLevel level) {
+        switch (level) {
+        case ONE:
+            return ConsistencyLevel.LOCAL_ONE;
+        case QUORUM:
+            return ConsistencyLevel.LOCAL_QUORUM;
+        case SERIAL:
+            return ConsistencyLevel.LOCAL_SERIAL;
+        default:
+            return level;
+        }
+    }
+
+}
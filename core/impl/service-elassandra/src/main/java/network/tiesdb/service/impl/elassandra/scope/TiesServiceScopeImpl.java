@@ -21,37 +21,35 @@ package network.tiesdb.service.impl.elassandra.scope;
 import static java.util.Objects.requireNonNull;
 import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.ENTRY_HEADER;
 import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.ENTRY_VERSION;
-import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getNameId;
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getFieldNameIds;
 import static network.tiesdb.util.Hex.UPPERCASE_HEX;
 
 import java.io.IOException;
-import java.lang.ref.SoftReference;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
-import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.ColumnDefinition;
-import org.apache.cassandra.config.Schema;
-import org.apache.cassandra.cql3.ColumnIdentifier;
 import org.apache.cassandra.cql3.ColumnSpecification;
-import org.apache.cassandra.cql3.FieldIdentifier;
-import org.apache.cassandra.cql3.QueryProcessor;
 import org.apache.cassandra.cql3.UntypedResultSet;
 import org.apache.cassandra.cql3.UntypedResultSet.Row;
 import org.apache.cassandra.db.ConsistencyLevel;
@@ -70,14 +68,23 @@ import com.tiesdb.lib.crypto.digest.api.Digest;
 import network.tiesdb.api.TiesVersion;
 import network.tiesdb.exception.TiesConfigurationException;
 import network.tiesdb.service.impl.elassandra.TiesServiceImpl;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCache;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCacheRow;
+import network.tiesdb.service.impl.elassandra.scope.cache.TiesResultCacheWarmup;
 import network.tiesdb.service.impl.elassandra.scope.db.ByteArrayType;
 import network.tiesdb.service.impl.elassandra.scope.db.CassandraTypeHelper;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesElasticUtil;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesPartitionLookup;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesRangeScan;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldNameIds;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.HeaderField;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache.Kind;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesTableBinding;
 import network.tiesdb.service.impl.elassandra.scope.db.TiesTypeHelper;
 import network.tiesdb.service.scope.api.TiesEntryHeader;
-import network.tiesdb.service.scope.api.TiesServiceScope;
 import network.tiesdb.service.scope.api.TiesServiceScopeBillingAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeException;
 import network.tiesdb.service.scope.api.TiesServiceScopeHealingAction;
@@ -97,10 +104,17 @@ import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
 import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction.FieldSchema;
 
-public class TiesServiceScopeImpl implements TiesServiceScope {
+public class TiesServiceScopeImpl implements TiesServiceScopeExtended {
 
     private static final Logger LOG = LoggerFactory.getLogger(TiesServiceScopeImpl.class);
 
+    private static final int MAX_PAGE_SIZE = 10000;
+
+    private static final int MAX_CACHED_PARTITIONS = 64;
+
+    private static final int MAX_LOOKUP_PARTITIONS = 4096;
+    private static final int MIN_PARALLEL_LOOKUP_PARTITIONS = 4;
+
     public static final BigInteger SLIP0044_BASE = new BigInteger("80000000");
 
     private static abstract class ResultField implements Result.Field {
@@ -262,8 +276,6 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
 
     }
 
-    private static final Map<String, Map<String, Map<String, SoftReference<List<TiesServiceScopeRecollectionAction.Result.Entry>>>>> resultCache = new ConcurrentHashMap<>();
-
     private final TiesServiceImpl service;
     private final BigInteger schemaNetwork;
 
@@ -278,62 +290,20 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         LOG.debug(this + " is closed");
     }
 
-    private void addCache(String tablespaceName, String tableName, String queryString,
-            List<TiesServiceScopeRecollectionAction.Result.Entry> entryList) {
-        resultCache//
-                .computeIfAbsent(tablespaceName, (key) -> new ConcurrentHashMap<>()) // get tablespace cache
-                .computeIfAbsent(tableName, (key) -> new ConcurrentHashMap<>()) // get table cache
-                .put(queryString, new SoftReference<>(entryList)); // set query cache
-    }
-
-    private static final class NoRemap extends RuntimeException {
-        private static final long serialVersionUID = 2075268673162828958L;
-
-        public NoRemap() {
-            super();
-        }
-
+    private void clearCache(String tablespaceName, String tableName) {
+        service.getResultCache().invalidate(tablespaceName, tableName);
     }
 
-    private Optional<List<TiesServiceScopeRecollectionAction.Result.Entry>> getCache(String tablespaceName, String tableName,
-            String queryString) {
-        List<TiesServiceScopeRecollectionAction.Result.Entry> result = null;
-        {
-            Map<String, Map<String, SoftReference<List<TiesServiceScopeRecollectionAction.Result.Entry>>>> tsCache = resultCache
-                    .get(tablespaceName);
-            if (null != tsCache) {
-                Map<String, SoftReference<List<TiesServiceScopeRecollectionAction.Result.Entry>>> tbCache = tsCache.get(tableName);
-                if (null != tbCache) {
-                    AtomicReference<List<TiesServiceScopeRecollectionAction.Result.Entry>> refValue = new AtomicReference<>();
-                    try {
-                        tbCache.computeIfPresent(queryString, (key, value) -> {
-                            if (refValue.compareAndSet(null, value.get())) {
-                                if (null != refValue.get()) {
-                                    throw new NoRemap();
-                                }
-                                return null;
-                            } else {
-                                throw new IllegalStateException("Value reference is already set");
-                            }
-                        });
-                    } catch (NoRemap e) {
-                        LOG.debug("Found result cache for `{}`.`{}`: {}", tablespaceName, tableName, queryString);
-                    }
-                    result = refValue.get();
-                }
-            }
-        }
-        return Optional.ofNullable(result);
+    private void clearCache(String tablespaceName, String tableName, TiesTableBinding binding, Map<String, Object> partitionKey) {
+        service.getResultCache().invalidate(tablespaceName, tableName, decomposePartitionKey(binding, partitionKey));
     }
 
-    private void clearCache(String tablespaceName, String tableName) {
-        Map<String, Map<String, SoftReference<List<TiesServiceScopeRecollectionAction.Result.Entry>>>> tsCache = resultCache
-                .get(tablespaceName);
-        if (null != tsCache) {
-            Map<String, SoftReference<List<TiesServiceScopeRecollectionAction.Result.Entry>>> tbCache = tsCache.get(tableName);
-            if (null != tbCache) {
-                tbCache.clear();
-            }
+    private static List<ByteBuffer> decomposePartitionKey(TiesTableBinding binding, Map<String, Object> partitionKey) {
+        try {
+            return binding.decomposePartitionKey(partitionKey);
+        } catch (RuntimeException e) {
+            LOG.debug("Partition key {} can't be serialized", partitionKey, e);
+            return null;
         }
     }
 
@@ -373,23 +343,16 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         return sb.substring(delim.length());
     }
 
-    private static void addHeader(TiesEntryHeader tiesEntryHeader, List<String> fieldNames, List<Object> fieldValues, CFMetaData cfMetaData)
-            throws TiesServiceScopeException {
+    private static void addHeader(TiesEntryHeader tiesEntryHeader, List<String> fieldNames, List<Object> fieldValues,
+            TiesTableBinding binding) throws TiesServiceScopeException {
         fieldNames.add(ENTRY_HEADER);
-        ColumnDefinition columnDefinition = cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(ENTRY_HEADER, true));
-        if (null == columnDefinition) {
-            throw new TiesServiceScopeException("No " + ENTRY_HEADER + " column found");
-        }
-        if (!(columnDefinition.type instanceof UserType)) {
-            throw new TiesServiceScopeException("Type of " + ENTRY_HEADER + " column should be UserType");
-        }
-        UserType type = (UserType) columnDefinition.type;
+        UserType type = binding.getHeaderType();
         ByteBuffer[] components = new ByteBuffer[type.size()];
         for (int i = 0; i < type.size(); i++) {
             @SuppressWarnings("unchecked")
             AbstractType<Object> fieldType = (AbstractType<Object>) type.fieldType(i);
-            Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(getHeaderField(tiesEntryHeader, type.fieldNameAsString(i)),
-                    fieldType);
+            Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(
+                    getHeaderField(tiesEntryHeader, binding.getHeaderField(i), type.fieldNameAsString(i)), fieldType);
             if (null != fieldFormattedValue) {
                 LOG.debug("FormattedValue {} ({})", fieldFormattedValue, fieldFormattedValue.getClass());
             } else {
@@ -404,9 +367,11 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         fieldValues.add(tiesEntryHeader.getEntryVersion());
     }
 
-    private static Object getHeaderField(TiesEntryHeader h, String name) throws TiesServiceScopeException {
+    private static Object getHeaderField(TiesEntryHeader h, HeaderField headerField, String name) throws TiesServiceScopeException {
         try {
-            HeaderField headerField = HeaderField.valueOfIgnoreCase(name);
+            if (null == headerField) {
+                throw new TiesServiceScopeException("Unknown header field " + name);
+            }
             switch (headerField) {
             case TIM:
                 return h.getEntryTimestamp();
@@ -455,6 +420,37 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         }
     }
 
+    /**
+     * Gets binding of the table creating its schema if the table is missing
+     * and refreshing it once if any of the fields has no column.
+     */
+    private TiesTableBinding getBinding(String tablespaceName, String tableName, Set<String> fieldNames)
+            throws TiesServiceScopeException {
+        CheckedSupplier<TiesTableBinding, RuntimeException> getBinding = () -> {
+            return TiesTableBinding.get(tablespaceName, tableName);
+        };
+        TiesTableBinding binding = retry(//
+                getBinding, //
+                getBinding.butFirst(() -> createSchema(tablespaceName, tableName)));
+        if (null != binding && !hasColumns(binding, fieldNames)) {
+            refreshSchema(tablespaceName, tableName);
+            binding = getBinding.get();
+        }
+        if (null == binding) {
+            throw new TiesServiceScopeException("Table `" + tablespaceName + "`.`" + tableName + "` was not found");
+        }
+        return binding;
+    }
+
+    private static boolean hasColumns(TiesTableBinding binding, Set<String> fieldNames) {
+        for (String fieldName : fieldNames) {
+            if (null == binding.getColumn(getFieldNameIds(fieldName).getField())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void createSchema(String tablespaceName, String tableName) {
         try {
             service.getSchemaImpl().createSchema(tablespaceName, tableName);
@@ -463,63 +459,297 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         }
     }
 
+    private abstract class Modification {
+
+        protected final TiesEntryExtended entry;
+        protected final TiesTableBinding binding;
+        protected final List<Object> partition;
+        protected final Map<String, Object> partitionKey;
+        protected final ConsistencyLevel writeCl;
+        protected final ConsistencyLevel serialCl;
+        private final TiesResultCache.Stamp stamp;
+
+        Modification(TiesEntryExtended entry, TiesTableBinding binding, List<String> keyNames, List<Object> keyValues,
+                ConsistencyLevel writeCl, ConsistencyLevel serialCl) {
+            this.entry = entry;
+            this.binding = binding;
+            Map<String, Object> partitionKey = new HashMap<>();
+            for (int i = 0; i < keyNames.size(); i++) {
+                partitionKey.put(keyNames.get(i), keyValues.get(i));
+            }
+            this.partition = Arrays.asList(binding, partitionKey);
+            this.partitionKey = partitionKey;
+            this.writeCl = writeCl;
+            this.serialCl = serialCl;
+            this.stamp = service.getResultCache().isWriteThrough() && binding.getCFMetaData().clusteringColumns().isEmpty()
+                    ? service.getResultCache().newStamp(entry.getTablespaceName(), entry.getTableName(),
+                            decomposePartitionKey(binding, partitionKey))
+                    : null;
+        }
+
+        abstract Kind getKind();
+
+        abstract Object getShape();
+
+        abstract String getQuery();
+
+        abstract Object[] getValues();
+
+        abstract TiesServiceScopeModificationAction.Result getResult(UntypedResultSet result) throws TiesServiceScopeException;
+
+        UntypedResultSet execute() {
+            UntypedResultSet result = TiesStatementCache.execute(binding, getKind(), getShape(), this::getQuery, writeCl, serialCl,
+                    getValues());
+            logResult(getKind(), result);
+            return result;
+        }
+
+        TiesServiceScopeModificationAction.Result success() {
+            clearCache(entry.getTablespaceName(), entry.getTableName(), binding, partitionKey);
+            if (null != stamp && (Kind.INSERT == getKind() || Kind.UPDATE == getKind())) {
+                service.getResultCache().putRow(stamp, newRow(entry, service.getResultCache().getRow(stamp)));
+            }
+            return new TiesServiceScopeModificationAction.Result.Success() {
+                @Override
+                public byte[] getHeaderHash() {
+                    return entry.getHeader().getHash();
+                }
+            };
+        }
+
+    }
+
+    /**
+     * Builds the written entry. Values of fields passed by hash are known only
+     * if the previous entry had the same hash.
+     */
+    private static TiesResultCacheRow newRow(TiesEntryExtended entry, TiesResultCacheRow previous) {
+        Map<String, TiesResultCacheRow.Field> fields = new HashMap<>();
+        for (Map.Entry<String, TypedValueField> field : entry.getFieldValues().entrySet()) {
+            fields.put(field.getKey(), new TiesResultCacheRow.Field(field.getValue().getHash(), field.getValue().getValue()));
+        }
+        for (Map.Entry<String, TypedHashField> field : entry.getFieldHashes().entrySet()) {
+            byte[] hash = field.getValue().getHash();
+            TiesResultCacheRow.Field previousField = null == previous ? null : previous.getField(field.getKey());
+            fields.put(field.getKey(), new TiesResultCacheRow.Field(hash,
+                    null != previousField && Arrays.equals(previousField.getHash(), hash) ? previousField.getValue() : null));
+        }
+        return new TiesResultCacheRow(entry.getHeader(), fields);
+    }
+
+    private abstract class StatementModification extends Modification {
+
+        private final Kind kind;
+        private final Object shape;
+        private final Supplier<String> query;
+        private final Object[] values;
+
+        StatementModification(TiesEntryExtended entry, TiesTableBinding binding, List<String> keyNames, List<Object> keyValues,
+                Kind kind, Object shape, Supplier<String> query, Object[] values, ConsistencyLevel writeCl, ConsistencyLevel serialCl) {
+            super(entry, binding, keyNames, keyValues, writeCl, serialCl);
+            this.kind = kind;
+            this.shape = shape;
+            this.query = query;
+            this.values = values;
+        }
+
+        @Override
+        Kind getKind() {
+            return kind;
+        }
+
+        @Override
+        Object getShape() {
+            return shape;
+        }
+
+        @Override
+        String getQuery() {
+            return query.get();
+        }
+
+        @Override
+        Object[] getValues() {
+            return values;
+        }
+
+    }
+
+    private class InsertModification extends Modification {
+
+        private final List<String> keyNames;
+        private final List<Object> keyValues;
+        private final List<String> fieldNames;
+        private final List<Object> fieldValues;
+        private final List<String> allNames;
+        private final List<String> partKeyColumnsNames;
+
+        InsertModification(TiesEntryExtended entry, TiesTableBinding binding, List<String> keyNames, List<Object> keyValues,
+                List<String> fieldNames, List<Object> fieldValues, List<String> partKeyColumnsNames, ConsistencyLevel writeCl,
+                ConsistencyLevel serialCl) {
+            super(entry, binding, keyNames, keyValues, writeCl, serialCl);
+            this.keyNames = keyNames;
+            this.keyValues = keyValues;
+            this.fieldNames = fieldNames;
+            this.fieldValues = fieldValues;
+            this.partKeyColumnsNames = partKeyColumnsNames;
+            this.allNames = new ArrayList<>(keyNames.size() + fieldNames.size());
+            this.allNames.addAll(keyNames);
+            this.allNames.addAll(fieldNames);
+        }
+
+        @Override
+        Kind getKind() {
+            return Kind.INSERT;
+        }
+
+        @Override
+        Object getShape() {
+            return allNames;
+        }
+
+        @Override
+        String getQuery() {
+            String query = String.format("INSERT INTO \"%s\".\"%s\"\n" //
+                    + "(%s)\n" //
+                    + "VALUES (%s)\n" //
+                    + "IF NOT EXISTS", //
+                    binding.getTablespaceNameId(), binding.getTableNameId(), //
+                    concat(allNames, ", "), //
+                    createValuePlaceholders(allNames.size()));
+            LOG.debug("Insert query {}", query);
+            return query;
+        }
+
+        @Override
+        Object[] getValues() {
+            List<Object> allValues = new ArrayList<>(keyValues.size() + fieldValues.size());
+            allValues.addAll(keyValues);
+            allValues.addAll(fieldValues);
+            return allValues.toArray();
+        }
+
+        @Override
+        UntypedResultSet execute() {
+            return retry(//
+                    r -> !(null == r || r.isEmpty() || r.size() > 1) && r.one().getBoolean("[applied]"), //
+                    () -> super.execute(), //
+                    () -> upsert());
+        }
+
+        private UntypedResultSet upsert() {
+            LOG.trace("Insert failed trying to upsert...");
+            List<Object> allValues = new ArrayList<>(fieldValues.size() + keyValues.size());
+            allValues.addAll(fieldValues);
+            allValues.addAll(keyValues);
+
+            UntypedResultSet result = TiesStatementCache.execute(binding, Kind.UPSERT, Arrays.asList(fieldNames, keyNames), () -> {
+                String query = String.format("UPDATE \"%s\".\"%s\"" //
+                        + " SET %s = ?" //
+                        + " WHERE %s = ?" //
+                        + " IF \"" + ENTRY_VERSION + "\" = 0", //
+                        binding.getTablespaceNameId(), binding.getTableNameId(), //
+                        concat(fieldNames, " = ?, "), //
+                        concat(keyNames, " = ? AND ") //
+                );
+                LOG.debug("Upsert query {}", query);
+                return query;
+            }, writeCl, serialCl, allValues.toArray());
+            logResult(Kind.UPSERT, result);
+            return result;
+        }
+
+        @Override
+        TiesServiceScopeModificationAction.Result getResult(UntypedResultSet result) throws TiesServiceScopeException {
+            String tablespaceName = entry.getTablespaceName();
+            String tableName = entry.getTableName();
+            if (result.isEmpty()) {
+                throw new TiesServiceScopeException("No insertion result found");
+            } else if (result.size() > 1) {
+                clearCache(tablespaceName, tableName);
+                throw new TiesServiceScopeException("Multiple insertion results found");
+            } else if (!result.one().getBoolean("[applied]")) {
+                {
+                    partKeyColumnsNames.removeAll(fieldNames);
+                    if (!partKeyColumnsNames.isEmpty()) {
+                        LOG.debug("Missing values for {}", partKeyColumnsNames);
+                        Map<String, String> emptyNames = new HashMap<>();
+
+                        TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fd -> {
+                            emptyNames.put(getFieldNameIds(fd.getName()).getField(), fd.getName());
+                        });
+
+                        List<String> missingKeys = new LinkedList<>();
+                        for (String fieldNameId : partKeyColumnsNames) {
+                            missingKeys.add(emptyNames.get(fieldNameId));
+                        }
+                        throw new TiesServiceScopeException(
+                                "Missing key fields for `" + tablespaceName + "`.`" + tableName + "`: " + missingKeys);
+                    }
+                }
+                throw new TiesServiceScopeException("Insertion failed");
+            }
+            return success();
+        }
+
+    }
+
+    private static void logResult(Kind kind, UntypedResultSet result) {
+        if (LOG.isTraceEnabled() && null != result) {
+            for (UntypedResultSet.Row row : result) {
+                LOG.trace("{} result row {}", kind, row);
+                for (ColumnSpecification col : row.getColumns()) {
+                    ByteBuffer bytes = row.getBlob(col.name.toString());
+                    LOG.trace("{} result row col {} = {}", kind, col.name, (null == bytes ? null : col.type.compose(bytes)));
+                }
+            }
+        }
+    }
+
     @Override
     public void insert(TiesServiceScopeModificationAction modificationRequest) throws TiesServiceScopeException {
+        Modification modification = newInsert(modificationRequest.getEntry(), modificationRequest.getConsistency());
+        if (null == modification) {
+            return;
+        }
+        modificationRequest.checkPrerequisites();
+        modificationRequest.setResult(modification.getResult(modification.execute()));
+    }
+
+    private Modification newInsert(TiesEntryExtended entry, TiesServiceScopeModificationAction.ActionConsistency consistency)
+            throws TiesServiceScopeException {
 
-        TiesEntryExtended entry = modificationRequest.getEntry();
         String tablespaceName = entry.getTablespaceName();
         String tableName = entry.getTableName();
         LOG.debug("Insert into `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
-
-        CheckedSupplier<CFMetaData, RuntimeException> getSchema = () -> {
-            return Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
-        };
-        CFMetaData cfMetaData = retry(//
-                getSchema, //
-                getSchema.butFirst(() -> createSchema(tablespaceName, tableName)));
-
-        if (null == cfMetaData) {
-            throw new TiesServiceScopeException("Table `" + tablespaceName + "`.`" + tableName + "` was not found");
-        }
+        TiesTableBinding binding = getBinding(tablespaceName, tableName, entry.getFieldValues().keySet());
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
 
         Map<String, TypedValueField> entryFields = entry.getFieldValues();
 
         if (entryFields.isEmpty()) {
-            return;
+            return null;
         }
 
-        ArrayList<String> partKeyColumnsNames;
-        {
-            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
-            partKeyColumnsNames = new ArrayList<>(partKeyColumns.size());
-            for (ColumnDefinition columnDefinition : partKeyColumns) {
-                partKeyColumnsNames.add(columnDefinition.name.toString().toUpperCase());
-            }
-        }
+        ArrayList<String> partKeyColumnsNames = new ArrayList<>(binding.getPartitionKeyNames());
 
         List<String> keyNames = new ArrayList<>(partKeyColumnsNames.size());
         List<Object> keyValues = new ArrayList<>(keyNames.size());
         List<String> fieldNames = new ArrayList<>(entryFields.size());
         List<Object> fieldValues = new ArrayList<>(entryFields.size());
 
-        addHeader(entry.getHeader(), fieldNames, fieldValues, cfMetaData);
+        addHeader(entry.getHeader(), fieldNames, fieldValues, binding);
 
         for (String fieldName : entryFields.keySet()) {
 
-            String fieldNameId = getNameId("FLD", fieldName);
-            String fieldHashNameId = getNameId("HSH", fieldName);
-            String fieldValueNameId = getNameId("VAL", fieldName);
+            FieldNameIds fieldNameIds = getFieldNameIds(fieldName);
+            String fieldNameId = fieldNameIds.getField();
+            String fieldHashNameId = fieldNameIds.getHash();
+            String fieldValueNameId = fieldNameIds.getValue();
 
-            CheckedSupplier<ColumnDefinition, RuntimeException> getColumn = () -> {
-                return cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
-            };
-            ColumnDefinition columnDefinition = retry( //
-                    getColumn, //
-                    getColumn.butFirst(() -> refreshSchema(tablespaceName, tableName)));
+            ColumnDefinition columnDefinition = binding.getColumn(fieldNameId);
 
             if (null == columnDefinition) {
                 throw new TiesServiceScopeException("Field `" + tablespaceName + "`.`" + tableName + "`.`" + fieldName + "` was not found");
@@ -531,7 +761,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     format(fieldValue.getType(), fieldValue.getValue()));
 
             Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(fieldValue.get(),
-                    columnDefinition.getExactTypeIfKnown(cfMetaData.ksName));
+                    columnDefinition.getExactTypeIfKnown(binding.getTablespaceNameId()));
             if (null != fieldFormattedValue) {
                 LOG.debug("FormattedValue {} ({})", fieldFormattedValue, fieldFormattedValue.getClass());
             } else {
@@ -558,145 +788,46 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             }
         }
 
-        modificationRequest.checkPrerequisites();
-
-        UntypedResultSet result = retry(//
-                r -> !(null == r || r.isEmpty() || r.size() > 1) && r.one().getBoolean("[applied]"), //
-                () -> {
-                    List<String> allNames = new LinkedList<>();
-                    allNames.addAll(keyNames);
-                    allNames.addAll(fieldNames);
-
-                    List<Object> allValues = new LinkedList<>();
-                    allValues.addAll(keyValues);
-                    allValues.addAll(fieldValues);
+        ConsistencyLevel writeCl = service.getConsistency().getWriteLevel(tablespaceName, consistency);
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
 
-                    String query = String.format("INSERT INTO \"%s\".\"%s\"\n" //
-                            + "(%s)\n" //
-                            + "VALUES (%s)\n" //
-                            + "IF NOT EXISTS", //
-                            tablespaceNameId, tableNameId, //
-                            concat(allNames, ", "), //
-                            createValuePlaceholders(allNames.size()));
-                    LOG.debug("Insert query {}", query);
-
-                    UntypedResultSet insertResult = QueryProcessor.execute(query, ConsistencyLevel.ALL, allValues.toArray());
-                    if (LOG.isTraceEnabled()) {
-                        for (UntypedResultSet.Row row : insertResult) {
-                            LOG.trace("Insert result row {}", row);
-                            for (ColumnSpecification col : row.getColumns()) {
-                                ByteBuffer bytes = row.getBlob(col.name.toString());
-                                LOG.trace("Insert result row col {} = {}", col.name, (null == bytes ? null : col.type.compose(bytes)));
-                            }
-                        }
-                    }
-                    return insertResult;
-                }, () -> {
-                    LOG.trace("Insert failed trying to upsert...");
-                    List<Object> allValues = new LinkedList<>();
-                    allValues.addAll(fieldValues);
-                    allValues.addAll(keyValues);
-
-                    String query = String.format("UPDATE \"%s\".\"%s\"" //
-                            + " SET %s = ?" //
-                            + " WHERE %s = ?" //
-                            + " IF \"" + ENTRY_VERSION + "\" = 0", //
-                            tablespaceNameId, tableNameId, //
-                            concat(fieldNames, " = ?, "), //
-                            concat(keyNames, " = ? AND ") //
-                    );
-                    LOG.debug("Upsert query {}", query);
-
-                    UntypedResultSet insertResult = QueryProcessor.execute(query, ConsistencyLevel.ALL, allValues.toArray());
-                    if (LOG.isTraceEnabled()) {
-                        for (UntypedResultSet.Row row : insertResult) {
-                            LOG.trace("Upsert result row {}", row);
-                            for (ColumnSpecification col : row.getColumns()) {
-                                ByteBuffer bytes = row.getBlob(col.name.toString());
-                                LOG.trace("Upsert result row col {} = {}", col.name, (null == bytes ? null : col.type.compose(bytes)));
-                            }
-                        }
-                    }
-                    return insertResult;
-                });
-
-        if (result.isEmpty()) {
-            throw new TiesServiceScopeException("No insertion result found");
-        } else if (result.size() > 1) {
-            clearCache(tablespaceName, tableName);
-            throw new TiesServiceScopeException("Multiple insertion results found");
-        } else if (!result.one().getBoolean("[applied]")) {
-            {
-                partKeyColumnsNames.removeAll(fieldNames);
-                if (!partKeyColumnsNames.isEmpty()) {
-                    LOG.debug("Missing values for {}", partKeyColumnsNames);
-                    Map<String, String> emptyNames = new HashMap<>();
-
-                    TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fd -> {
-                        emptyNames.put(getNameId("FLD", fd.getName()), fd.getName());
-                    });
-
-                    List<String> missingKeys = new LinkedList<>();
-                    for (String fieldNameId : partKeyColumnsNames) {
-                        missingKeys.add(emptyNames.get(fieldNameId));
-                    }
-                    throw new TiesServiceScopeException(
-                            "Missing key fields for `" + tablespaceName + "`.`" + tableName + "`: " + missingKeys);
-                }
-            }
-            throw new TiesServiceScopeException("Insertion failed");
-        }
-        clearCache(tablespaceName, tableName);
-        modificationRequest.setResult(new TiesServiceScopeModificationAction.Result.Success() {
-            @Override
-            public byte[] getHeaderHash() {
-                return entry.getHeader().getHash();
-            }
-        });
+        return new InsertModification(entry, binding, keyNames, keyValues, fieldNames, fieldValues, partKeyColumnsNames, writeCl,
+                serialCl);
     }
 
     @Override
     public void update(TiesServiceScopeModificationAction modificationRequest) throws TiesServiceScopeException {
+        Modification modification = newUpdate(modificationRequest.getEntry(), modificationRequest.getConsistency());
+        modificationRequest.checkPrerequisites();
+        modificationRequest.setResult(modification.getResult(modification.execute()));
+    }
 
-        TiesEntryExtended entry = modificationRequest.getEntry();
+    private Modification newUpdate(TiesEntryExtended entry, TiesServiceScopeModificationAction.ActionConsistency consistency)
+            throws TiesServiceScopeException {
 
         String tablespaceName = entry.getTablespaceName();
         String tableName = entry.getTableName();
         LOG.debug("Update in `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
+        TiesTableBinding binding = TiesTableBinding.get(tablespaceName, tableName);
 
-        CFMetaData cfMetaData = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
-
-        if (null == cfMetaData) {
+        if (null == binding) {
             throw new TiesServiceScopeException("Update failed");
         }
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
 
         Map<String, TypedValueField> entryFieldValues = entry.getFieldValues();
         Map<String, TypedHashField> entryFieldHashes = entry.getFieldHashes();
-        ArrayList<String> partKeyColumnsNames;
-        {
-            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
-            partKeyColumnsNames = new ArrayList<>(partKeyColumns.size());
-            for (ColumnDefinition columnDefinition : partKeyColumns) {
-                partKeyColumnsNames.add(columnDefinition.name.toString().toUpperCase());
-            }
-        }
+        ArrayList<String> partKeyColumnsNames = new ArrayList<>(binding.getPartitionKeyNames());
 
         Map<String, String> emptyNames;
         {
-            Collection<ColumnDefinition> columns = cfMetaData.allColumns();
-
-            ArrayList<String> columnNames = new ArrayList<>(columns.size());
-            for (ColumnDefinition c : columns) {
-                columnNames.add(c.name.toString());
-            }
+            Set<String> columnNames = binding.getColumnNames();
 
             Map<String, String> names = new HashMap<>();
             TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fd -> {
-                names.put(getNameId("FLD", fd.getName()), fd.getName());
+                names.put(getFieldNameIds(fd.getName()).getField(), fd.getName());
             });
 
             if (!columnNames.containsAll(names.keySet())) {
@@ -713,16 +844,17 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         List<String> hashNames = new ArrayList<>(entryFieldHashes.size());
         List<Object> hashValues = new ArrayList<>(hashNames.size());
 
-        addHeader(entry.getHeader(), fieldNames, fieldValues, cfMetaData);
+        addHeader(entry.getHeader(), fieldNames, fieldValues, binding);
 
         for (Map.Entry<String, TypedValueField> entryField : entryFieldValues.entrySet()) {
 
             String fieldName = entryField.getKey();
-            String fieldNameId = getNameId("FLD", fieldName);
-            String fieldHashNameId = getNameId("HSH", fieldName);
-            String fieldValueNameId = getNameId("VAL", fieldName);
+            FieldNameIds fieldNameIds = getFieldNameIds(fieldName);
+            String fieldNameId = fieldNameIds.getField();
+            String fieldHashNameId = fieldNameIds.getHash();
+            String fieldValueNameId = fieldNameIds.getValue();
 
-            ColumnDefinition columnDefinition = cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
+            ColumnDefinition columnDefinition = binding.getColumn(fieldNameId);
             if (null == columnDefinition) {
                 throw new TiesServiceScopeException("Field `" + tablespaceName + "`.`" + tableName + "`.`" + fieldName + "` was not found");
             }
@@ -735,7 +867,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     format(fieldValue.getType(), fieldValue.getValue()));
 
             Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(fieldValue.get(),
-                    columnDefinition.getExactTypeIfKnown(cfMetaData.ksName));
+                    columnDefinition.getExactTypeIfKnown(binding.getTablespaceNameId()));
             if (null != fieldFormattedValue) {
                 LOG.debug("FormattedValue {} ({})", fieldFormattedValue, fieldFormattedValue.getClass());
             } else {
@@ -760,10 +892,11 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         for (Map.Entry<String, TypedHashField> entryField : entryFieldHashes.entrySet()) {
 
             String fieldName = entryField.getKey();
-            String fieldNameId = getNameId("FLD", fieldName);
-            String fieldHashNameId = getNameId("HSH", fieldName);
+            FieldNameIds fieldNameIds = getFieldNameIds(fieldName);
+            String fieldNameId = fieldNameIds.getField();
+            String fieldHashNameId = fieldNameIds.getHash();
 
-            ColumnDefinition columnDefinition = cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(fieldHashNameId, true));
+            ColumnDefinition columnDefinition = binding.getColumn(fieldHashNameId);
             if (null == columnDefinition) {
                 throw new TiesServiceScopeException(
                         "FieldHash `" + tablespaceName + "`.`" + tableName + "`.`" + fieldName + "` was not found");
@@ -788,99 +921,87 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             throw new TiesServiceScopeException("Missing key fields for `" + tablespaceName + "`.`" + tableName + "`: " + missingKeys);
         }
 
-        String query = String.format(//
-                "UPDATE \"%s\".\"%s\"" + //
-                        " SET %s = ?" + //
-                        " WHERE %s = ?" + //
-                        " IF \"" + ENTRY_HEADER + "\"." + HeaderField.HSH.name().toLowerCase() + " = ?" + //
-                        " AND \"" + ENTRY_VERSION + "\" = ?" + //
-                        "%s" + //
-                        "%s", //
-                tablespaceNameId, tableNameId, //
-                concat(fieldNames, " = ?, "), //
-                concat(keyNames, " = ? AND "), //
-                (hashNames.isEmpty() ? "" : String.format(" AND %s = ?", concat(hashNames, " = ? AND "))), //
-                (emptyNames.isEmpty() ? "" : String.format(" AND %s = NULL", concat(emptyNames.keySet(), " = NULL AND ")))//
-        );
-        LOG.debug("Update query {}", query);
+        List<String> emptyNameIds = new ArrayList<>(emptyNames.keySet());
+        Supplier<String> query = () -> {
+            String q = String.format(//
+                    "UPDATE \"%s\".\"%s\"" + //
+                            " SET %s = ?" + //
+                            " WHERE %s = ?" + //
+                            " IF \"" + ENTRY_HEADER + "\"." + HeaderField.HSH.name().toLowerCase() + " = ?" + //
+                            " AND \"" + ENTRY_VERSION + "\" = ?" + //
+                            "%s" + //
+                            "%s", //
+                    binding.getTablespaceNameId(), binding.getTableNameId(), //
+                    concat(fieldNames, " = ?, "), //
+                    concat(keyNames, " = ? AND "), //
+                    (hashNames.isEmpty() ? "" : String.format(" AND %s = ?", concat(hashNames, " = ? AND "))), //
+                    (emptyNameIds.isEmpty() ? "" : String.format(" AND %s = NULL", concat(emptyNameIds, " = NULL AND ")))//
+            );
+            LOG.debug("Update query {}", q);
+            return q;
+        };
 
         fieldValues.addAll(keyValues);
         fieldValues.add(TiesTypeHelper.formatToCassandraType(entry.getHeader().getEntryOldHash(), BytesType.instance));
         fieldValues.add(entry.getHeader().getEntryVersion().subtract(BigInteger.ONE));
         fieldValues.addAll(hashValues);
 
-        modificationRequest.checkPrerequisites();
+        ConsistencyLevel writeCl = service.getConsistency().getWriteLevel(tablespaceName, consistency);
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
+
+        return new StatementModification(entry, binding, keyNames, keyValues, Kind.UPDATE,
+                Arrays.asList(fieldNames, keyNames, hashNames, emptyNameIds), query, fieldValues.toArray(), writeCl, serialCl) {
 
-        UntypedResultSet result = QueryProcessor.execute(query, ConsistencyLevel.ALL, fieldValues.toArray());
-        LOG.debug("Update result {}", result);
-        if (LOG.isTraceEnabled()) {
-            for (UntypedResultSet.Row row : result) {
-                LOG.trace("Update result row {}", row);
-                for (ColumnSpecification col : row.getColumns()) {
-                    ByteBuffer bytes = row.getBlob(col.name.toString());
-                    LOG.trace("Update result row col {} = {}", col.name, (null == bytes ? null : col.type.compose(bytes)));
-                }
-            }
-        }
-        if (result.isEmpty()) {
-            throw new TiesServiceScopeException("No update result found");
-        } else if (result.size() > 1) {
-            clearCache(tablespaceName, tableName);
-            throw new TiesServiceScopeException("Multiple updates results found");
-        } else if (!result.one().getBoolean("[applied]")) {
-            throw new TiesServiceScopeException("Update failed for " + entry);
-        }
-        clearCache(tablespaceName, tableName);
-        modificationRequest.setResult(new TiesServiceScopeModificationAction.Result.Success() {
             @Override
-            public byte[] getHeaderHash() {
-                return entry.getHeader().getHash();
+            TiesServiceScopeModificationAction.Result getResult(UntypedResultSet result) throws TiesServiceScopeException {
+                LOG.debug("Update result {}", result);
+                if (result.isEmpty()) {
+                    throw new TiesServiceScopeException("No update result found");
+                } else if (result.size() > 1) {
+                    clearCache(tablespaceName, tableName);
+                    throw new TiesServiceScopeException("Multiple updates results found");
+                } else if (!result.one().getBoolean("[applied]")) {
+                    throw new TiesServiceScopeException("Update failed for " + entry);
+                }
+                return success();
             }
-        });
+
+        };
     }
 
     @Override
     public void delete(TiesServiceScopeModificationAction modificationRequest) throws TiesServiceScopeException {
+        Modification modification = newDelete(modificationRequest.getEntry(), modificationRequest.getConsistency());
+        modificationRequest.checkPrerequisites();
+        modificationRequest.setResult(modification.getResult(modification.execute()));
+    }
 
-        TiesEntryExtended entry = modificationRequest.getEntry();
+    private Modification newDelete(TiesEntryExtended entry, TiesServiceScopeModificationAction.ActionConsistency consistency)
+            throws TiesServiceScopeException {
 
         String tablespaceName = entry.getTablespaceName();
         String tableName = entry.getTableName();
         LOG.debug("Delete from `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
+        TiesTableBinding binding = TiesTableBinding.get(tablespaceName, tableName);
 
-        CFMetaData cfMetaData = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
-
-        if (null == cfMetaData) {
+        if (null == binding) {
             throw new TiesServiceScopeException("Delete failed");
         }
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
 
         Map<String, TypedValueField> entryFieldValues = entry.getFieldValues();
         Map<String, TypedHashField> entryFieldHashes = entry.getFieldHashes();
-        ArrayList<String> partKeyColumnsNames;
-        {
-            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
-            partKeyColumnsNames = new ArrayList<>(partKeyColumns.size());
-            for (ColumnDefinition columnDefinition : partKeyColumns) {
-                partKeyColumnsNames.add(columnDefinition.name.toString().toUpperCase());
-            }
-        }
+        ArrayList<String> partKeyColumnsNames = new ArrayList<>(binding.getPartitionKeyNames());
 
         Map<String, String> emptyNames;
         {
-            Collection<ColumnDefinition> columns = cfMetaData.allColumns();
-
-            ArrayList<String> columnNames = new ArrayList<>(columns.size());
-            for (ColumnDefinition c : columns) {
-                columnNames.add(c.name.toString());
-            }
+            Set<String> columnNames = binding.getColumnNames();
 
             Map<String, String> names = new HashMap<>();
             TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fd -> {
-                names.put(getNameId("FLD", fd.getName()), fd.getName());
+                names.put(getFieldNameIds(fd.getName()).getField(), fd.getName());
             });
 
             if (!columnNames.containsAll(names.keySet())) {
@@ -895,7 +1016,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         List<String> fieldNames = new ArrayList<>(entryFieldValues.size());
         List<Object> fieldValues = new ArrayList<>(fieldNames.size());
 
-        addHeader(entry.getHeader(), fieldNames, fieldValues, cfMetaData);
+        addHeader(entry.getHeader(), fieldNames, fieldValues, binding);
 
         if (!entryFieldHashes.entrySet().isEmpty()) {
             throw new TiesServiceScopeException("Deletion Entry should have only key values");
@@ -904,9 +1025,9 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         for (Map.Entry<String, TypedValueField> entryField : entryFieldValues.entrySet()) {
 
             String fieldName = entryField.getKey();
-            String fieldNameId = getNameId("FLD", fieldName);
+            String fieldNameId = getFieldNameIds(fieldName).getField();
 
-            ColumnDefinition columnDefinition = cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
+            ColumnDefinition columnDefinition = binding.getColumn(fieldNameId);
             if (null == columnDefinition) {
                 throw new TiesServiceScopeException("Field `" + tablespaceName + "`.`" + tableName + "`.`" + fieldName + "` was not found");
             }
@@ -922,7 +1043,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                 LOG.debug("KeyField {}", fieldName);
                 keyNames.add(fieldNameId);
                 Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(fieldValue.get(),
-                        columnDefinition.getExactTypeIfKnown(cfMetaData.ksName));
+                        columnDefinition.getExactTypeIfKnown(binding.getTablespaceNameId()));
                 if (null != fieldFormattedValue) {
                     LOG.debug("FormattedValue {} ({})", fieldFormattedValue, fieldFormattedValue.getClass());
                 } else {
@@ -943,8 +1064,9 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
 
                 String fieldName = emptyField.getValue();
                 String fieldNameId = emptyField.getKey();
-                String fieldHashNameId = getNameId("HSH", fieldName);
-                String fieldValueNameId = getNameId("VAL", fieldName);
+                FieldNameIds fieldNameIds = getFieldNameIds(fieldName);
+                String fieldHashNameId = fieldNameIds.getHash();
+                String fieldValueNameId = fieldNameIds.getValue();
 
                 fieldNames.add(fieldNameId);
                 fieldValues.add(emptyValue);
@@ -964,50 +1086,148 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             throw new TiesServiceScopeException("Missing key fields for `" + tablespaceName + "`.`" + tableName + "`: " + missingKeys);
         }
 
-        String query = String.format("UPDATE \"%s\".\"%s\"" //
-                + " SET %s = ?" //
-                + " WHERE %s = ?" //
-                + " IF \"" + ENTRY_HEADER + "\"." + HeaderField.HSH.name().toLowerCase() + " = ?" //
-                + " AND \"" + ENTRY_VERSION + "\" > 0", //
-                tablespaceNameId, tableNameId, //
-                concat(fieldNames, " = ?, "), //
-                concat(keyNames, " = ? AND ")//
-        );
-        LOG.debug("Delete query {}", query);
+        Supplier<String> query = () -> {
+            String q = String.format("UPDATE \"%s\".\"%s\"" //
+                    + " SET %s = ?" //
+                    + " WHERE %s = ?" //
+                    + " IF \"" + ENTRY_HEADER + "\"." + HeaderField.HSH.name().toLowerCase() + " = ?" //
+                    + " AND \"" + ENTRY_VERSION + "\" > 0", //
+                    binding.getTablespaceNameId(), binding.getTableNameId(), //
+                    concat(fieldNames, " = ?, "), //
+                    concat(keyNames, " = ? AND ")//
+            );
+            LOG.debug("Delete query {}", q);
+            return q;
+        };
 
         fieldValues.addAll(keyValues);
         fieldValues.add(TiesTypeHelper.formatToCassandraType(entry.getHeader().getEntryOldHash(), BytesType.instance));
 
-        modificationRequest.checkPrerequisites();
+        ConsistencyLevel writeCl = service.getConsistency().getWriteLevel(tablespaceName, consistency);
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
 
-        UntypedResultSet result = QueryProcessor.execute(query, ConsistencyLevel.ALL, fieldValues.toArray());
-        LOG.debug("Delete result {}", result);
-        if (LOG.isTraceEnabled()) {
-            for (UntypedResultSet.Row row : result) {
-                LOG.trace("Delete result row {}", row);
-                for (ColumnSpecification col : row.getColumns()) {
-                    ByteBuffer bytes = row.getBlob(col.name.toString());
-                    LOG.trace("Delete result row col {} = {}", col.name, (null == bytes ? null : col.type.compose(bytes)));
+        return new StatementModification(entry, binding, keyNames, keyValues, Kind.DELETE, Arrays.asList(fieldNames, keyNames), query,
+                fieldValues.toArray(), writeCl, serialCl) {
+
+            @Override
+            TiesServiceScopeModificationAction.Result getResult(UntypedResultSet result) throws TiesServiceScopeException {
+                LOG.debug("Delete result {}", result);
+                if (result.isEmpty()) {
+                    throw new TiesServiceScopeException("No delete result found");
+                } else if (result.size() > 1) {
+                    clearCache(tablespaceName, tableName);
+                    throw new TiesServiceScopeException("Multiple delete results found");
+                } else if (!result.one().getBoolean("[applied]")) {
+                    throw new TiesServiceScopeException("Delete failed");
                 }
+                return success();
+            }
+
+        };
+    }
+
+    @Override
+    public void batch(TiesServiceScopeBatchModificationAction action) throws TiesServiceScopeException {
+
+        List<TiesServiceScopeBatchModificationAction.Modification> requests = action.getModifications();
+        LOG.debug("Batch {} of {} modifications", action.getMessageId(), requests.size());
+
+        Modification[] modifications = new Modification[requests.size()];
+        for (int i = 0; i < modifications.length; i++) {
+            try {
+                modifications[i] = newModification(requests.get(i), action.getConsistency());
+            } catch (Throwable e) {
+                LOG.debug("Batch {} modification {} rejected", action.getMessageId(), i, e);
+                action.setError(i, e);
             }
         }
-        if (result.isEmpty()) {
-            throw new TiesServiceScopeException("No delete result found");
-        } else if (result.size() > 1) {
-            clearCache(tablespaceName, tableName);
-            throw new TiesServiceScopeException("Multiple delete results found");
-        } else if (!result.one().getBoolean("[applied]")) {
-            throw new TiesServiceScopeException("Delete failed");
+
+        action.checkPrerequisites();
+
+        Map<List<Object>, List<Integer>> partitions = new LinkedHashMap<>();
+        for (int i = 0; i < modifications.length; i++) {
+            if (null != modifications[i]) {
+                partitions.computeIfAbsent(modifications[i].partition, k -> new LinkedList<>()).add(i);
+            }
         }
-        clearCache(tablespaceName, tableName);
-        modificationRequest.setResult(new TiesServiceScopeModificationAction.Result.Success() {
+
+        TiesBatchExecutor.execute(action.getMessageId(), partitions.values(), new TiesBatchExecutor.Batch<TiesServiceScopeModificationAction.Result>() {
+
             @Override
-            public byte[] getHeaderHash() {
-                return entry.getHeader().getHash();
+            public boolean execute(List<Integer> partition) {
+                return executePartition(modifications, partition);
             }
+
+            @Override
+            public TiesServiceScopeModificationAction.Result execute(int index) throws TiesServiceScopeException {
+                return modifications[index].getResult(modifications[index].execute());
+            }
+
+            @Override
+            public TiesServiceScopeModificationAction.Result success(int index) {
+                return modifications[index].success();
+            }
+
+            @Override
+            public void setResult(int index, TiesServiceScopeModificationAction.Result result) throws TiesServiceScopeException {
+                action.setResult(index, result);
+            }
+
+            @Override
+            public void setError(int index, Throwable error) throws TiesServiceScopeException {
+                action.setError(index, error);
+            }
+
         });
     }
 
+    private Modification newModification(TiesServiceScopeBatchModificationAction.Modification request,
+            TiesServiceScopeModificationAction.ActionConsistency consistency) throws TiesServiceScopeException {
+        TiesEntryExtended entry = request.getEntry();
+        switch (request.getOperation()) {
+        case INSERT:
+            Modification insert = newInsert(entry, consistency);
+            if (null == insert) {
+                throw new TiesServiceScopeException("No field values found for insertion");
+            }
+            return insert;
+        case UPDATE:
+            return newUpdate(entry, consistency);
+        case DELETE:
+            return newDelete(entry, consistency);
+        default:
+            throw new TiesServiceScopeException("Unknown modification operation " + request.getOperation());
+        }
+    }
+
+    /**
+     * Runs conditional writes of a single partition as one conditional batch.
+     * Returns false if the batch was not applied, in which case modifications
+     * should be retried one by one to get the result of each. Execution errors
+     * are thrown as the batch may have been applied, e.g. on write timeout.
+     */
+    private boolean executePartition(Modification[] modifications, List<Integer> partition) {
+        Modification first = modifications[partition.get(0)];
+        List<Object> shape = new ArrayList<>(partition.size() * 2);
+        List<Object> values = new ArrayList<>();
+        for (int i : partition) {
+            shape.add(modifications[i].getKind());
+            shape.add(modifications[i].getShape());
+            values.addAll(Arrays.asList(modifications[i].getValues()));
+        }
+        UntypedResultSet result = TiesStatementCache.execute(first.binding, Kind.BATCH, shape, () -> {
+            StringBuilder qb = new StringBuilder("BEGIN BATCH\n");
+            for (int i : partition) {
+                qb.append(modifications[i].getQuery());
+                qb.append(";\n");
+            }
+            qb.append("APPLY BATCH");
+            return qb.toString();
+        }, first.writeCl, first.serialCl, values.toArray());
+        logResult(Kind.BATCH, result);
+        return null != result && !result.isEmpty() && result.one().getBoolean("[applied]");
+    }
+
     @Override
     public void select(TiesServiceScopeRecollectionAction recollectionRequest) throws TiesServiceScopeException {
 
@@ -1017,16 +1237,36 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         String tableName = request.getTableName();
         LOG.debug("Select from `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
+        if (service.getResultCache().isAbsent(tablespaceName, tableName)) {
+            LOG.debug("Table `{}`.`{}` has recently been found absent", tablespaceName, tableName);
+            return;
+        }
 
-        CFMetaData cfMetaData = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
+        TiesTableBinding binding = TiesTableBinding.get(tablespaceName, tableName);
 
-        if (null == cfMetaData) {
+        if (null == binding) {
             LOG.debug("Table `{}`.`{}` does not exist or not yet created", tablespaceName, tableName);
+            service.getResultCache().putAbsent(tablespaceName, tableName);
             return;
         }
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
+
+        TiesServiceScopeRecollectionPagedAction pagedRequest = recollectionRequest instanceof TiesServiceScopeRecollectionPagedAction
+                ? (TiesServiceScopeRecollectionPagedAction) recollectionRequest
+                : null;
+        int limit = null == pagedRequest ? 0 : pagedRequest.getLimit();
+        int pageSize = null == pagedRequest ? 0 : pagedRequest.getPageSize();
+        byte[] pagingToken = null == pagedRequest ? null : pagedRequest.getPagingToken();
+        if (0 > limit) {
+            throw new TiesServiceScopeException("Limit should not be negative but was " + limit);
+        }
+        if (0 > pageSize) {
+            throw new TiesServiceScopeException("Page size should not be negative but was " + pageSize);
+        }
+        if (0 == pageSize && null != pagingToken) {
+            throw new TiesServiceScopeException("Paging token requires positive page size");
+        }
 
         List<Object> qv = new LinkedList<>();
         StringBuilder qb = new StringBuilder();
@@ -1049,7 +1289,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             @Override
             public Void on(Argument.FieldArgument a) {
                 qb.append('"');
-                qb.append(getNameId("FLD", a.getFieldName()));
+                qb.append(getFieldNameIds(a.getFieldName()).getField());
                 qb.append('"');
                 return null;
             }
@@ -1057,21 +1297,16 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         };
 
         List<FieldDescription> tiesFields;
-        ArrayList<String> tableColumnNames;
+        Set<String> tableColumnNames;
         {
-            Collection<ColumnDefinition> columns = cfMetaData.allColumns();
-
-            ArrayList<String> columnNames = new ArrayList<>(columns.size());
-            for (ColumnDefinition c : columns) {
-                columnNames.add(c.name.toString());
-            }
+            Set<String> columnNames = binding.getColumnNames();
 
             List<FieldDescription> fields = new LinkedList<>();
             TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fields::add);
 
             ArrayList<String> fieldNameIds = new ArrayList<>(fields.size());
             for (FieldDescription fd : fields) {
-                fieldNameIds.add(getNameId("FLD", fd.getName()));
+                fieldNameIds.add(getFieldNameIds(fd.getName()).getField());
             }
 
             if (!columnNames.containsAll(fieldNameIds)) {
@@ -1118,7 +1353,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     @Override
                     public Boolean on(Selector.FieldSelector s) {
                         String fieldName = s.getFieldName();
-                        String fieldNameId = getNameId("VAL", fieldName);
+                        String fieldNameId = getFieldNameIds(fieldName).getValue();
                         if (!tableColumnNames.contains(fieldNameId)) {
                             return false;
                         }
@@ -1136,7 +1371,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             for (FieldDescription field : tiesFields) {
                 String fieldNameId = selectedFields.remove(field.getName());
                 if (null == fieldNameId) {
-                    fieldNameId = getNameId("HSH", field.getName());
+                    fieldNameId = getFieldNameIds(field.getName()).getHash();
                 }
                 if (!tableColumnNames.contains(fieldNameId)) {
                     continue;
@@ -1154,7 +1389,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
 
         } else {
             for (FieldDescription field : tiesFields) {
-                String fieldNameId = getNameId("VAL", field.getName());
+                String fieldNameId = getFieldNameIds(field.getName()).getValue();
                 qb.append('"');
                 qb.append(fieldNameId);
                 qb.append('"');
@@ -1165,56 +1400,180 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         qb.setLength(qb.length() - 1);
 
         qb.append(" from \"");
-        qb.append(tablespaceNameId);
+        qb.append(binding.getTablespaceNameId());
         qb.append("\".\"");
-        qb.append(tableNameId);
+        qb.append(binding.getTableNameId());
         qb.append("\"");
 
-        qb.append(" where \"");
-        List<Filter> filters = request.getFilters();
-        if (!filters.isEmpty()) {
+        // Filters are conjunctive, so their order is normalized for cache keys
+        List<Filter> filters = new ArrayList<>(request.getFilters());
+        filters.sort(Comparator.comparing(Filter::getFieldName).thenComparing(Filter::getName));
+        List<List<Object>> lookupKeys = forPartitionLookups(filters, binding);
+        boolean lookup = null != lookupKeys
+                && (0 == limit || 1 == lookupKeys.size() && binding.getCFMetaData().clusteringColumns().isEmpty());
+        // Partitions are not searched by index which could miss recent writes
+        String esQuery = !lookup && service.isElasticsearchPushdown() && binding.isElasticsearchIndexed()
+                && !isPartitionRestricted(filters, binding) ? forElasticsearchFilters(filters, tiesFields, limit) : null;
+        int whereIndex = qb.length();
+        int whereValueIndex = qv.size();
+        int restrictionIndex = -1;
+        if (null != esQuery) {
+            LOG.debug("Select by index {}", esQuery);
+            qb.append(" where ");
+            qb.append(TiesElasticUtil.ES_QUERY);
+            qb.append(" = ?");
+            qv.add(esQuery);
+        } else if (lookup) {
+            // Partitions are read without filtering and with no more than
+            // a single entry each unless the table has clustering columns
+            LOG.debug("Select by partition keys");
+            qb.append(" where \"");
             for (Filter filter : filters) {
                 forFilter(argVisitor, qb, filter);
-                qb.append(" and ");
+                qb.append(" and \"");
+            }
+            qb.setLength(qb.length() - " and \"".length());
+        } else {
+            qb.append(" where \"");
+            if (!filters.isEmpty()) {
+                for (Filter filter : filters) {
+                    forFilter(argVisitor, qb, filter);
+                    qb.append(" and ");
+                }
+                // qb.setLength(qb.length() - 5);
+                qb.append("\"");
             }
-            // qb.setLength(qb.length() - 5);
-            qb.append("\"");
-        }
 
-        qb.append(ENTRY_VERSION);
-        qb.append("\" > 0");
+            qb.append(ENTRY_VERSION);
+            qb.append("\" > 0");
+            restrictionIndex = qb.length();
 
-        qb.append(" ALLOW FILTERING");
+            // Limit is bound, so statements are shared by different limits.
+            // Paged selects keep the remaining limit in the paging token, as
+            // pages are processed with no bound values
+            if (0 < limit && 0 == pageSize) {
+                qb.append(" LIMIT ?");
+                qv.add(limit);
+            }
+
+            qb.append(" ALLOW FILTERING");
+        }
+        // Index search can't be combined with other restrictions and
+        // partition lookup is not restricted to keep it unfiltered
+        boolean checkVersion = null != esQuery || lookup;
+        // Scan restriction is the where clause to be combined with token ranges
+        String scanRestriction = 0 <= restrictionIndex ? qb.substring(whereIndex + " where ".length(), restrictionIndex) : null;
 
         String queryString = qb.toString();
         LOG.debug("{}", queryString);
 
+        ConsistencyLevel readCl = service.getConsistency().getReadLevel(tablespaceName, recollectionRequest.getConsistency());
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
+
         recollectionRequest.checkPrerequisites();
 
         try {
-            List<Result.Entry> entryList = getCache(tablespaceName, tableName, queryString).orElseGet(() -> {
-                UntypedResultSet result = QueryProcessor.execute(queryString, ConsistencyLevel.ALL, qv.toArray());
-                LOG.debug("Select result {}", result);
-                if (LOG.isTraceEnabled()) {
-                    for (UntypedResultSet.Row row : result) {
-                        for (ColumnSpecification col : row.getColumns()) {
-                            ByteBuffer bytes = row.getBlob(col.name.toString());
-                            LOG.trace("Select result {}({}) = {}", col.name.toString(), col.type.getClass().getSimpleName().toString(),
-                                    (null == bytes ? null : prettyPrint(col.type.compose(bytes))));
-                        }
+            if (0 < pageSize) {
+                if (0 < whereValueIndex) {
+                    throw new TiesServiceScopeException("Paged select does not support value arguments of computed fields");
+                }
+                // Remaining limit of the following pages is kept in the token,
+                // as filtered out entries are not counted by Cassandra pager
+                int remaining = limit;
+                ByteBuffer pagingState = null;
+                if (null != pagingToken) {
+                    ByteBuffer token = ByteBuffer.wrap(pagingToken);
+                    if (token.remaining() < Integer.BYTES || 0 > (remaining = token.getInt()) || 0 < limit && remaining > limit) {
+                        throw new TiesServiceScopeException("Invalid paging token");
                     }
+                    pagingState = token.slice();
                 }
-                List<Result.Entry> updatedEntryList = new LinkedList<>();
-                for (UntypedResultSet.Row row : result) {
-                    try {
-                        updatedEntryList.add(newResult(row, newEntryHeader(row, cfMetaData), tiesFields, tiesComputes, fieldMap, aliasMap));
-                    } catch (TiesServiceScopeException e) {
-                        throw new RuntimeException(e);
+                int size = Math.min(0 < remaining ? Math.min(pageSize, remaining) : pageSize, MAX_PAGE_SIZE);
+                List<Result.Entry> entryList = new ArrayList<>(size);
+                TiesStatementCache.Pager pager = null == pagingState
+                        ? TiesStatementCache.newPager(binding, Kind.SELECT, queryString, () -> queryString, readCl, qv.toArray())
+                        : TiesStatementCache.resumePager(binding, Kind.SELECT, queryString, () -> queryString, readCl, pagingState,
+                                qv.toArray());
+                // Pages are fetched until filtered entries fill the page, so
+                // only the last page is short
+                do {
+                    for (UntypedResultSet.Row row : pager.fetchPage(size - entryList.size())) {
+                        if (checkVersion && !isLive(row)) {
+                            continue;
+                        }
+                        entryList.add(newResult(row, newEntryHeader(row, binding), tiesFields, tiesComputes, fieldMap, aliasMap));
+                    }
+                } while (!pager.isExhausted() && entryList.size() < size);
+                pagingState = pager.getPagingState();
+                int nextRemaining = 0 < remaining ? remaining - entryList.size() : 0;
+                byte[] nextPagingToken = null == pagingState || 0 < remaining && 0 == nextRemaining ? null
+                        : newPagingToken(nextRemaining, pagingState);
+                LOG.debug("Select page of {} entries, last page: {}", entryList.size(), null == nextPagingToken);
+                pagedRequest.setResult(new TiesServiceScopeRecollectionPagedAction.PagedSuccess() {
+
+                    @Override
+                    public List<Entry> getEntries() {
+                        return entryList;
                     }
+
+                    @Override
+                    public byte[] getPagingToken() {
+                        return nextPagingToken;
+                    }
+
+                });
+                return;
+            }
+            if (tiesComputes.isEmpty()) {
+                List<Result.Entry> entryList = selectWritten(tablespaceName, tableName, binding, filters, tiesFields, fieldMap);
+                if (null != entryList) {
+                    LOG.debug("Select served by written entry");
+                    recollectionRequest.setResult(new TiesServiceScopeRecollectionAction.Success() {
+                        @Override
+                        public List<Entry> getEntries() {
+                            return entryList;
+                        }
+                    });
+                    return;
                 }
-                addCache(tablespaceName, tableName, queryString, updatedEntryList);
-                return updatedEntryList;
-            });
+            }
+            List<List<ByteBuffer>> partitions = forPartitionFilters(filters, binding);
+            TiesResultCache.Key cacheKey = service.getResultCache().newKey(tablespaceName, tableName, queryString, qv, readCl,
+                    tiesComputes, partitions);
+            if (null == esQuery) {
+                service.getResultCacheWarmup().record(cacheKey, () -> new TiesResultCacheWarmup.Query(tablespaceName, tableName,
+                        queryString, qv, readCl, false, checkVersion, fieldMap, tiesComputes, aliasMap, partitions));
+            }
+            ThreadPoolExecutor scanExecutor = service.getScanExecutor();
+            List<Result.Entry> entryList;
+            if (null != esQuery) {
+                // Index is refreshed in near real time and is read regardless
+                // of consistency level, so its results are not cached
+                entryList = selectEntries(binding, queryString, qv, true, checkVersion, readCl, serialCl, tiesFields, tiesComputes,
+                        fieldMap, aliasMap);
+            } else if (null != scanExecutor && service.isRangeScan() && null != scanRestriction && 0 == limit && null == partitions
+                    && tiesComputes.isEmpty() && !isSecondaryIndexed(filters, binding)) {
+                // Unrestricted by partitions select is scanned by token ranges
+                // unless it is searched by secondary index
+                entryList = service.getResultCache().get(cacheKey, () -> {
+                    List<Result.Entry> entries = new ArrayList<>();
+                    TiesRangeScan.scan(scanExecutor, scanExecutor.getMaximumPoolSize(), binding, queryString.substring(0, whereIndex),
+                            qv.subList(0, whereValueIndex), scanRestriction, qv.subList(whereValueIndex, qv.size()), readCl, serialCl,
+                            newResultMapper(binding, false, tiesFields, tiesComputes, fieldMap, aliasMap), entries::add);
+                    return entries;
+                });
+            } else if (null != scanExecutor && null != lookupKeys && lookupKeys.size() >= MIN_PARALLEL_LOOKUP_PARTITIONS
+                    && tiesComputes.isEmpty()) {
+                // Many partitions are read in parallel instead of IN query,
+                // and limited select stops reading them once it is reached
+                entryList = service.getResultCache().get(cacheKey,
+                        () -> TiesPartitionLookup.lookup(scanExecutor, service.getLookupConcurrency(), binding,
+                                queryString.substring(0, whereIndex), qv.subList(0, whereValueIndex), lookupKeys, limit, readCl,
+                                serialCl, newResultMapper(binding, true, tiesFields, tiesComputes, fieldMap, aliasMap)));
+            } else {
+                entryList = service.getResultCache().get(cacheKey, () -> selectEntries(binding, queryString, qv, null != esQuery,
+                        checkVersion, readCl, serialCl, tiesFields, tiesComputes, fieldMap, aliasMap));
+            }
             recollectionRequest.setResult(new TiesServiceScopeRecollectionAction.Success() {
                 @Override
                 public List<Entry> getEntries() {
@@ -1240,6 +1599,324 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         }
     }
 
+    private List<Result.Entry> selectEntries(TiesTableBinding binding, String queryString, List<Object> qv, boolean indexed,
+            boolean checkVersion, ConsistencyLevel readCl, ConsistencyLevel serialCl, List<FieldDescription> tiesFields, List<FieldDescription> tiesComputes,
+            Map<FieldDescription, String> fieldMap, Map<FieldDescription, String> aliasMap) {
+        Iterable<UntypedResultSet.Row> result = !indexed
+                ? TiesStatementCache.execute(binding, Kind.SELECT, queryString, () -> queryString, readCl, serialCl, qv.toArray())
+                : selectAllPages(binding, queryString, readCl, qv.toArray());
+        LOG.debug("Select result {}", result);
+        if (LOG.isTraceEnabled()) {
+            for (UntypedResultSet.Row row : result) {
+                for (ColumnSpecification col : row.getColumns()) {
+                    ByteBuffer bytes = row.getBlob(col.name.toString());
+                    LOG.trace("Select result {}({}) = {}", col.name.toString(), col.type.getClass().getSimpleName().toString(),
+                            (null == bytes ? null : prettyPrint(col.type.compose(bytes))));
+                }
+            }
+        }
+        java.util.function.Function<Row, Result.Entry> mapper = newResultMapper(binding, checkVersion, tiesFields, tiesComputes,
+                fieldMap, aliasMap);
+        List<Result.Entry> updatedEntryList = new LinkedList<>();
+        for (UntypedResultSet.Row row : result) {
+            Result.Entry entry = mapper.apply(row);
+            if (null != entry) {
+                updatedEntryList.add(entry);
+            }
+        }
+        return updatedEntryList;
+    }
+
+    /**
+     * Returns function mapping rows to entries. Rows of deleted entries are
+     * mapped to null if checkVersion is set.
+     */
+    private static java.util.function.Function<Row, Result.Entry> newResultMapper(TiesTableBinding binding, boolean checkVersion,
+            List<FieldDescription> tiesFields, List<FieldDescription> tiesComputes, Map<FieldDescription, String> fieldMap,
+            Map<FieldDescription, String> aliasMap) {
+        return row -> {
+            if (checkVersion && !isLive(row)) {
+                return null;
+            }
+            try {
+                return newResult(row, newEntryHeader(row, binding), tiesFields, tiesComputes, fieldMap, aliasMap);
+            } catch (TiesServiceScopeException e) {
+                throw new RuntimeException(e);
+            }
+        };
+    }
+
+    /**
+     * Loads results of the saved select into the result cache. Selects of
+     * removed or retyped fields are skipped.
+     */
+    public void warmup(TiesResultCacheWarmup.Query query) throws TiesServiceScopeException {
+        String tablespaceName = query.getTablespaceName();
+        String tableName = query.getTableName();
+        if (query.isIndexed()) {
+            LOG.debug("Warmup of index search on `{}`.`{}` is skipped", tablespaceName, tableName);
+            return;
+        }
+        TiesTableBinding binding = TiesTableBinding.get(tablespaceName, tableName);
+        if (null == binding) {
+            LOG.debug("Warmup table `{}`.`{}` does not exist", tablespaceName, tableName);
+            return;
+        }
+        List<FieldDescription> tiesFields = new LinkedList<>();
+        TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, tiesFields::add);
+        if (!query.isSelectable(tiesFields, binding.getColumnNames())) {
+            LOG.debug("Warmup table `{}`.`{}` fields have been changed", tablespaceName, tableName);
+            return;
+        }
+        ConsistencyLevel readCl = query.getReadCl();
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
+        TiesResultCache.Key cacheKey = service.getResultCache().newKey(tablespaceName, tableName, query.getQuery(), query.getValues(),
+                readCl, query.getComputes(), query.getPartitions());
+        service.getResultCache().get(cacheKey, () -> selectEntries(binding, query.getQuery(), query.getValues(), query.isIndexed(),
+                query.isCheckVersion(), readCl, serialCl, tiesFields, query.getComputes(), query.getFields(), query.getAliases()));
+    }
+
+    /**
+     * Checks if any of filters can be searched by SASI index, so the query is
+     * served by a single index search better than by a range scan.
+     */
+    private static boolean isSecondaryIndexed(List<Filter> filters, TiesTableBinding binding) {
+        for (Filter filter : filters) {
+            switch (filter.getName().toLowerCase()) {
+            case "=":
+            case ">":
+            case ">=":
+            case "<":
+            case "<=":
+                if (binding.isSecondaryIndexed(getFieldNameIds(filter.getFieldName()).getField())) {
+                    return true;
+                }
+                break;
+            default:
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if all of the partition key fields are restricted by equality or
+     * membership filters.
+     */
+    private static boolean isPartitionRestricted(List<Filter> filters, TiesTableBinding binding) {
+        Set<String> restricted = new HashSet<>();
+        for (Filter filter : filters) {
+            String operator = filter.getName().toLowerCase();
+            if ("=".equals(operator) || "in".equals(operator)) {
+                restricted.add(getFieldNameIds(filter.getFieldName()).getField());
+            }
+        }
+        return restricted.containsAll(binding.getPartitionKeyNames());
+    }
+
+    /**
+     * Returns values of the partition keys if filters are equalities or
+     * memberships of values for all of the partition key fields, so the query
+     * reads only these partitions, or null otherwise.
+     */
+    private static List<List<Object>> forPartitionLookups(List<Filter> filters, TiesTableBinding binding) {
+        List<String> keyNames = binding.getPartitionKeyNames();
+        if (filters.size() != keyNames.size()) {
+            return null;
+        }
+        Map<String, List<Object>> keyValues = new HashMap<>();
+        for (Filter filter : filters) {
+            String fieldNameId = getFieldNameIds(filter.getFieldName()).getField();
+            String operator = filter.getName().toLowerCase();
+            List<Argument> arguments = filter.getArguments();
+            if (!binding.isPartitionKey(fieldNameId) || arguments.isEmpty()
+                    || !("in".equals(operator) || "=".equals(operator) && 1 == arguments.size())) {
+                return null;
+            }
+            List<Object> values = new ArrayList<>(arguments.size());
+            for (Argument arg : arguments) {
+                if (!(arg instanceof Argument.ValueArgument)) {
+                    return null;
+                }
+                values.add(((Argument.ValueArgument) arg).getValue());
+            }
+            if (null != keyValues.put(fieldNameId, values)) {
+                return null;
+            }
+        }
+        List<List<Object>> values = new ArrayList<>(keyNames.size());
+        for (String keyName : keyNames) {
+            values.add(keyValues.get(keyName));
+        }
+        return TiesPartitionLookup.keys(values, MAX_LOOKUP_PARTITIONS);
+    }
+
+    /**
+     * Returns partition keys the query is restricted to by equality filters
+     * or null if the query can read any partition.
+     */
+    private static List<List<ByteBuffer>> forPartitionFilters(List<Filter> filters, TiesTableBinding binding) {
+        Map<String, List<Object>> keyValues = new HashMap<>();
+        for (Filter filter : filters) {
+            String fieldNameId = getFieldNameIds(filter.getFieldName()).getField();
+            String operator = filter.getName().toLowerCase();
+            if (!binding.isPartitionKey(fieldNameId) || !("=".equals(operator) || "in".equals(operator))) {
+                continue;
+            }
+            List<Object> values = new ArrayList<>(filter.getArguments().size());
+            for (Argument arg : filter.getArguments()) {
+                if (!(arg instanceof Argument.ValueArgument)) {
+                    values = null;
+                    break;
+                }
+                values.add(((Argument.ValueArgument) arg).getValue());
+            }
+            if (null != values) {
+                List<Object> restricted = keyValues.putIfAbsent(fieldNameId, values);
+                if (null != restricted) {
+                    restricted.retainAll(values);
+                }
+            }
+        }
+        List<Map<String, Object>> keys = new ArrayList<>();
+        keys.add(new HashMap<>());
+        for (String keyName : binding.getPartitionKeyNames()) {
+            List<Object> values = keyValues.get(keyName);
+            if (null == values || keys.size() * values.size() > MAX_CACHED_PARTITIONS) {
+                return null;
+            }
+            List<Map<String, Object>> product = new ArrayList<>(keys.size() * values.size());
+            for (Map<String, Object> key : keys) {
+                for (Object value : values) {
+                    Map<String, Object> k = new HashMap<>(key);
+                    k.put(keyName, value);
+                    product.add(k);
+                }
+            }
+            keys = product;
+        }
+        List<List<ByteBuffer>> partitions = new ArrayList<>(keys.size());
+        try {
+            for (Map<String, Object> key : keys) {
+                List<ByteBuffer> partition = binding.decomposePartitionKey(key);
+                if (null == partition) {
+                    return null;
+                }
+                partitions.add(partition);
+            }
+        } catch (RuntimeException e) {
+            LOG.debug("Partition filters can't be serialized", e);
+            return null;
+        }
+        return partitions;
+    }
+
+    /**
+     * Returns the entry written by this node if the query is a lookup of a
+     * single primary key and all of the requested values are known.
+     */
+    private List<Result.Entry> selectWritten(String tablespaceName, String tableName, TiesTableBinding binding, List<Filter> filters,
+            List<FieldDescription> tiesFields, Map<FieldDescription, String> fieldMap) throws TiesServiceScopeException {
+        if (!service.getResultCache().isWriteThrough() || filters.size() != binding.getPartitionKeyNames().size()
+                || !binding.getCFMetaData().clusteringColumns().isEmpty()) {
+            return null;
+        }
+        for (Filter filter : filters) {
+            if (!"=".equals(filter.getName()) || !binding.isPartitionKey(getFieldNameIds(filter.getFieldName()).getField())) {
+                return null;
+            }
+        }
+        List<List<ByteBuffer>> partitions = forPartitionFilters(filters, binding);
+        if (null == partitions || partitions.size() != 1) {
+            return null;
+        }
+        TiesResultCacheRow row = service.getResultCache().getRow(tablespaceName, tableName, partitions.get(0));
+        if (null == row || null == row.getHeader().getEntryVersion() || row.getHeader().getEntryVersion().signum() <= 0) {
+            return null;
+        }
+        List<Result.Field> entryFields = new LinkedList<>();
+        for (FieldDescription tiesFieldDescription : tiesFields) {
+            String fieldNameId = fieldMap.get(tiesFieldDescription);
+            if (null == fieldNameId) {
+                continue;
+            }
+            TiesResultCacheRow.Field field = row.getField(tiesFieldDescription.getName());
+            if (null == field) {
+                return null;
+            }
+            switch (fieldNameId.substring(0, 3)) {
+            case "VAL": {
+                if (null == field.getValue()) {
+                    return null;
+                }
+                entryFields.add(new ResultRawField(tiesFieldDescription, field.getValue()));
+                break;
+            }
+            case "HSH": {
+                entryFields.add(new ResultHashField(tiesFieldDescription, ByteBuffer.wrap(field.getHash())));
+                break;
+            }
+            default:
+                throw new TiesServiceScopeException("Unknown field prefix for field " + fieldNameId);
+            }
+        }
+        return Collections.singletonList(newResult(row.getHeader(), entryFields, new LinkedList<>()));
+    }
+
+    private static List<UntypedResultSet.Row> selectAllPages(TiesTableBinding binding, String queryString, ConsistencyLevel readCl,
+            Object[] values) {
+        List<UntypedResultSet.Row> rows = new ArrayList<>();
+        TiesStatementCache.Pager pager = TiesStatementCache.newPager(binding, Kind.SELECT, queryString, () -> queryString, readCl,
+                values);
+        do {
+            for (UntypedResultSet.Row row : pager.fetchPage(MAX_PAGE_SIZE)) {
+                rows.add(row);
+            }
+        } while (!pager.isExhausted());
+        return rows;
+    }
+
+    private static boolean isLive(UntypedResultSet.Row row) {
+        ByteBuffer version = row.getBlob(ENTRY_VERSION);
+        return null != version && IntegerType.instance.compose(version).signum() > 0;
+    }
+
+    /**
+     * Builds Elasticsearch query for filters or returns null if any of filters
+     * can't be searched by index. Non-zero limit restricts the count of hits.
+     */
+    private static String forElasticsearchFilters(List<Filter> filters, List<FieldDescription> tiesFields, int limit) {
+        if (filters.isEmpty()) {
+            return null;
+        }
+        Map<String, String> fieldTypes = new HashMap<>();
+        for (FieldDescription fd : tiesFields) {
+            fieldTypes.put(fd.getName(), fd.getType());
+        }
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        for (Filter filter : filters) {
+            String fieldType = fieldTypes.get(filter.getFieldName());
+            try {
+                if (null == fieldType || null == TiesTypeHelper.mapToElasticsearchType(fieldType)) {
+                    return null;
+                }
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Filter `{}` is searched without index", filter.getFieldName(), e);
+                return null;
+            }
+            List<Object> values = new ArrayList<>(filter.getArguments().size());
+            for (Argument arg : filter.getArguments()) {
+                if (!(arg instanceof Argument.ValueArgument)) {
+                    return null;
+                }
+                values.add(((Argument.ValueArgument) arg).getValue());
+            }
+            if (!builder.add(getFieldNameIds(filter.getFieldName()).getField(), filter.getName().toLowerCase(), values)) {
+                return null;
+            }
+        }
+        return builder.build(limit);
+    }
+
     private static final class TiesServiceScopeExceptionWrapper extends RuntimeException {
 
         private static final long serialVersionUID = -7205017938363533519L;
@@ -1264,23 +1941,12 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         String tableName = schemaRequest.getTableName();
         LOG.debug("Schema for `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
-
-        CFMetaData cfMetaData = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
-        if (null == cfMetaData) {
+        TiesTableBinding binding = TiesTableBinding.get(tablespaceName, tableName);
+        if (null == binding) {
             return;
         }
-
-        HashSet<String> partKeyColumnsNameIds;
-        {
-            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
-            partKeyColumnsNameIds = new HashSet<>(partKeyColumns.size());
-            for (ColumnDefinition columnDefinition : partKeyColumns) {
-                partKeyColumnsNameIds.add(columnDefinition.name.toString().toUpperCase());
-            }
-        }
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
 
         schemaRequest.checkPrerequisites();
 
@@ -1290,7 +1956,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                 LOG.debug("Field `{}`.`{}`.`{}`:{}", tablespaceName, tableName, fd.getName(), fd.getType());
                 fieldList.add(new FieldSchema.Field() {
 
-                    private final boolean primary = partKeyColumnsNameIds.contains(getNameId("FLD", fd.getName()));
+                    private final boolean primary = binding.isPartitionKey(getFieldNameIds(fd.getName()).getField());
 
                     @Override
                     public String getFieldType() {
@@ -1393,32 +2059,35 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
 
     }
 
+    /**
+     * @return paging token of the remaining count of entries followed by the
+     *         paging state
+     */
+    private static byte[] newPagingToken(int remaining, ByteBuffer pagingState) {
+        ByteBuffer token = ByteBuffer.allocate(Integer.BYTES + pagingState.remaining());
+        token.putInt(remaining);
+        token.put(pagingState.duplicate());
+        return token.array();
+    }
+
     private static byte[] toArray(ByteBuffer buffer) {
         byte[] array = new byte[buffer.remaining()];
         buffer.get(array);
         return array;
     }
 
-    private static TiesEntryHeader newEntryHeader(Row row, CFMetaData cfMetaData) throws TiesServiceScopeException {
-        ColumnDefinition columnDefinition = cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(ENTRY_HEADER, true));
-        if (null == columnDefinition) {
-            throw new TiesServiceScopeException("No " + ENTRY_HEADER + " column found");
-        }
-        if (!(columnDefinition.type instanceof UserType)) {
-            throw new TiesServiceScopeException("Type of " + ENTRY_HEADER + " column should be UserType");
-        }
-
-        UserType type = (UserType) columnDefinition.type;
+    private static TiesEntryHeader newEntryHeader(Row row, TiesTableBinding binding) throws TiesServiceScopeException {
+        UserType type = binding.getHeaderType();
         ByteBuffer[] components = type.split(row.getBlob(ENTRY_HEADER));
 
-        byte[] snr = newEntryHeaderField(type, components, HeaderField.SNR, ByteArrayType.instance);
-        byte[] sig = newEntryHeaderField(type, components, HeaderField.SIG, ByteArrayType.instance);
-        byte[] ohs = newEntryHeaderField(type, components, HeaderField.OHS, ByteArrayType.instance);
-        byte[] fhs = newEntryHeaderField(type, components, HeaderField.FHS, ByteArrayType.instance);
-        byte[] hsh = newEntryHeaderField(type, components, HeaderField.HSH, ByteArrayType.instance);
+        byte[] snr = newEntryHeaderField(binding, components, HeaderField.SNR, ByteArrayType.instance);
+        byte[] sig = newEntryHeaderField(binding, components, HeaderField.SIG, ByteArrayType.instance);
+        byte[] ohs = newEntryHeaderField(binding, components, HeaderField.OHS, ByteArrayType.instance);
+        byte[] fhs = newEntryHeaderField(binding, components, HeaderField.FHS, ByteArrayType.instance);
+        byte[] hsh = newEntryHeaderField(binding, components, HeaderField.HSH, ByteArrayType.instance);
         BigInteger ver = IntegerType.instance.compose(row.getBlob(ENTRY_VERSION));
-        Date tim = newEntryHeaderField(type, components, HeaderField.TIM, TimestampType.instance);
-        Short net = newEntryHeaderField(type, components, HeaderField.NET, ShortType.instance);
+        Date tim = newEntryHeaderField(binding, components, HeaderField.TIM, TimestampType.instance);
+        Short net = newEntryHeaderField(binding, components, HeaderField.NET, ShortType.instance);
 
         return new TiesEntryHeader() {
 
@@ -1466,8 +2135,9 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
 
     }
 
-    private static <T> T newEntryHeaderField(UserType type, ByteBuffer[] components, HeaderField field, AbstractType<T> format) {
-        return format.compose(components[type.fieldPosition(FieldIdentifier.forUnquoted(field.name()))]);
+    private static <T> T newEntryHeaderField(TiesTableBinding binding, ByteBuffer[] components, HeaderField field,
+            AbstractType<T> format) {
+        return format.compose(components[binding.getHeaderFieldPosition(field)]);
     }
 
     private static Result.Entry newResult(Row row, TiesEntryHeader entryHeader, List<FieldDescription> tiesFields,
@@ -1525,6 +2195,11 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             }
         }
 
+        return newResult(entryHeader, entryFields, computedFields);
+    }
+
+    private static Result.Entry newResult(TiesEntryHeader entryHeader, List<Result.Field> entryFields,
+            List<Result.Field> computedFields) {
         return new Result.Entry() {
 
             @Override
@@ -1563,7 +2238,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
     }
 
     private static <T> void forFilter(Argument.Visitor<T> v, StringBuilder qb, Filter fil) throws TiesServiceScopeException {
-        String fieldNameId = getNameId("FLD", fil.getFieldName());
+        String fieldNameId = getFieldNameIds(fil.getFieldName()).getField();
         qb.append(fieldNameId);
         qb.append("\" ");
         String operator = fil.getName().toLowerCase();
@@ -1617,54 +2292,32 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
         String tableName = entry.getTableName();
         LOG.debug("Healing into `{}`.`{}`", tablespaceName, tableName);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
-        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, tablespaceNameId, tableNameId);
-
-        CheckedSupplier<CFMetaData, RuntimeException> getSchema = () -> {
-            return Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
-        };
-        CFMetaData cfMetaData = retry(//
-                getSchema, //
-                getSchema.butFirst(() -> createSchema(tablespaceName, tableName)));
-
-        if (null == cfMetaData) {
-            throw new TiesServiceScopeException("Table `" + tablespaceName + "`.`" + tableName + "` was not found");
-        }
+        TiesTableBinding binding = getBinding(tablespaceName, tableName, entry.getFieldValues().keySet());
+        LOG.debug("Mapping table `{}`.`{}` to {}.{}", tablespaceName, tableName, binding.getTablespaceNameId(),
+                binding.getTableNameId());
         Map<String, TypedValueField> entryFields = entry.getFieldValues();
 
         if (entryFields.isEmpty()) {
             return;
         }
 
-        ArrayList<String> partKeyColumnsNames;
-        {
-            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
-            partKeyColumnsNames = new ArrayList<>(partKeyColumns.size());
-            for (ColumnDefinition columnDefinition : partKeyColumns) {
-                partKeyColumnsNames.add(columnDefinition.name.toString().toUpperCase());
-            }
-        }
+        ArrayList<String> partKeyColumnsNames = new ArrayList<>(binding.getPartitionKeyNames());
 
         List<String> keyNames = new ArrayList<>(partKeyColumnsNames.size());
         List<Object> keyValues = new ArrayList<>(keyNames.size());
         List<String> fieldNames = new ArrayList<>(entryFields.size());
         List<Object> fieldValues = new ArrayList<>(entryFields.size());
 
-        addHeader(entry.getHeader(), fieldNames, fieldValues, cfMetaData);
+        addHeader(entry.getHeader(), fieldNames, fieldValues, binding);
 
         for (String fieldName : entryFields.keySet()) {
 
-            String fieldNameId = getNameId("FLD", fieldName);
-            String fieldHashNameId = getNameId("HSH", fieldName);
-            String fieldValueNameId = getNameId("VAL", fieldName);
+            FieldNameIds fieldNameIds = getFieldNameIds(fieldName);
+            String fieldNameId = fieldNameIds.getField();
+            String fieldHashNameId = fieldNameIds.getHash();
+            String fieldValueNameId = fieldNameIds.getValue();
 
-            CheckedSupplier<ColumnDefinition, RuntimeException> getColumn = () -> {
-                return cfMetaData.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
-            };
-            ColumnDefinition columnDefinition = retry( //
-                    getColumn, //
-                    getColumn.butFirst(() -> refreshSchema(tablespaceName, tableName)));
+            ColumnDefinition columnDefinition = binding.getColumn(fieldNameId);
 
             if (null == columnDefinition) {
                 throw new TiesServiceScopeException("Field `" + tablespaceName + "`.`" + tableName + "`.`" + fieldName + "` was not found");
@@ -1676,7 +2329,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     format(fieldValue.getType(), fieldValue.getValue()));
 
             Object fieldFormattedValue = TiesTypeHelper.formatToCassandraType(fieldValue.get(),
-                    columnDefinition.getExactTypeIfKnown(cfMetaData.ksName));
+                    columnDefinition.getExactTypeIfKnown(binding.getTablespaceNameId()));
             if (null != fieldFormattedValue) {
                 LOG.debug("FormattedValue {} ({})", fieldFormattedValue, fieldFormattedValue.getClass());
             } else {
@@ -1703,6 +2356,12 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             }
         }
 
+        TiesServiceScopeModificationAction.ActionConsistency consistency = healingRequest instanceof TiesServiceScopeConsistentHealingAction
+                ? ((TiesServiceScopeConsistentHealingAction) healingRequest).getConsistency()
+                : null;
+        ConsistencyLevel writeCl = service.getConsistency().getWriteLevel(tablespaceName, consistency);
+        ConsistencyLevel serialCl = service.getConsistency().getSerialLevel(tablespaceName);
+
         UntypedResultSet result = retry(//
                 r -> !(null == r || r.isEmpty() || r.size() > 1) && r.one().getBoolean("[applied]"), //
                 () -> {
@@ -1714,16 +2373,17 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     allValues.addAll(keyValues);
                     allValues.addAll(fieldValues);
 
-                    String query = String.format("INSERT INTO \"%s\".\"%s\"\n" //
-                            + "(%s)\n" //
-                            + "VALUES (%s)\n" //
-                            + "IF NOT EXISTS", //
-                            tablespaceNameId, tableNameId, //
-                            concat(allNames, ", "), //
-                            createValuePlaceholders(allNames.size()));
-                    LOG.debug("Healing insert query {}", query);
-
-                    UntypedResultSet insertResult = QueryProcessor.execute(query, ConsistencyLevel.ALL, allValues.toArray());
+                    UntypedResultSet insertResult = TiesStatementCache.execute(binding, Kind.INSERT, allNames, () -> {
+                        String query = String.format("INSERT INTO \"%s\".\"%s\"\n" //
+                                + "(%s)\n" //
+                                + "VALUES (%s)\n" //
+                                + "IF NOT EXISTS", //
+                                binding.getTablespaceNameId(), binding.getTableNameId(), //
+                                concat(allNames, ", "), //
+                                createValuePlaceholders(allNames.size()));
+                        LOG.debug("Healing insert query {}", query);
+                        return query;
+                    }, writeCl, serialCl, allValues.toArray());
                     if (LOG.isTraceEnabled()) {
                         for (UntypedResultSet.Row row : insertResult) {
                             LOG.trace("Healing insert result row {}", row);
@@ -1741,17 +2401,19 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     allValues.addAll(fieldValues);
                     allValues.addAll(keyValues);
 
-                    String query = String.format("UPDATE \"%s\".\"%s\"" //
-                            + " SET %s = ?" //
-                            + " WHERE %s = ?" //
-                            + " IF \"" + ENTRY_VERSION + "\" = 0", //
-                            tablespaceNameId, tableNameId, //
-                            concat(fieldNames, " = ?, "), //
-                            concat(keyNames, " = ? AND ") //
-                    );
-                    LOG.debug("Healing upsert query {}", query);
-
-                    UntypedResultSet insertResult = QueryProcessor.execute(query, ConsistencyLevel.ALL, allValues.toArray());
+                    UntypedResultSet insertResult = TiesStatementCache.execute(binding, Kind.UPSERT, Arrays.asList(fieldNames, keyNames),
+                            () -> {
+                                String query = String.format("UPDATE \"%s\".\"%s\"" //
+                                        + " SET %s = ?" //
+                                        + " WHERE %s = ?" //
+                                        + " IF \"" + ENTRY_VERSION + "\" = 0", //
+                                        binding.getTablespaceNameId(), binding.getTableNameId(), //
+                                        concat(fieldNames, " = ?, "), //
+                                        concat(keyNames, " = ? AND ") //
+                                );
+                                LOG.debug("Healing upsert query {}", query);
+                                return query;
+                            }, writeCl, serialCl, allValues.toArray());
                     if (LOG.isTraceEnabled()) {
                         for (UntypedResultSet.Row row : insertResult) {
                             LOG.trace("Healing upsert result row {}", row);
@@ -1778,7 +2440,7 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
                     Map<String, String> emptyNames = new HashMap<>();
 
                     TiesSchemaUtil.loadFieldDescriptions(tablespaceName, tableName, fd -> {
-                        emptyNames.put(getNameId("FLD", fd.getName()), fd.getName());
+                        emptyNames.put(getFieldNameIds(fd.getName()).getField(), fd.getName());
                     });
 
                     List<String> missingKeys = new LinkedList<>();
@@ -1791,7 +2453,13 @@ public class TiesServiceScopeImpl implements TiesServiceScope {
             }
             throw new TiesServiceScopeException("Healing failed");
         }
-        clearCache(tablespaceName, tableName);
+        {
+            Map<String, Object> partitionKey = new HashMap<>();
+            for (int i = 0; i < keyNames.size(); i++) {
+                partitionKey.put(keyNames.get(i), keyValues.get(i));
+            }
+            clearCache(tablespaceName, tableName, binding, partitionKey);
+        }
         healingRequest.setResult(new TiesServiceScopeHealingAction.Result.Success() {
             @Override
             public byte[] getHeaderHash() {
@@ -0,0 +1,56 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
+
+/**
+ * Recollection of at most limit query results, which are optionally split
+ * into pages. The result of a paged action is {@link PagedSuccess} which
+ * carries the token of the next page, and the limit is the total count of
+ * entries of all pages.
+ */
+public interface TiesServiceScopeRecollectionPagedAction extends TiesServiceScopeRecollectionAction {
+
+    interface PagedSuccess extends TiesServiceScopeRecollectionAction.Success {
+
+        /**
+         * @return token of the next page or null if this page is the last one
+         */
+        byte[] getPagingToken();
+
+    }
+
+    /**
+     * @return maximum count of entries or 0 if results are not limited
+     */
+    int getLimit();
+
+    /**
+     * @return maximum count of entries of a page or 0 if results are not
+     *         paged
+     */
+    int getPageSize();
+
+    /**
+     * @return token returned with the previous page or null for the first page
+     */
+    byte[] getPagingToken();
+
+}
@@ -0,0 +1,221 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil;
+
+/**
+ * Publisher and prober of table modifications across the cluster. Every node
+ * publishes its modifications of a table by incrementing its generation
+ * counter of the table in ties_schema, and probes the counters of the other
+ * nodes in background for the tables looked up within the expiration period.
+ * Lookups only compare against the last probe, so results modified on other
+ * nodes are returned for no longer than about the probe interval. Results of
+ * a table are not returned until its counters are probed, and while the
+ * probes of them fail.
+ *
+ * Publishes are asynchronous, and modifications made while a publish of the
+ * table is pending are coalesced. If a publish keeps failing, caching is
+ * disabled on this node until the modifications are published. The counters
+ * are written and read with QUORUM, so this depends on the replication of
+ * ties_schema.
+ */
+final class TiesClusterGenerations {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesClusterGenerations.class);
+
+    private static final long MIN_PROBE_INTERVAL_IN_MILLIS = 10;
+    private static final long CLOSE_TIMEOUT_IN_SECONDS = 10;
+    private static final int PUBLISH_ATTEMPTS = 3;
+    private static final long PUBLISH_RETRY_DELAY_IN_MILLIS = 100;
+    private static final long MAX_PUBLISH_RETRY_DELAY_IN_MILLIS = 10000;
+
+    private static final long UNKNOWN_GENERATION = Long.MIN_VALUE;
+
+    private static final class Table {
+
+        private final TiesTableGenerations generations;
+        private volatile long lookedUp;
+        private volatile long clusterGeneration = UNKNOWN_GENERATION;
+        private volatile boolean current;
+        private final AtomicBoolean publishing = new AtomicBoolean();
+
+        Table(TiesTableGenerations generations) {
+            this.generations = generations;
+        }
+
+    }
+
+    private final ConcurrentHashMap<TiesTableGenerations, Table> tables = new ConcurrentHashMap<>();
+    private final long expireAfterWriteInMillis;
+    private final ScheduledThreadPoolExecutor publisher;
+    private final Set<Table> unpublished = ConcurrentHashMap.newKeySet();
+    private volatile boolean publishFailing;
+
+    TiesClusterGenerations(long probeIntervalInMillis, long expireAfterWriteInMillis) {
+        this.expireAfterWriteInMillis = expireAfterWriteInMillis;
+        this.publisher = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "TiesResultCachePublisher");
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.DiscardPolicy());
+        this.publisher.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.publisher.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+        long probeInterval = Math.max(probeIntervalInMillis, MIN_PROBE_INTERVAL_IN_MILLIS);
+        this.publisher.scheduleWithFixedDelay(this::probe, probeInterval, probeInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops probes and publishes. Pending publish retries are dropped, and
+     * modifications made afterwards are not published.
+     */
+    void close() {
+        publisher.shutdown();
+        try {
+            if (!publisher.awaitTermination(CLOSE_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                LOG.warn("Result cache publisher has not been terminated in time, forcing shutdown");
+                publisher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            publisher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Table getTable(TiesTableGenerations generations) {
+        return tables.computeIfAbsent(generations, Table::new);
+    }
+
+    /**
+     * Stops probing the forgotten table.
+     */
+    void forget(TiesTableGenerations generations) {
+        tables.remove(generations);
+    }
+
+    /**
+     * Reads generations of the tables modified by other nodes. Tables which
+     * have not been looked up within the expiration period are not probed, so
+     * their results are not returned until the next probe.
+     */
+    private void probe() {
+        long now = System.currentTimeMillis();
+        for (Table table : tables.values()) {
+            if (now - table.lookedUp >= expireAfterWriteInMillis) {
+                table.current = false;
+            } else {
+                probe(table);
+            }
+        }
+    }
+
+    private void probe(Table table) {
+        TiesTableGenerations generations = table.generations;
+        long clusterGeneration;
+        try {
+            clusterGeneration = TiesSchemaUtil.readRemoteCacheGeneration(generations.tablespaceName, generations.tableName,
+                    ConsistencyLevel.QUORUM);
+        } catch (Throwable e) {
+            if (table.current) {
+                LOG.warn("Failed to read cluster cache generation of `{}`.`{}`, its results are not cached until it is read",
+                        generations.tablespaceName, generations.tableName, e);
+            }
+            table.current = false;
+            return;
+        }
+        long lastGeneration = table.clusterGeneration;
+        table.clusterGeneration = clusterGeneration;
+        if (clusterGeneration != lastGeneration) {
+            LOG.debug("Cluster cache generation of `{}`.`{}` changed to {}", generations.tablespaceName, generations.tableName,
+                    clusterGeneration);
+            generations.invalidate();
+            TiesSchemaUtil.expireFieldDescriptions(generations.tablespaceName, generations.tableName);
+        }
+        table.current = true;
+    }
+
+    /**
+     * @return true if results of the table could be returned by this node
+     */
+    boolean isCurrent(TiesTableGenerations generations) {
+        Table table = getTable(generations);
+        long now = System.currentTimeMillis();
+        if (table.lookedUp != now) {
+            table.lookedUp = now;
+        }
+        return table.current;
+    }
+
+    /**
+     * Publishes modification of the table to other nodes unless its publish
+     * is already pending.
+     */
+    void publish(TiesTableGenerations generations) {
+        Table table = getTable(generations);
+        if (table.publishing.compareAndSet(false, true)) {
+            publisher.execute(() -> publish(table, 0));
+        }
+    }
+
+    private void publish(Table table, int failures) {
+        TiesTableGenerations generations = table.generations;
+        // Modifications made from now on need another publish
+        table.publishing.set(false);
+        try {
+            TiesSchemaUtil.incrementCacheGeneration(generations.tablespaceName, generations.tableName, ConsistencyLevel.QUORUM);
+        } catch (Throwable e) {
+            LOG.debug("Failed to publish modification of `{}`.`{}` to cluster caches", generations.tablespaceName,
+                    generations.tableName, e);
+            if (failures + 1 >= PUBLISH_ATTEMPTS && unpublished.add(table)) {
+                LOG.error("Failed to publish modifications of `{}`.`{}` to cluster caches, caching is disabled until they are published",
+                        generations.tablespaceName, generations.tableName, e);
+                publishFailing = true;
+            }
+            if (table.publishing.compareAndSet(false, true)) {
+                long delay = Math.min(PUBLISH_RETRY_DELAY_IN_MILLIS << Math.min(failures, 16), MAX_PUBLISH_RETRY_DELAY_IN_MILLIS);
+                publisher.schedule(() -> publish(table, failures + 1), delay, TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        if (unpublished.remove(table)) {
+            LOG.info("Modifications of `{}`.`{}` are published to cluster caches", generations.tablespaceName, generations.tableName);
+            publishFailing = !unpublished.isEmpty();
+        }
+    }
+
+    /**
+     * @return true if modifications of some tables could not be published to
+     *         other nodes, so caching is disabled
+     */
+    boolean isPublishFailing() {
+        return publishFailing;
+    }
+
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Empty results and absent tables remembered for a short time. They are kept
+ * apart from regular results, so they neither evict nor get evicted by them.
+ * Empty results are validated by the caller as the regular ones, and absent
+ * tables should be forgotten on any modification of the table.
+ */
+final class TiesNegativeCache<K, V> {
+
+    private static final int SIZE = 1 << 16;
+
+    private final Cache<K, V> results;
+    private final Cache<List<String>, Boolean> absentTables;
+
+    TiesNegativeCache(long expireAfterWriteInMillis) {
+        this.results = Caffeine.newBuilder() //
+                .maximumSize(SIZE) //
+                .expireAfterWrite(expireAfterWriteInMillis, TimeUnit.MILLISECONDS) //
+                .build();
+        this.absentTables = Caffeine.newBuilder() //
+                .maximumSize(SIZE) //
+                .expireAfterWrite(expireAfterWriteInMillis, TimeUnit.MILLISECONDS) //
+                .build();
+    }
+
+    V get(K key) {
+        return results.getIfPresent(key);
+    }
+
+    void put(K key, V value) {
+        results.put(key, value);
+    }
+
+    void remove(K key, V value) {
+        results.asMap().remove(key, value);
+    }
+
+    void removeIf(Predicate<K> filter) {
+        results.asMap().keySet().removeIf(filter);
+    }
+
+    boolean isAbsent(String tablespaceName, String tableName) {
+        return null != absentTables.getIfPresent(Arrays.asList(tablespaceName, tableName));
+    }
+
+    void putAbsent(String tablespaceName, String tableName) {
+        absentTables.put(Arrays.asList(tablespaceName, tableName), Boolean.TRUE);
+    }
+
+    void forgetAbsent(String tablespaceName, String tableName) {
+        absentTables.invalidate(Arrays.asList(tablespaceName, tableName));
+    }
+
+    void clearAbsent() {
+        absentTables.invalidateAll();
+    }
+
+    void clear() {
+        results.invalidateAll();
+        absentTables.invalidateAll();
+    }
+
+    long size() {
+        return results.estimatedSize() + absentTables.estimatedSize();
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Store of serialized records in direct memory slabs. Records are appended to
+ * the current slab and the oldest slab is recycled when the capacity is
+ * exhausted, so eviction is FIFO by slab and needs no per record
+ * bookkeeping. Only the index of records is kept on heap.
+ */
+final class TiesOffHeapStore<K> {
+
+    private static final int MAX_SLAB_SIZE = 1 << 20;
+
+    private static final class Slab {
+
+        private final ByteBuffer buffer;
+        private final List<Object> keys = new ArrayList<>();
+        private long epoch;
+
+        Slab(int size) {
+            this.buffer = ByteBuffer.allocateDirect(size);
+        }
+
+    }
+
+    private static final class Handle {
+
+        private final Slab slab;
+        private final long epoch;
+        private final int offset;
+        private final int length;
+
+        Handle(Slab slab, long epoch, int offset, int length) {
+            this.slab = slab;
+            this.epoch = epoch;
+            this.offset = offset;
+            this.length = length;
+        }
+
+    }
+
+    private final ConcurrentHashMap<K, Handle> index = new ConcurrentHashMap<>();
+    private final Slab[] slabs;
+    private final int slabSize;
+    private int current = -1;
+    private int position;
+
+    TiesOffHeapStore(long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity should be positive but was " + capacity);
+        }
+        this.slabSize = (int) Math.min(MAX_SLAB_SIZE, capacity);
+        this.slabs = new Slab[(int) Math.min(Integer.MAX_VALUE, capacity / slabSize)];
+    }
+
+    /**
+     * @return false if the record is larger than a slab
+     */
+    synchronized boolean put(K key, byte[] record) {
+        if (record.length > slabSize) {
+            return false;
+        }
+        if (current < 0 || position + record.length > slabSize) {
+            recycle((current + 1) % slabs.length);
+        }
+        Slab slab = slabs[current];
+        synchronized (slab) {
+            ByteBuffer buffer = slab.buffer.duplicate();
+            buffer.position(position);
+            buffer.put(record);
+            slab.keys.add(key);
+            index.put(key, new Handle(slab, slab.epoch, position, record.length));
+        }
+        position += record.length;
+        return true;
+    }
+
+    private void recycle(int next) {
+        if (null == slabs[next]) {
+            slabs[next] = new Slab(slabSize);
+        } else {
+            final Slab slab = slabs[next];
+            synchronized (slab) {
+                long epoch = slab.epoch++;
+                for (Object key : slab.keys) {
+                    index.computeIfPresent(cast(key), (k, h) -> h.slab == slab && h.epoch == epoch ? null : h);
+                }
+                slab.keys.clear();
+            }
+        }
+        current = next;
+        position = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K cast(Object key) {
+        return (K) key;
+    }
+
+    /**
+     * @return heap copy of the record or null if it is absent or has been
+     *         evicted
+     */
+    byte[] get(K key) {
+        Handle handle = index.get(key);
+        if (null == handle) {
+            return null;
+        }
+        synchronized (handle.slab) {
+            if (handle.epoch != handle.slab.epoch) {
+                return null;
+            }
+            byte[] record = new byte[handle.length];
+            ByteBuffer buffer = handle.slab.buffer.duplicate();
+            buffer.position(handle.offset);
+            buffer.get(record);
+            return record;
+        }
+    }
+
+    void remove(K key) {
+        index.remove(key);
+    }
+
+    /**
+     * Removes all of the records. Slabs are kept allocated.
+     */
+    synchronized void clear() {
+        for (Slab slab : slabs) {
+            if (null != slab) {
+                synchronized (slab) {
+                    slab.epoch++;
+                    slab.keys.clear();
+                }
+            }
+        }
+        index.clear();
+        current = -1;
+        position = 0;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    synchronized long getAllocated() {
+        long allocated = 0;
+        for (Slab slab : slabs) {
+            allocated += null == slab ? 0 : slabSize;
+        }
+        return allocated;
+    }
+
+    long getCapacity() {
+        return (long) slabs.length * slabSize;
+    }
+
+}
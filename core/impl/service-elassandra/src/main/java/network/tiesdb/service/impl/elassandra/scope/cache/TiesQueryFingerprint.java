@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.utils.MurmurHash;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+
+/**
+ * 128-bit fingerprint of a query and its bound values. Components are
+ * length-prefixed and values are tagged with their class, so different
+ * queries produce different canonical forms. Read consistency level and
+ * names and types of computed fields are part of the query as they change
+ * its results. A missing type is distinct from any type name.
+ */
+public final class TiesQueryFingerprint {
+
+    private static final long SEED = 0x5469657344424C31L;
+
+    private final long high;
+    private final long low;
+
+    private TiesQueryFingerprint(long high, long low) {
+        this.high = high;
+        this.low = low;
+    }
+
+    public static TiesQueryFingerprint of(String tablespaceName, String tableName, String query, List<?> values,
+            ConsistencyLevel readCl, List<FieldDescription> computes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(query.length() + 32 * (values.size() + 2 * computes.size() + 3));
+        write(out, tablespaceName.getBytes(StandardCharsets.UTF_8));
+        write(out, tableName.getBytes(StandardCharsets.UTF_8));
+        write(out, query.getBytes(StandardCharsets.UTF_8));
+        write(out, readCl.name().getBytes(StandardCharsets.UTF_8));
+        writeInt(out, computes.size());
+        for (FieldDescription compute : computes) {
+            write(out, compute.getName().getBytes(StandardCharsets.UTF_8));
+            if (null == compute.getType()) {
+                // Untyped computes are typed by their results
+                writeInt(out, -1);
+            } else {
+                write(out, compute.getType().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        for (Object value : values) {
+            if (null == value) {
+                write(out, new byte[0]);
+                continue;
+            }
+            write(out, value.getClass().getName().getBytes(StandardCharsets.UTF_8));
+            if (value instanceof ByteBuffer) {
+                ByteBuffer buffer = (ByteBuffer) value;
+                byte[] bytes = new byte[buffer.remaining()];
+                buffer.duplicate().get(bytes);
+                write(out, bytes);
+            } else if (value instanceof byte[]) {
+                write(out, (byte[]) value);
+            } else if (value instanceof Date) {
+                write(out, Long.toString(((Date) value).getTime()).getBytes(StandardCharsets.UTF_8));
+            } else {
+                write(out, value.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        byte[] bytes = out.toByteArray();
+        long[] hash = new long[2];
+        MurmurHash.hash3_x64_128(ByteBuffer.wrap(bytes), 0, bytes.length, SEED, hash);
+        return new TiesQueryFingerprint(hash[0], hash[1]);
+    }
+
+    private static void write(ByteArrayOutputStream out, byte[] bytes) {
+        writeInt(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TiesQueryFingerprint)) {
+            return false;
+        }
+        TiesQueryFingerprint other = (TiesQueryFingerprint) obj;
+        return high == other.high && low == other.low;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+}
@@ -0,0 +1,898 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceCacheConfig;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result;
+
+/**
+ * Bounded cache of select results. Entries are weighed by estimated size of
+ * the result entries, evicted by W-TinyLFU policy when the memory budget is
+ * exceeded and expired after write. Results are keyed by the fingerprint of
+ * the query and its bound values.
+ *
+ * Results are stamped when their key is taken, before the query is executed.
+ * Results of queries restricted to known partitions are stamped with
+ * generations of the partitions, so modifications of other partitions don't
+ * affect them. Results of other queries are stamped with the table scan
+ * generation, which is incremented by every modification of the table.
+ * Partition generations are striped to keep the memory bounded, so a
+ * modification may also evict results of a few unrelated partitions.
+ *
+ * Concurrent loads of the same results are coalesced, so only one of them
+ * executes the query and the others wait for its result.
+ *
+ * Coarse invalidation of a table increments the table generation, which is a
+ * part of the cache key, so results of older generations are never returned
+ * and are evicted as they are not used anymore.
+ *
+ * Tablespaces may have weight quotas carved out of the cache size. Results of
+ * such a tablespace are evicted from its quota segment only by its own
+ * results and overflow to the shared pool, which holds results of the other
+ * tablespaces. So a tablespace keeps its quota share regardless of the load
+ * of the others.
+ *
+ * Results evicted from the shared pool by size are spilled to the optional
+ * off-heap tier, where they are stored as serialized records in direct memory
+ * slabs. Off-heap results are validated by the same stamps and decoded lazily
+ * on a hit.
+ */
+public class TiesResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesResultCache.class);
+
+    private static final boolean DEFAULT_ENABLED = true;
+    private static final long DEFAULT_SIZE_IN_MB = 64;
+    private static final long DEFAULT_EXPIRE_AFTER_WRITE_IN_SECONDS = 300;
+    private static final long DEFAULT_OFF_HEAP_SIZE_IN_MB = 0;
+    private static final long DEFAULT_WRITE_THROUGH_SIZE_IN_MB = 0;
+    private static final long DEFAULT_NEGATIVE_EXPIRE_AFTER_WRITE_IN_MILLIS = 2000;
+    private static final boolean DEFAULT_CLUSTER_INVALIDATION = false;
+    private static final long DEFAULT_CLUSTER_PROBE_INTERVAL_IN_MILLIS = 1000;
+
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int FIELD_OVERHEAD = 64;
+    private static final int VALUE_ESTIMATE = 32;
+    private static final int KEY_OVERHEAD = 128;
+
+    private static final int PARTITION_STRIPES = 1 << 12;
+
+    /**
+     * Listener of the tables appeared in and forgotten by the cache.
+     */
+    public static interface TableListener {
+
+        void added(TiesResultCacheTableStats stats);
+
+        void removed(TiesResultCacheTableStats stats);
+
+    }
+
+    private static final class Value {
+
+        private final List<Result.Entry> entries;
+        private final int[] stripes;
+        private final long[] stamps;
+        private final long written = System.currentTimeMillis();
+        private final int weight;
+
+        Value(List<Result.Entry> entries, int[] stripes, long[] stamps, int weight) {
+            this.entries = entries;
+            this.stripes = stripes;
+            this.stamps = stamps;
+            this.weight = weight;
+        }
+
+    }
+
+    public static final class Key {
+
+        private final TiesTableGenerations table;
+        private final long generation;
+        private final TiesQueryFingerprint fingerprint;
+        private final int[] stripes;
+        private final long[] stamps;
+
+        private Key(TiesTableGenerations table, long generation, TiesQueryFingerprint fingerprint, int[] stripes, long[] stamps) {
+            this.table = table;
+            this.generation = generation;
+            this.fingerprint = fingerprint;
+            this.stripes = stripes;
+            this.stamps = stamps;
+        }
+
+        public TiesQueryFingerprint getFingerprint() {
+            return fingerprint;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fingerprint.hashCode() + Long.hashCode(generation);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return table == other.table && generation == other.generation && fingerprint.equals(other.fingerprint);
+        }
+
+        @Override
+        public String toString() {
+            return "`" + table.tablespaceName + "`.`" + table.tableName + "`(" + generation + "): " + fingerprint;
+        }
+
+    }
+
+    /**
+     * Generations of a partition taken before its modification.
+     */
+    public static final class Stamp {
+
+        private final TiesTableGenerations table;
+        private final List<ByteBuffer> partitionKey;
+        private final long generation;
+        private final int stripe;
+        private final long stamp;
+
+        private Stamp(TiesTableGenerations table, List<ByteBuffer> partitionKey, long generation, int stripe, long stamp) {
+            this.table = table;
+            this.partitionKey = partitionKey;
+            this.generation = generation;
+            this.stripe = stripe;
+            this.stamp = stamp;
+        }
+
+    }
+
+    private static final class Flight {
+
+        private final Key key;
+        private final CompletableFuture<List<Result.Entry>> result = new CompletableFuture<>();
+
+        Flight(Key key) {
+            this.key = key;
+        }
+
+        List<Result.Entry> await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+    }
+
+    private final Cache<Key, Value> cache;
+    private final Map<String, Cache<Key, Value>> quotas;
+    private final TiesWrittenRows rows;
+    private final TiesNegativeCache<Key, Value> negatives;
+    private final TiesOffHeapStore<Key> offHeap;
+    private final TiesClusterGenerations cluster;
+    private final long expireAfterWriteInMillis;
+    private final LongAdder offHeapHits = new LongAdder();
+    private final ConcurrentHashMap<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+    private final ConcurrentHashMap<List<String>, TiesTableGenerations> generations = new ConcurrentHashMap<>();
+    private volatile TableListener tableListener;
+    private final AtomicLongArray partitionGenerations = new AtomicLongArray(PARTITION_STRIPES);
+
+    public TiesResultCache(TiesServiceCacheConfig config) {
+        boolean enabled = DEFAULT_ENABLED;
+        long sizeInMb = DEFAULT_SIZE_IN_MB;
+        long expireAfterWriteInSeconds = DEFAULT_EXPIRE_AFTER_WRITE_IN_SECONDS;
+        long offHeapSizeInMb = DEFAULT_OFF_HEAP_SIZE_IN_MB;
+        long writeThroughSizeInMb = DEFAULT_WRITE_THROUGH_SIZE_IN_MB;
+        long negativeExpireAfterWriteInMillis = DEFAULT_NEGATIVE_EXPIRE_AFTER_WRITE_IN_MILLIS;
+        Map<String, Long> quotasInMb = Collections.emptyMap();
+        boolean clusterInvalidation = DEFAULT_CLUSTER_INVALIDATION;
+        long clusterProbeIntervalInMillis = DEFAULT_CLUSTER_PROBE_INTERVAL_IN_MILLIS;
+        if (null != config) {
+            enabled = null != config.getEnabled() ? config.getEnabled() : enabled;
+            sizeInMb = null != config.getSizeInMb() ? config.getSizeInMb() : sizeInMb;
+            expireAfterWriteInSeconds = null != config.getExpireAfterWriteInSeconds() ? config.getExpireAfterWriteInSeconds()
+                    : expireAfterWriteInSeconds;
+            offHeapSizeInMb = null != config.getOffHeapSizeInMb() ? config.getOffHeapSizeInMb() : offHeapSizeInMb;
+            writeThroughSizeInMb = null != config.getWriteThroughSizeInMb() ? config.getWriteThroughSizeInMb() : writeThroughSizeInMb;
+            negativeExpireAfterWriteInMillis = null != config.getNegativeExpireAfterWriteInMillis()
+                    ? config.getNegativeExpireAfterWriteInMillis()
+                    : negativeExpireAfterWriteInMillis;
+            quotasInMb = null != config.getTablespaceQuotasInMb() ? config.getTablespaceQuotasInMb() : quotasInMb;
+            clusterInvalidation = null != config.getClusterInvalidation() ? config.getClusterInvalidation() : clusterInvalidation;
+            clusterProbeIntervalInMillis = null != config.getClusterProbeIntervalInMillis() ? config.getClusterProbeIntervalInMillis()
+                    : clusterProbeIntervalInMillis;
+        }
+        if (sizeInMb < 0 || expireAfterWriteInSeconds < 0 || offHeapSizeInMb < 0 || writeThroughSizeInMb < 0
+                || negativeExpireAfterWriteInMillis < 0 || clusterProbeIntervalInMillis < 0) {
+            throw new IllegalArgumentException("Result cache sizes, expiration and probe interval should not be negative");
+        }
+        long sharedSizeInMb = sizeInMb;
+        for (Map.Entry<String, Long> quota : quotasInMb.entrySet()) {
+            if (null == quota.getValue() || quota.getValue() <= 0) {
+                throw new IllegalArgumentException("Result cache quota of `" + quota.getKey() + "` should be positive");
+            }
+            sharedSizeInMb -= quota.getValue();
+        }
+        if (sharedSizeInMb < 0) {
+            throw new IllegalArgumentException("Result cache quotas should not exceed the cache size of " + sizeInMb + "MB");
+        }
+        this.expireAfterWriteInMillis = TimeUnit.SECONDS.toMillis(expireAfterWriteInSeconds);
+        if (!enabled || 0 == sizeInMb || 0 == expireAfterWriteInSeconds) {
+            LOG.debug("Result cache disabled");
+            this.cache = null;
+            this.quotas = Collections.emptyMap();
+            this.rows = null;
+            this.negatives = null;
+            this.offHeap = null;
+            this.cluster = null;
+            return;
+        }
+        LOG.debug("Result cache of {}MB with expiration after {}s", sizeInMb, expireAfterWriteInSeconds);
+        if (0 == offHeapSizeInMb) {
+            this.offHeap = null;
+        } else {
+            LOG.debug("Result cache off-heap tier of {}MB", offHeapSizeInMb);
+            this.offHeap = new TiesOffHeapStore<>(offHeapSizeInMb << 20);
+        }
+        this.cache = newCache(sharedSizeInMb, expireAfterWriteInSeconds, this::spill);
+        Map<String, Cache<Key, Value>> quotas = new HashMap<>();
+        for (Map.Entry<String, Long> quota : quotasInMb.entrySet()) {
+            LOG.debug("Result cache quota of {}MB for `{}`", quota.getValue(), quota.getKey());
+            quotas.put(quota.getKey(), newCache(quota.getValue(), expireAfterWriteInSeconds, this::overflow));
+        }
+        this.quotas = Collections.unmodifiableMap(quotas);
+        if (0 == writeThroughSizeInMb) {
+            this.rows = null;
+        } else {
+            LOG.debug("Result cache write-through of {}MB", writeThroughSizeInMb);
+            this.rows = new TiesWrittenRows(writeThroughSizeInMb, expireAfterWriteInSeconds);
+        }
+        if (0 == negativeExpireAfterWriteInMillis) {
+            this.negatives = null;
+        } else {
+            LOG.debug("Result cache negative expiration after {}ms", negativeExpireAfterWriteInMillis);
+            this.negatives = new TiesNegativeCache<>(negativeExpireAfterWriteInMillis);
+        }
+        if (!clusterInvalidation) {
+            this.cluster = null;
+        } else {
+            LOG.debug("Result cache cluster invalidation probed every {}ms", clusterProbeIntervalInMillis);
+            this.cluster = new TiesClusterGenerations(clusterProbeIntervalInMillis, expireAfterWriteInMillis);
+        }
+    }
+
+    /**
+     * Stops probes and publishes of the cluster generations.
+     */
+    public void close() {
+        if (null != cluster) {
+            cluster.close();
+        }
+    }
+
+    @FunctionalInterface
+    private static interface Eviction {
+
+        void evicted(Key key, Value value);
+
+    }
+
+    private static Cache<Key, Value> newCache(long sizeInMb, long expireAfterWriteInSeconds, Eviction eviction) {
+        return Caffeine.newBuilder() //
+                .maximumWeight(sizeInMb << 20) //
+                .weigher((Key key, Value value) -> value.weight) //
+                .expireAfterWrite(expireAfterWriteInSeconds, TimeUnit.SECONDS) //
+                .removalListener((Key key, Value value, RemovalCause cause) -> {
+                    key.table.stats.bytes.addAndGet(-value.weight);
+                    if (RemovalCause.SIZE == cause) {
+                        key.table.stats.evictions.increment();
+                        eviction.evicted(key, value);
+                    }
+                }) //
+                .recordStats() //
+                .build();
+    }
+
+    private Cache<Key, Value> getSegment(Key key) {
+        Cache<Key, Value> segment = quotas.get(key.table.tablespaceName);
+        return null == segment ? cache : segment;
+    }
+
+    private Collection<Cache<Key, Value>> getSegments() {
+        List<Cache<Key, Value>> segments = new ArrayList<>(quotas.size() + 1);
+        segments.add(cache);
+        segments.addAll(quotas.values());
+        return segments;
+    }
+
+    private TiesTableGenerations getGenerations(String tablespaceName, String tableName) {
+        List<String> key = Arrays.asList(tablespaceName, tableName);
+        TiesTableGenerations tableGenerations = generations.get(key);
+        if (null == tableGenerations) {
+            TiesTableGenerations created = new TiesTableGenerations(tablespaceName, tableName);
+            tableGenerations = generations.putIfAbsent(key, created);
+            if (null == tableGenerations) {
+                tableGenerations = created;
+                TableListener listener = tableListener;
+                if (null != listener) {
+                    listener.added(created.stats);
+                }
+            }
+        }
+        return tableGenerations;
+    }
+
+    /**
+     * Sets the listener notified of the tables appeared in and forgotten by
+     * the cache.
+     */
+    public void setTableListener(TableListener tableListener) {
+        this.tableListener = tableListener;
+    }
+
+    public Collection<TiesResultCacheTableStats> getTableStats() {
+        List<TiesResultCacheTableStats> stats = new ArrayList<>(generations.size());
+        generations.values().forEach(g -> stats.add(g.stats));
+        return stats;
+    }
+
+    private static int getStripe(String tablespaceName, String tableName, List<ByteBuffer> partitionKey) {
+        int h = 31 * (31 * tablespaceName.hashCode() + tableName.hashCode()) + partitionKey.hashCode();
+        h ^= (h >>> 16);
+        return h & (PARTITION_STRIPES - 1);
+    }
+
+    /**
+     * Returns the key for results of the query. The key should be taken
+     * before the query is executed, so results of a query overlapped by a
+     * modification are never returned.
+     *
+     * @param values
+     *            values bound to the query
+     * @param readCl
+     *            consistency level the query is read with
+     * @param computes
+     *            computed fields of the query
+     * @param partitions
+     *            partition keys the query is restricted to or null if the
+     *            query can read any partition of the table
+     */
+    public Key newKey(String tablespaceName, String tableName, String query, List<?> values, ConsistencyLevel readCl,
+            List<FieldDescription> computes, Collection<List<ByteBuffer>> partitions) {
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        long generation = tableGenerations.generation.get();
+        int[] stripes;
+        long[] stamps;
+        if (null == partitions) {
+            stripes = null;
+            stamps = new long[] { tableGenerations.scan.get() };
+        } else {
+            stripes = new int[partitions.size()];
+            stamps = new long[stripes.length];
+            int i = 0;
+            for (List<ByteBuffer> partitionKey : partitions) {
+                stripes[i] = getStripe(tablespaceName, tableName, partitionKey);
+                stamps[i] = partitionGenerations.get(stripes[i]);
+                i++;
+            }
+        }
+        return new Key(tableGenerations, generation, TiesQueryFingerprint.of(tablespaceName, tableName, query, values, readCl, computes), stripes,
+                stamps);
+    }
+
+    /**
+     * @return true if results of the table could be returned by this node
+     */
+    private boolean isClusterCurrent(TiesTableGenerations table) {
+        return null == cluster || cluster.isCurrent(table);
+    }
+
+    private void publish(TiesTableGenerations table) {
+        if (null != cluster) {
+            cluster.publish(table);
+        }
+    }
+
+    /**
+     * @return true if modifications of some tables could not be published to
+     *         other nodes, so caching is disabled
+     */
+    public boolean isPublishFailing() {
+        return null != cluster && cluster.isPublishFailing();
+    }
+
+    public List<Result.Entry> get(Key key) {
+        if (null == cache || isPublishFailing()) {
+            return null;
+        }
+        List<Result.Entry> entries = isClusterCurrent(key.table) ? getActual(key) : null;
+        if (null == entries) {
+            key.table.stats.misses.increment();
+        } else {
+            key.table.stats.hits.increment();
+        }
+        return entries;
+    }
+
+    private List<Result.Entry> getActual(Key key) {
+        Cache<Key, Value> segment = getSegment(key);
+        Value value = segment.getIfPresent(key);
+        if (null == value && segment != cache) {
+            segment = cache;
+            value = segment.getIfPresent(key);
+        }
+        if (null != value) {
+            if (!isActual(key, value)) {
+                segment.asMap().remove(key, value);
+                return null;
+            }
+            return value.entries;
+        }
+        if (null != negatives) {
+            value = negatives.get(key);
+            if (null != value) {
+                if (!isActual(key, value)) {
+                    negatives.remove(key, value);
+                    return null;
+                }
+                return value.entries;
+            }
+        }
+        return getOffHeap(key);
+    }
+
+    private boolean isActual(Key key, Value value) {
+        return System.currentTimeMillis() - value.written < expireAfterWriteInMillis && isActual(key, value.stripes, value.stamps);
+    }
+
+    /**
+     * Moves results evicted from a quota segment to the shared pool.
+     */
+    private void overflow(Key key, Value value) {
+        if (isActual(key, value.stripes, value.stamps)) {
+            key.table.stats.bytes.addAndGet(value.weight);
+            cache.put(key, value);
+        }
+    }
+
+    private List<Result.Entry> getOffHeap(Key key) {
+        if (null == offHeap) {
+            return null;
+        }
+        byte[] bytes = offHeap.get(key);
+        if (null == bytes) {
+            return null;
+        }
+        TiesResultCodec.Record record = TiesResultCodec.decode(bytes);
+        if (System.currentTimeMillis() - record.getWritten() >= expireAfterWriteInMillis
+                || !isActual(key, record.getStripes(), record.getStamps())) {
+            offHeap.remove(key);
+            return null;
+        }
+        offHeapHits.increment();
+        return record.getEntries();
+    }
+
+    private void spill(Key key, Value value) {
+        if (null == offHeap || !isActual(key, value.stripes, value.stamps)) {
+            return;
+        }
+        byte[] record = TiesResultCodec.encode(value.written, value.stripes, value.stamps, value.entries);
+        if (null == record || !offHeap.put(key, record)) {
+            LOG.debug("Results of {} could not be stored off-heap", key);
+        }
+    }
+
+    private boolean isActual(Key key, int[] stripes, long[] stamps) {
+        if (null == stripes) {
+            return stamps[0] == key.table.scan.get();
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            if (stamps[i] != partitionGenerations.get(stripes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns cached results or loads them. A load is shared with concurrent
+     * callers of the same key unless their stamps differ, as the results of
+     * an earlier started load could miss modifications seen by a later one.
+     */
+    public List<Result.Entry> get(Key key, Supplier<List<Result.Entry>> loader) {
+        List<Result.Entry> entries = get(key);
+        if (null != entries) {
+            return entries;
+        }
+        Flight flight = new Flight(key);
+        Flight current = flights.putIfAbsent(key, flight);
+        if (null != current) {
+            if (Arrays.equals(current.key.stripes, key.stripes) && Arrays.equals(current.key.stamps, key.stamps)) {
+                LOG.debug("Waiting for concurrent load of {}", key);
+                coalesced.increment();
+                return current.await();
+            }
+            entries = load(key, loader);
+            put(key, entries);
+            return entries;
+        }
+        try {
+            entries = load(key, loader);
+            put(key, entries);
+            flight.result.complete(entries);
+            return entries;
+        } catch (RuntimeException | Error e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private static List<Result.Entry> load(Key key, Supplier<List<Result.Entry>> loader) {
+        long start = System.nanoTime();
+        try {
+            return loader.get();
+        } finally {
+            key.table.stats.loads.increment();
+            key.table.stats.loadTime.add(System.nanoTime() - start);
+        }
+    }
+
+    public void put(Key key, List<Result.Entry> entries) {
+        if (isPublishFailing()) {
+            return;
+        }
+        if (null != negatives && entries.isEmpty()) {
+            negatives.put(key, new Value(entries, key.stripes, key.stamps, KEY_OVERHEAD));
+            return;
+        }
+        if (null != cache) {
+            int weight = weigh(key, entries);
+            key.table.stats.bytes.addAndGet(weight);
+            Cache<Key, Value> segment = getSegment(key);
+            segment.put(key, new Value(entries, key.stripes, key.stamps, weight));
+            if (segment != cache) {
+                cache.invalidate(key);
+            }
+            if (null != offHeap) {
+                offHeap.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Invalidates all results of the table.
+     */
+    public void invalidate(String tablespaceName, String tableName) {
+        forgetAbsent(tablespaceName, tableName);
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        tableGenerations.invalidate();
+        publish(tableGenerations);
+    }
+
+    /**
+     * Invalidates results of the table which could read the modified
+     * partition.
+     *
+     * @param partitionKey
+     *            serialized partition key or null if it is unknown
+     */
+    public void invalidate(String tablespaceName, String tableName, List<ByteBuffer> partitionKey) {
+        if (null == partitionKey) {
+            invalidate(tablespaceName, tableName);
+            return;
+        }
+        forgetAbsent(tablespaceName, tableName);
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        tableGenerations.scan.incrementAndGet();
+        partitionGenerations.incrementAndGet(getStripe(tablespaceName, tableName, partitionKey));
+        tableGenerations.stats.invalidations.increment();
+        publish(tableGenerations);
+    }
+
+    /**
+     * Removes cached results of the table from this node only.
+     */
+    public void clear(String tablespaceName, String tableName) {
+        forgetAbsent(tablespaceName, tableName);
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        tableGenerations.invalidate();
+        if (null != cache) {
+            getSegments().forEach(segment -> segment.asMap().keySet().removeIf(key -> key.table == tableGenerations));
+        }
+        if (null != negatives) {
+            negatives.removeIf(key -> key.table == tableGenerations);
+        }
+        if (null != rows) {
+            rows.clear(tableGenerations);
+        }
+    }
+
+    /**
+     * Removes cached results of all tables of the tablespace from this node
+     * only.
+     */
+    public void clear(String tablespaceName) {
+        generations.values().stream().filter(g -> g.tablespaceName.equals(tablespaceName))
+                .forEach(g -> clear(g.tablespaceName, g.tableName));
+    }
+
+    /**
+     * Removes cached results and counters of the dropped table, so a table
+     * created under the same name starts with none of them.
+     */
+    public void forget(String tablespaceName, String tableName) {
+        List<String> key = Arrays.asList(tablespaceName, tableName);
+        if (!generations.containsKey(key)) {
+            forgetAbsent(tablespaceName, tableName);
+            return;
+        }
+        clear(tablespaceName, tableName);
+        TiesTableGenerations tableGenerations = generations.remove(key);
+        if (null != tableGenerations) {
+            LOG.debug("Result cache forgot `{}`.`{}`", tablespaceName, tableName);
+            if (null != cluster) {
+                cluster.forget(tableGenerations);
+            }
+            TableListener listener = tableListener;
+            if (null != listener) {
+                listener.removed(tableGenerations.stats);
+            }
+        }
+    }
+
+    /**
+     * Forgets the tables stored in the keyspace.
+     */
+    public void forgetTablesOf(String keyspaceName) {
+        generations.values().stream().filter(g -> TiesSchemaUtil.getTablespaceNameId(g.tablespaceName).equals(keyspaceName))
+                .forEach(g -> forget(g.tablespaceName, g.tableName));
+    }
+
+    /**
+     * Forgets the table stored in the column family.
+     */
+    public void forgetTableOf(String keyspaceName, String columnFamilyName) {
+        generations.values().stream()
+                .filter(g -> TiesSchemaUtil.getTablespaceNameId(g.tablespaceName).equals(keyspaceName)
+                        && TiesSchemaUtil.getTableNameId(g.tableName).equals(columnFamilyName))
+                .forEach(g -> forget(g.tablespaceName, g.tableName));
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(g -> g.generation.incrementAndGet());
+        if (null != cache) {
+            getSegments().forEach(Cache::invalidateAll);
+        }
+        if (null != rows) {
+            rows.clear();
+        }
+        if (null != negatives) {
+            negatives.clear();
+        }
+        if (null != offHeap) {
+            offHeap.clear();
+        }
+    }
+
+    /**
+     * @return true if the table has recently been found absent
+     */
+    public boolean isAbsent(String tablespaceName, String tableName) {
+        return null != negatives && negatives.isAbsent(tablespaceName, tableName);
+    }
+
+    public void putAbsent(String tablespaceName, String tableName) {
+        if (null != negatives) {
+            negatives.putAbsent(tablespaceName, tableName);
+        }
+    }
+
+    private void forgetAbsent(String tablespaceName, String tableName) {
+        if (null != negatives) {
+            negatives.forgetAbsent(tablespaceName, tableName);
+        }
+    }
+
+    /**
+     * Forgets all of the absent tables. Should be called when tables are
+     * created.
+     */
+    public void clearAbsent() {
+        if (null != negatives) {
+            negatives.clearAbsent();
+        }
+    }
+
+    public long negativeSize() {
+        return null == negatives ? 0 : negatives.size();
+    }
+
+    public boolean isWriteThrough() {
+        return null != rows;
+    }
+
+    /**
+     * Takes generations of the partition before its modification.
+     *
+     * @return stamp or null if write-through is disabled
+     */
+    public Stamp newStamp(String tablespaceName, String tableName, List<ByteBuffer> partitionKey) {
+        if (null == rows || null == partitionKey) {
+            return null;
+        }
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        int stripe = getStripe(tablespaceName, tableName, partitionKey);
+        long stamp = partitionGenerations.get(stripe);
+        return new Stamp(tableGenerations, partitionKey, tableGenerations.generation.get(), stripe, stamp);
+    }
+
+    /**
+     * @return entry of the partition written by this node, which was actual
+     *         when the stamp was taken, or null
+     */
+    public TiesResultCacheRow getRow(Stamp stamp) {
+        return rows.get(stamp.table, stamp.partitionKey, stamp.generation, stamp.stamp);
+    }
+
+    /**
+     * Keeps entry written by this node. Should be called after the partition
+     * invalidation of the modification. The entry is dropped if any other
+     * modification has overlapped.
+     */
+    public void putRow(Stamp stamp, TiesResultCacheRow row) {
+        long actual = stamp.stamp + 1;
+        if (stamp.table.generation.get() == stamp.generation && partitionGenerations.get(stamp.stripe) == actual) {
+            rows.put(stamp.table, stamp.partitionKey, row, stamp.generation, actual);
+        } else {
+            rows.remove(stamp.table, stamp.partitionKey);
+        }
+    }
+
+    /**
+     * @return actual entry of the partition written by this node or null
+     */
+    public TiesResultCacheRow getRow(String tablespaceName, String tableName, List<ByteBuffer> partitionKey) {
+        if (null == rows || isPublishFailing()) {
+            return null;
+        }
+        TiesTableGenerations tableGenerations = getGenerations(tablespaceName, tableName);
+        if (!isClusterCurrent(tableGenerations)) {
+            return null;
+        }
+        TiesResultCacheRow row = rows.getActual(tableGenerations, partitionKey,
+                partitionGenerations.get(getStripe(tablespaceName, tableName, partitionKey)));
+        if (null != row) {
+            tableGenerations.stats.hits.increment();
+        }
+        return row;
+    }
+
+    public boolean isEnabled() {
+        return null != cache;
+    }
+
+    /**
+     * Runs pending evictions first, as they are done lazily after writes.
+     */
+    public long size() {
+        if (null == cache) {
+            return 0;
+        }
+        Collection<Cache<Key, Value>> segments = getSegments();
+        segments.forEach(Cache::cleanUp);
+        return segments.stream().mapToLong(Cache::estimatedSize).sum();
+    }
+
+    public long offHeapSize() {
+        return null == offHeap ? 0 : offHeap.size();
+    }
+
+    public long getOffHeapAllocated() {
+        return null == offHeap ? 0 : offHeap.getAllocated();
+    }
+
+    public long getOffHeapHitCount() {
+        return offHeapHits.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public CacheStats stats() {
+        if (null == cache) {
+            return new CacheStats(0, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = cache.stats();
+        for (Cache<Key, Value> segment : quotas.values()) {
+            stats = stats.plus(segment.stats());
+        }
+        return stats;
+    }
+
+    private static int weigh(Key key, List<Result.Entry> entries) {
+        long weight = KEY_OVERHEAD + 12L * (null == key.stripes ? 1 : key.stripes.length);
+        for (Result.Entry entry : entries) {
+            weight += ENTRY_OVERHEAD;
+            weight += weigh(entry.getEntryFields());
+            weight += weigh(entry.getComputedFields());
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static long weigh(List<Result.Field> fields) {
+        long weight = 0;
+        for (Result.Field field : fields) {
+            weight += FIELD_OVERHEAD;
+            if (field instanceof Result.Field.RawField) {
+                byte[] rawValue = ((Result.Field.RawField) field).getRawValue();
+                weight += null == rawValue ? 0 : rawValue.length;
+            } else if (field instanceof Result.Field.HashField) {
+                byte[] hash = ((Result.Field.HashField) field).getHash();
+                weight += null == hash ? 0 : hash.length;
+            } else {
+                weight += VALUE_ESTIMATE;
+            }
+        }
+        return weight;
+    }
+
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getTableNameId;
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getTablespaceNameId;
+
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache;
+
+/**
+ * Result cache management over JMX. Besides the cache wide MBean, counters
+ * MBeans are registered for every tablespace and table appeared in the
+ * cache.
+ */
+public class TiesResultCacheAdmin implements TiesResultCacheAdminMBean, TiesResultCache.TableListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesResultCacheAdmin.class);
+
+    private static final String DOMAIN = "network.tiesdb";
+    private static final String TYPE = "ResultCache";
+
+    private final TiesResultCache cache;
+    private final MBeanServer server;
+    private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+    public TiesResultCacheAdmin(TiesResultCache cache) {
+        this.cache = cache;
+        this.server = ManagementFactory.getPlatformMBeanServer();
+    }
+
+    public void register() {
+        register(newName(), this);
+        cache.setTableListener(this);
+        cache.getTableStats().forEach(this::added);
+    }
+
+    public void unregister() {
+        cache.setTableListener(null);
+        registered.forEach(this::unregister);
+    }
+
+    private void unregister(ObjectName name) {
+        if (null == name || !registered.remove(name)) {
+            return;
+        }
+        try {
+            server.unregisterMBean(name);
+        } catch (JMException e) {
+            LOG.debug("Failed to unregister MBean {}", name, e);
+        }
+    }
+
+    @Override
+    public void added(TiesResultCacheTableStats stats) {
+        String tablespaceName = stats.getTablespaceName();
+        String tableName = stats.getTableName();
+        register(newName(tablespaceName), new TiesResultCacheStats(cache, s -> s.getTablespaceName().equals(tablespaceName),
+                () -> clearTablespace(tablespaceName)));
+        register(newName(tablespaceName, tableName),
+                new TiesResultCacheStats(cache, s -> s == stats, () -> clearTable(tablespaceName, tableName)));
+    }
+
+    /**
+     * Unregisters MBeans of the forgotten table, and of its tablespace unless
+     * other tables of it are still cached.
+     */
+    @Override
+    public void removed(TiesResultCacheTableStats stats) {
+        String tablespaceName = stats.getTablespaceName();
+        unregister(newName(tablespaceName, stats.getTableName()));
+        if (cache.getTableStats().stream().noneMatch(s -> s.getTablespaceName().equals(tablespaceName))) {
+            unregister(newName(tablespaceName));
+        }
+    }
+
+    private void register(ObjectName name, Object mbean) {
+        if (null == name || !registered.add(name)) {
+            return;
+        }
+        try {
+            server.registerMBean(mbean, name);
+        } catch (JMException e) {
+            registered.remove(name);
+            LOG.warn("Failed to register MBean {}", name, e);
+        }
+    }
+
+    private static ObjectName newName(String... path) {
+        StringBuilder sb = new StringBuilder(DOMAIN).append(":type=").append(TYPE);
+        if (path.length > 0) {
+            sb.append(",tablespace=").append(ObjectName.quote(path[0]));
+        }
+        if (path.length > 1) {
+            sb.append(",table=").append(ObjectName.quote(path[1]));
+        }
+        try {
+            return new ObjectName(sb.toString());
+        } catch (JMException e) {
+            LOG.warn("Invalid MBean name {}", sb, e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return cache.isEnabled();
+    }
+
+    @Override
+    public boolean isClusterPublishFailing() {
+        return cache.isPublishFailing();
+    }
+
+    @Override
+    public long getSize() {
+        return cache.size();
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return cache.getTableStats().stream().mapToLong(TiesResultCacheTableStats::getEstimatedBytes).sum();
+    }
+
+    @Override
+    public long getOffHeapSize() {
+        return cache.offHeapSize();
+    }
+
+    @Override
+    public long getOffHeapAllocatedBytes() {
+        return cache.getOffHeapAllocated();
+    }
+
+    @Override
+    public long getHitCount() {
+        return cache.getTableStats().stream().mapToLong(TiesResultCacheTableStats::getHitCount).sum();
+    }
+
+    @Override
+    public long getOffHeapHitCount() {
+        return cache.getOffHeapHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return cache.getTableStats().stream().mapToLong(TiesResultCacheTableStats::getMissCount).sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        return TiesResultCacheStats.rate(getHitCount(), getMissCount());
+    }
+
+    @Override
+    public long getLoadCount() {
+        return cache.getTableStats().stream().mapToLong(TiesResultCacheTableStats::getLoadCount).sum();
+    }
+
+    @Override
+    public double getAverageLoadTimeMillis() {
+        return TiesResultCacheStats.averageMillis(
+                cache.getTableStats().stream().mapToLong(TiesResultCacheTableStats::getTotalLoadTime).sum(), getLoadCount());
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public long getCoalescedCount() {
+        return cache.getCoalescedCount();
+    }
+
+    @Override
+    public long getStatementCacheSize() {
+        return TiesStatementCache.size();
+    }
+
+    @Override
+    public long getStatementCacheHitCount() {
+        return TiesStatementCache.getHitCount();
+    }
+
+    @Override
+    public long getStatementCacheMissCount() {
+        return TiesStatementCache.getMissCount();
+    }
+
+    @Override
+    public void clearAll() {
+        LOG.info("Clearing all result caches");
+        cache.invalidateAll();
+        TiesStatementCache.clear();
+    }
+
+    @Override
+    public void clearTablespace(String tablespaceName) {
+        LOG.info("Clearing result caches of `{}`", tablespaceName);
+        cache.clear(tablespaceName);
+        TiesStatementCache.invalidate(getTablespaceNameId(tablespaceName));
+    }
+
+    @Override
+    public void clearTable(String tablespaceName, String tableName) {
+        LOG.info("Clearing result caches of `{}`.`{}`", tablespaceName, tableName);
+        cache.clear(tablespaceName, tableName);
+        TiesStatementCache.invalidate(getTablespaceNameId(tablespaceName), getTableNameId(tableName));
+    }
+
+}
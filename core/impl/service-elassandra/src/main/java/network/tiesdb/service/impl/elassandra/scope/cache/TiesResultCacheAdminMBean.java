@@ -0,0 +1,82 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+/**
+ * Result cache management.
+ */
+public interface TiesResultCacheAdminMBean {
+
+    boolean isEnabled();
+
+    /**
+     * @return true if caching is disabled as modifications could not be
+     *         published to other nodes
+     */
+    boolean isClusterPublishFailing();
+
+    long getSize();
+
+    long getEstimatedBytes();
+
+    long getOffHeapSize();
+
+    long getOffHeapAllocatedBytes();
+
+    long getHitCount();
+
+    long getOffHeapHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadCount();
+
+    double getAverageLoadTimeMillis();
+
+    long getEvictionCount();
+
+    long getCoalescedCount();
+
+    long getStatementCacheSize();
+
+    long getStatementCacheHitCount();
+
+    long getStatementCacheMissCount();
+
+    /**
+     * Removes cached results and prepared statements of all tables on this
+     * node.
+     */
+    void clearAll();
+
+    /**
+     * Removes cached results and prepared statements of the tablespace on
+     * this node.
+     */
+    void clearTablespace(String tablespaceName);
+
+    /**
+     * Removes cached results and prepared statements of the table on this
+     * node.
+     */
+    void clearTable(String tablespaceName, String tableName);
+
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import network.tiesdb.service.scope.api.TiesEntryHeader;
+
+/**
+ * Entry written by this node. Fields are known by hash and, if the written
+ * entry carried it, by raw value.
+ */
+public final class TiesResultCacheRow {
+
+    private static final int ROW_OVERHEAD = 512;
+    private static final int FIELD_OVERHEAD = 96;
+
+    public static final class Field {
+
+        private final byte[] hash;
+        private final byte[] value;
+
+        public Field(byte[] hash, byte[] value) {
+            this.hash = hash;
+            this.value = value;
+        }
+
+        public byte[] getHash() {
+            return hash;
+        }
+
+        /**
+         * @return raw value or null if only the hash of the value is known
+         */
+        public byte[] getValue() {
+            return value;
+        }
+
+    }
+
+    private final TiesEntryHeader header;
+    private final Map<String, Field> fields;
+
+    public TiesResultCacheRow(TiesEntryHeader header, Map<String, Field> fields) {
+        this.header = copy(header);
+        this.fields = Collections.unmodifiableMap(new HashMap<>(fields));
+    }
+
+    public TiesEntryHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return field or null if the field is empty
+     */
+    public Field getField(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    int weigh() {
+        long weight = ROW_OVERHEAD;
+        for (Map.Entry<String, Field> field : fields.entrySet()) {
+            weight += FIELD_OVERHEAD + field.getKey().length();
+            weight += null == field.getValue().hash ? 0 : field.getValue().hash.length;
+            weight += null == field.getValue().value ? 0 : field.getValue().value.length;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static TiesEntryHeader copy(TiesEntryHeader h) {
+        byte[] snr = h.getSigner();
+        byte[] sig = h.getSignature();
+        byte[] hsh = h.getHash();
+        BigInteger ver = h.getEntryVersion();
+        Date tim = h.getEntryTimestamp();
+        byte[] ohs = h.getEntryOldHash();
+        short net = h.getEntryNetwork();
+        byte[] fhs = h.getEntryFldHash();
+
+        return new TiesEntryHeader() {
+
+            @Override
+            public byte[] getSigner() {
+                return snr;
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return sig;
+            }
+
+            @Override
+            public byte[] getHash() {
+                return hsh;
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return ver;
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return tim;
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return ohs;
+            }
+
+            @Override
+            public short getEntryNetwork() {
+                return net;
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return fhs;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Result cache counters aggregated over the tables matching the filter.
+ */
+public class TiesResultCacheStats implements TiesResultCacheStatsMBean {
+
+    private final TiesResultCache cache;
+    private final Predicate<TiesResultCacheTableStats> filter;
+    private final Runnable clear;
+
+    public TiesResultCacheStats(TiesResultCache cache, Predicate<TiesResultCacheTableStats> filter, Runnable clear) {
+        this.cache = cache;
+        this.filter = filter;
+        this.clear = clear;
+    }
+
+    private long sum(ToLongFunction<TiesResultCacheTableStats> counter) {
+        return cache.getTableStats().stream().filter(filter).mapToLong(counter).sum();
+    }
+
+    @Override
+    public long getHitCount() {
+        return sum(TiesResultCacheTableStats::getHitCount);
+    }
+
+    @Override
+    public long getMissCount() {
+        return sum(TiesResultCacheTableStats::getMissCount);
+    }
+
+    @Override
+    public double getHitRate() {
+        return rate(getHitCount(), getMissCount());
+    }
+
+    @Override
+    public long getLoadCount() {
+        return sum(TiesResultCacheTableStats::getLoadCount);
+    }
+
+    @Override
+    public long getTotalLoadTimeNanos() {
+        return sum(TiesResultCacheTableStats::getTotalLoadTime);
+    }
+
+    @Override
+    public double getAverageLoadTimeMillis() {
+        return averageMillis(getTotalLoadTimeNanos(), getLoadCount());
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        return sum(TiesResultCacheTableStats::getInvalidationCount);
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return sum(TiesResultCacheTableStats::getEvictionCount);
+    }
+
+    @Override
+    public long getEstimatedBytes() {
+        return sum(TiesResultCacheTableStats::getEstimatedBytes);
+    }
+
+    @Override
+    public void clear() {
+        clear.run();
+    }
+
+    static double rate(long hits, long misses) {
+        long requests = hits + misses;
+        return 0 == requests ? 0.0 : (double) hits / requests;
+    }
+
+    static double averageMillis(long totalNanos, long count) {
+        return 0 == count ? 0.0 : totalNanos / 1e6 / count;
+    }
+
+}
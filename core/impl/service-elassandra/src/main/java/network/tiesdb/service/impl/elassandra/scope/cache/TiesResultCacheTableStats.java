@@ -0,0 +1,90 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Result cache counters of a table.
+ */
+public final class TiesResultCacheTableStats {
+
+    private final String tablespaceName;
+    private final String tableName;
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder loads = new LongAdder();
+    final LongAdder loadTime = new LongAdder();
+    final LongAdder invalidations = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final AtomicLong bytes = new AtomicLong();
+
+    TiesResultCacheTableStats(String tablespaceName, String tableName) {
+        this.tablespaceName = tablespaceName;
+        this.tableName = tableName;
+    }
+
+    public String getTablespaceName() {
+        return tablespaceName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return total time of result loads in nanoseconds
+     */
+    public long getTotalLoadTime() {
+        return loadTime.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return count of table results evicted from heap by size
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return estimated size of the table results cached on heap
+     */
+    public long getEstimatedBytes() {
+        return bytes.get();
+    }
+
+}
@@ -0,0 +1,503 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.cassandra.config.DatabaseDescriptor;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceCacheConfig;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+
+/**
+ * Hot queries of the result cache. The most frequent selects are saved to a
+ * local file periodically and on shutdown. On startup saved queries are
+ * replayed in background at a limited rate, so the result cache is filled
+ * before clients ask for the results.
+ *
+ * Queries with bound values of unsupported types are not saved.
+ */
+public final class TiesResultCacheWarmup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesResultCacheWarmup.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_NAME = "TiesResultCache-Warmup.db";
+
+    private static final int DEFAULT_QUERIES_COUNT = 256;
+    private static final int DEFAULT_QUERIES_PER_SECOND = 20;
+    private static final long DEFAULT_SAVE_INTERVAL_IN_SECONDS = 300;
+
+    /**
+     * Replays a saved query.
+     */
+    @FunctionalInterface
+    public static interface Replay {
+
+        void replay(Query query) throws Exception;
+
+    }
+
+    /**
+     * Descriptor of a select sufficient to load its results into the cache.
+     */
+    public static final class Query {
+
+        private final String tablespaceName;
+        private final String tableName;
+        private final String query;
+        private final List<Object> values;
+        private final ConsistencyLevel readCl;
+        private final boolean indexed;
+        private final boolean checkVersion;
+        private final Map<FieldDescription, String> fields;
+        private final List<FieldDescription> computes;
+        private final Map<FieldDescription, String> aliases;
+        private final List<List<ByteBuffer>> partitions;
+
+        public Query(String tablespaceName, String tableName, String query, List<Object> values, ConsistencyLevel readCl,
+                boolean indexed, boolean checkVersion, Map<FieldDescription, String> fields, List<FieldDescription> computes,
+                Map<FieldDescription, String> aliases, List<List<ByteBuffer>> partitions) {
+            this.tablespaceName = tablespaceName;
+            this.tableName = tableName;
+            this.query = query;
+            this.values = Collections.unmodifiableList(new ArrayList<>(values));
+            this.readCl = readCl;
+            this.indexed = indexed;
+            this.checkVersion = checkVersion;
+            this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+            this.computes = Collections.unmodifiableList(new ArrayList<>(computes));
+            this.aliases = Collections.unmodifiableMap(new LinkedHashMap<>(aliases));
+            this.partitions = partitions;
+        }
+
+        public String getTablespaceName() {
+            return tablespaceName;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public List<Object> getValues() {
+            return values;
+        }
+
+        public ConsistencyLevel getReadCl() {
+            return readCl;
+        }
+
+        /**
+         * @return true if the query is searched by Elasticsearch index
+         */
+        public boolean isIndexed() {
+            return indexed;
+        }
+
+        /**
+         * @return true if entry versions are not restricted by the query
+         */
+        public boolean isCheckVersion() {
+            return checkVersion;
+        }
+
+        /**
+         * @return column name ids of the selected fields
+         */
+        public Map<FieldDescription, String> getFields() {
+            return fields;
+        }
+
+        public List<FieldDescription> getComputes() {
+            return computes;
+        }
+
+        /**
+         * @return column aliases of the computed fields
+         */
+        public Map<FieldDescription, String> getAliases() {
+            return aliases;
+        }
+
+        /**
+         * @return partition keys the query is restricted to or null
+         */
+        public List<List<ByteBuffer>> getPartitions() {
+            return partitions;
+        }
+
+        /**
+         * Checks if the query still selects existing fields of the table.
+         *
+         * @param tableFields
+         *            current fields of the table
+         * @param columnNames
+         *            current column names of the table
+         * @return true if all of the selected fields are fields of the table
+         *         of the same types and have their columns
+         */
+        public boolean isSelectable(Collection<FieldDescription> tableFields, Collection<String> columnNames) {
+            return new HashSet<>(tableFields).containsAll(fields.keySet()) && columnNames.containsAll(fields.values());
+        }
+
+        private TiesQueryFingerprint getFingerprint() {
+            return TiesQueryFingerprint.of(tablespaceName, tableName, query, values, readCl, computes);
+        }
+
+        /**
+         * @return serialized query or null if values can't be serialized
+         */
+        private byte[] encode() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(query.length() + 256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            TiesResultCodec.writeString(out, tablespaceName);
+            TiesResultCodec.writeString(out, tableName);
+            TiesResultCodec.writeString(out, query);
+            out.writeInt(values.size());
+            for (Object value : values) {
+                if (!TiesResultCodec.writeValue(out, value)) {
+                    return null;
+                }
+            }
+            TiesResultCodec.writeString(out, readCl.name());
+            out.writeBoolean(indexed);
+            out.writeBoolean(checkVersion);
+            writeFields(out, fields);
+            out.writeInt(computes.size());
+            for (FieldDescription compute : computes) {
+                writeField(out, compute);
+            }
+            writeFields(out, aliases);
+            if (null == partitions) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(partitions.size());
+                for (List<ByteBuffer> partition : partitions) {
+                    out.writeInt(partition.size());
+                    for (ByteBuffer component : partition) {
+                        byte[] value = new byte[component.remaining()];
+                        component.duplicate().get(value);
+                        TiesResultCodec.writeBytes(out, value);
+                    }
+                }
+            }
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        private static Query decode(ByteBuffer in) {
+            String tablespaceName = TiesResultCodec.readString(in);
+            String tableName = TiesResultCodec.readString(in);
+            String query = TiesResultCodec.readString(in);
+            int valueCount = in.getInt();
+            List<Object> values = new ArrayList<>(valueCount);
+            for (int i = 0; i < valueCount; i++) {
+                values.add(TiesResultCodec.readValue(in));
+            }
+            ConsistencyLevel readCl = ConsistencyLevel.valueOf(TiesResultCodec.readString(in));
+            boolean indexed = 0 != in.get();
+            boolean checkVersion = 0 != in.get();
+            Map<FieldDescription, String> fields = readFields(in);
+            int computeCount = in.getInt();
+            List<FieldDescription> computes = new ArrayList<>(computeCount);
+            for (int i = 0; i < computeCount; i++) {
+                computes.add(readField(in));
+            }
+            Map<FieldDescription, String> aliases = readFields(in);
+            int partitionCount = in.getInt();
+            List<List<ByteBuffer>> partitions = null;
+            if (partitionCount >= 0) {
+                partitions = new ArrayList<>(partitionCount);
+                for (int i = 0; i < partitionCount; i++) {
+                    int componentCount = in.getInt();
+                    List<ByteBuffer> partition = new ArrayList<>(componentCount);
+                    for (int j = 0; j < componentCount; j++) {
+                        partition.add(ByteBuffer.wrap(TiesResultCodec.readBytes(in)));
+                    }
+                    partitions.add(partition);
+                }
+            }
+            return new Query(tablespaceName, tableName, query, values, readCl, indexed, checkVersion, fields, computes, aliases,
+                    partitions);
+        }
+
+        private static void writeField(DataOutputStream out, FieldDescription field) throws IOException {
+            TiesResultCodec.writeString(out, field.getName());
+            TiesResultCodec.writeString(out, field.getType());
+        }
+
+        private static FieldDescription readField(ByteBuffer in) {
+            return new FieldDescription(TiesResultCodec.readString(in), TiesResultCodec.readString(in));
+        }
+
+        private static void writeFields(DataOutputStream out, Map<FieldDescription, String> fields) throws IOException {
+            out.writeInt(fields.size());
+            for (Map.Entry<FieldDescription, String> field : fields.entrySet()) {
+                writeField(out, field.getKey());
+                TiesResultCodec.writeString(out, field.getValue());
+            }
+        }
+
+        private static Map<FieldDescription, String> readFields(ByteBuffer in) {
+            int count = in.getInt();
+            Map<FieldDescription, String> fields = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                FieldDescription field = readField(in);
+                fields.put(field, TiesResultCodec.readString(in));
+            }
+            return fields;
+        }
+
+    }
+
+    private static final class Hot {
+
+        private final Query query;
+        private final LongAdder count = new LongAdder();
+
+        private Hot(Query query) {
+            this.query = query;
+        }
+
+    }
+
+    private final Cache<TiesQueryFingerprint, Hot> hot;
+    private final Path file;
+    private final int queriesCount;
+    private final long replayIntervalInNanos;
+    private final long saveIntervalInSeconds;
+
+    private final AtomicReference<ScheduledExecutorService> executorRef = new AtomicReference<>();
+
+    public TiesResultCacheWarmup(TiesServiceCacheConfig config) {
+        boolean enabled = true;
+        int queriesCount = DEFAULT_QUERIES_COUNT;
+        int queriesPerSecond = DEFAULT_QUERIES_PER_SECOND;
+        long saveIntervalInSeconds = DEFAULT_SAVE_INTERVAL_IN_SECONDS;
+        String file = null;
+        if (null != config) {
+            enabled = null != config.getEnabled() ? config.getEnabled() : enabled;
+            queriesCount = null != config.getWarmupQueriesCount() ? config.getWarmupQueriesCount() : queriesCount;
+            queriesPerSecond = null != config.getWarmupQueriesPerSecond() ? config.getWarmupQueriesPerSecond() : queriesPerSecond;
+            saveIntervalInSeconds = null != config.getWarmupSaveIntervalInSeconds() ? config.getWarmupSaveIntervalInSeconds()
+                    : saveIntervalInSeconds;
+            file = config.getWarmupFile();
+        }
+        if (queriesCount < 0 || queriesPerSecond <= 0 || saveIntervalInSeconds < 0) {
+            throw new IllegalArgumentException("Result cache warmup queries count and save interval should not be negative"
+                    + " and queries per second should be positive");
+        }
+        this.queriesCount = queriesCount;
+        this.replayIntervalInNanos = TimeUnit.SECONDS.toNanos(1) / queriesPerSecond;
+        this.saveIntervalInSeconds = saveIntervalInSeconds;
+        if (!enabled || 0 == queriesCount) {
+            LOG.debug("Result cache warmup is disabled");
+            this.hot = null;
+            this.file = null;
+        } else {
+            this.file = null != file ? Paths.get(file) : null;
+            // Frequency based eviction keeps the hottest of the tracked queries
+            this.hot = Caffeine.newBuilder() //
+                    .maximumSize(4L * queriesCount) //
+                    .build();
+        }
+    }
+
+    public boolean isEnabled() {
+        return null != hot;
+    }
+
+    /**
+     * Counts the query. Query descriptor is created only for the queries that
+     * are not tracked yet.
+     */
+    public void record(TiesResultCache.Key key, Supplier<Query> query) {
+        if (null != hot) {
+            hot.get(key.getFingerprint(), fp -> new Hot(query.get())).count.increment();
+        }
+    }
+
+    /**
+     * Loads saved queries and replays them in background. Results are saved
+     * periodically after the replay.
+     */
+    public void start(Replay replay) {
+        if (null == hot) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "TiesResultCacheWarmup");
+            t.setDaemon(true);
+            return t;
+        });
+        if (!executorRef.compareAndSet(null, executor)) {
+            executor.shutdown();
+            throw new IllegalStateException("Result cache warmup have already been started");
+        }
+        executor.execute(() -> replay(load(), replay));
+        if (0 < saveIntervalInSeconds) {
+            executor.scheduleWithFixedDelay(this::save, saveIntervalInSeconds, saveIntervalInSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the replay and saves the hot queries.
+     */
+    public void stop() {
+        ScheduledExecutorService executor = executorRef.getAndSet(null);
+        if (null == executor) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Result cache warmup has not been terminated in time");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        save();
+    }
+
+    private void replay(List<Query> queries, Replay replay) {
+        LOG.debug("Replaying {} result cache warmup queries", queries.size());
+        long next = System.nanoTime();
+        int count = 0;
+        for (Query query : queries) {
+            long delay = next - System.nanoTime();
+            try {
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+            } catch (InterruptedException e) {
+                LOG.debug("Result cache warmup has been interrupted after {} queries", count);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            next = Math.max(next, System.nanoTime()) + replayIntervalInNanos;
+            try {
+                replay.replay(query);
+                count++;
+            } catch (Throwable e) {
+                LOG.debug("Failed to replay result cache warmup query on `{}`.`{}`", query.getTablespaceName(), query.getTableName(),
+                        e);
+            }
+        }
+        LOG.debug("Result cache warmup replayed {} queries", count);
+    }
+
+    private Path getFile() {
+        return null != file ? file : Paths.get(DatabaseDescriptor.getSavedCachesLocation(), FILE_NAME);
+    }
+
+    private List<Query> load() {
+        Path path = getFile();
+        if (!Files.exists(path)) {
+            return Collections.emptyList();
+        }
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+            int version = in.getInt();
+            if (FORMAT_VERSION != version) {
+                LOG.debug("Result cache warmup file {} has unknown version {}", path, version);
+                return Collections.emptyList();
+            }
+            int count = Math.min(in.getInt(), queriesCount);
+            List<Query> queries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Query query = Query.decode(in);
+                queries.add(query);
+                // Saved queries are kept until hotter ones displace them
+                hot.get(query.getFingerprint(), fp -> new Hot(query));
+            }
+            return queries;
+        } catch (Throwable e) {
+            LOG.warn("Failed to load result cache warmup file {}", path, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private void save() {
+        List<Hot> queries = new ArrayList<>(hot.asMap().values());
+        if (queries.isEmpty()) {
+            return;
+        }
+        queries.sort(Comparator.comparingLong((Hot h) -> h.count.sum()).reversed());
+        Path path = getFile();
+        try {
+            List<byte[]> records = new ArrayList<>(Math.min(queries.size(), queriesCount));
+            for (Hot query : queries) {
+                if (records.size() >= queriesCount) {
+                    break;
+                }
+                byte[] record = query.query.encode();
+                if (null != record) {
+                    records.add(record);
+                }
+            }
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(records.size());
+                for (byte[] record : records) {
+                    out.write(record);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("Saved {} result cache warmup queries to {}", records.size(), path);
+        } catch (Throwable e) {
+            LOG.warn("Failed to save result cache warmup file {}", path, e);
+        }
+    }
+
+}
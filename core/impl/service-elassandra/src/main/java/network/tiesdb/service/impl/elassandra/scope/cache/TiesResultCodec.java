@@ -0,0 +1,527 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import com.tiesdb.lib.crypto.digest.DigestManager;
+import com.tiesdb.lib.crypto.digest.api.Digest;
+
+import network.tiesdb.service.scope.api.TiesEntryHeader;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result;
+
+/**
+ * Compact serialization of cached select results. Records start with the
+ * write time and the stamps of the results, followed by length-prefixed
+ * entries, so entries are decoded only when they are accessed.
+ */
+final class TiesResultCodec {
+
+    private static final byte FIELD_RAW = 1;
+    private static final byte FIELD_HASH = 2;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_INTEGER = 1;
+    private static final byte VALUE_LONG = 2;
+    private static final byte VALUE_FLOAT = 3;
+    private static final byte VALUE_DOUBLE = 4;
+    private static final byte VALUE_DECIMAL = 5;
+    private static final byte VALUE_BIGINT = 6;
+    private static final byte VALUE_STRING = 7;
+    private static final byte VALUE_DATE = 8;
+    private static final byte VALUE_BINARY = 9;
+    private static final byte VALUE_UUID = 10;
+    private static final byte VALUE_BOOLEAN = 11;
+
+    static final class Record {
+
+        private final long written;
+        private final int[] stripes;
+        private final long[] stamps;
+        private final List<Result.Entry> entries;
+
+        private Record(long written, int[] stripes, long[] stamps, List<Result.Entry> entries) {
+            this.written = written;
+            this.stripes = stripes;
+            this.stamps = stamps;
+            this.entries = entries;
+        }
+
+        long getWritten() {
+            return written;
+        }
+
+        int[] getStripes() {
+            return stripes;
+        }
+
+        long[] getStamps() {
+            return stamps;
+        }
+
+        List<Result.Entry> getEntries() {
+            return entries;
+        }
+
+    }
+
+    private TiesResultCodec() {
+    }
+
+    /**
+     * @return serialized record or null if the results contain values which
+     *         can not be serialized
+     */
+    static byte[] encode(long written, int[] stripes, long[] stamps, List<Result.Entry> entries) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(written);
+            if (null == stripes) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(stripes.length);
+                for (int stripe : stripes) {
+                    out.writeInt(stripe);
+                }
+            }
+            out.writeInt(stamps.length);
+            for (long stamp : stamps) {
+                out.writeLong(stamp);
+            }
+            out.writeInt(entries.size());
+            ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+            for (Result.Entry entry : entries) {
+                entryBytes.reset();
+                if (!encodeEntry(new DataOutputStream(entryBytes), entry)) {
+                    return null;
+                }
+                out.writeInt(entryBytes.size());
+                entryBytes.writeTo(out);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Result serialization failed", e);
+        }
+    }
+
+    private static boolean encodeEntry(DataOutputStream out, Result.Entry entry) throws IOException {
+        TiesEntryHeader header = entry.getEntryHeader();
+        writeBytes(out, header.getSigner());
+        writeBytes(out, header.getSignature());
+        writeBytes(out, header.getHash());
+        writeBytes(out, header.getEntryOldHash());
+        writeBytes(out, header.getEntryFldHash());
+        BigInteger version = header.getEntryVersion();
+        writeBytes(out, null == version ? null : version.toByteArray());
+        Date timestamp = header.getEntryTimestamp();
+        out.writeBoolean(null != timestamp);
+        out.writeLong(null == timestamp ? 0 : timestamp.getTime());
+        out.writeShort(header.getEntryNetwork());
+
+        List<Result.Field> entryFields = entry.getEntryFields();
+        out.writeInt(entryFields.size());
+        for (Result.Field field : entryFields) {
+            if (field instanceof Result.Field.RawField) {
+                out.writeByte(FIELD_RAW);
+                writeString(out, field.getName());
+                writeString(out, field.getType());
+                writeBytes(out, ((Result.Field.RawField) field).getRawValue());
+            } else if (field instanceof Result.Field.HashField) {
+                out.writeByte(FIELD_HASH);
+                writeString(out, field.getName());
+                writeString(out, field.getType());
+                writeBytes(out, ((Result.Field.HashField) field).getHash());
+            } else {
+                return false;
+            }
+        }
+
+        List<Result.Field> computedFields = entry.getComputedFields();
+        out.writeInt(computedFields.size());
+        for (Result.Field field : computedFields) {
+            if (!(field instanceof Result.Field.ValueField)) {
+                return false;
+            }
+            writeString(out, field.getName());
+            writeString(out, field.getType());
+            if (!writeValue(out, ((Result.Field.ValueField) field).getFieldValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean writeValue(DataOutputStream out, Object value) throws IOException {
+        if (null == value) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof Integer) {
+            out.writeByte(VALUE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(VALUE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(VALUE_DECIMAL);
+            out.writeInt(((BigDecimal) value).scale());
+            writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(VALUE_BIGINT);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof String) {
+            out.writeByte(VALUE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Date) {
+            out.writeByte(VALUE_DATE);
+            out.writeLong(((Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(VALUE_BINARY);
+            writeBytes(out, (byte[]) value);
+        } else if (value instanceof UUID) {
+            out.writeByte(VALUE_UUID);
+            out.writeLong(((UUID) value).getMostSignificantBits());
+            out.writeLong(((UUID) value).getLeastSignificantBits());
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(value.length);
+            out.write(value);
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, null == value ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes stamps of the record. Entries are decoded on access.
+     */
+    static Record decode(byte[] record) {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        long written = in.getLong();
+        int stripeCount = in.getInt();
+        int[] stripes = null;
+        if (stripeCount >= 0) {
+            stripes = new int[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = in.getInt();
+            }
+        }
+        long[] stamps = new long[in.getInt()];
+        for (int i = 0; i < stamps.length; i++) {
+            stamps[i] = in.getLong();
+        }
+        int entryCount = in.getInt();
+        List<Result.Entry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            int length = in.getInt();
+            entries.add(new CachedEntry(record, in.position(), length));
+            in.position(in.position() + length);
+        }
+        return new Record(written, stripes, stamps, Collections.unmodifiableList(entries));
+    }
+
+    static byte[] readBytes(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] value = readBytes(in);
+        return null == value ? null : new String(value, StandardCharsets.UTF_8);
+    }
+
+    static Object readValue(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+        case VALUE_NULL:
+            return null;
+        case VALUE_INTEGER:
+            return in.getInt();
+        case VALUE_LONG:
+            return in.getLong();
+        case VALUE_FLOAT:
+            return in.getFloat();
+        case VALUE_DOUBLE:
+            return in.getDouble();
+        case VALUE_DECIMAL: {
+            int scale = in.getInt();
+            return new BigDecimal(new BigInteger(readBytes(in)), scale);
+        }
+        case VALUE_BIGINT:
+            return new BigInteger(readBytes(in));
+        case VALUE_STRING:
+            return readString(in);
+        case VALUE_DATE:
+            return new Date(in.getLong());
+        case VALUE_BINARY:
+            return readBytes(in);
+        case VALUE_UUID:
+            return new UUID(in.getLong(), in.getLong());
+        case VALUE_BOOLEAN:
+            return 0 != in.get();
+        default:
+            throw new IllegalStateException("Unknown value tag " + tag);
+        }
+    }
+
+    private static final class CachedEntry implements Result.Entry {
+
+        private final byte[] record;
+        private final int offset;
+        private final int length;
+
+        private volatile TiesEntryHeader entryHeader;
+        private volatile List<Result.Field> entryFields;
+        private volatile List<Result.Field> computedFields;
+
+        CachedEntry(byte[] record, int offset, int length) {
+            this.record = record;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public TiesEntryHeader getEntryHeader() {
+            if (null == entryHeader) {
+                entryHeader = decodeHeader(ByteBuffer.wrap(record, offset, length));
+            }
+            return entryHeader;
+        }
+
+        @Override
+        public List<Result.Field> getEntryFields() {
+            if (null == entryFields) {
+                decodeFields();
+            }
+            return entryFields;
+        }
+
+        @Override
+        public List<Result.Field> getComputedFields() {
+            if (null == computedFields) {
+                decodeFields();
+            }
+            return computedFields;
+        }
+
+        private void decodeFields() {
+            ByteBuffer in = ByteBuffer.wrap(record, offset, length);
+            skipHeader(in);
+            int entryFieldCount = in.getInt();
+            List<Result.Field> entryFields = new ArrayList<>(entryFieldCount);
+            for (int i = 0; i < entryFieldCount; i++) {
+                byte kind = in.get();
+                String name = readString(in);
+                String type = readString(in);
+                byte[] value = readBytes(in);
+                entryFields.add(FIELD_RAW == kind ? new CachedRawField(name, type, value) : new CachedHashField(name, type, value));
+            }
+            int computedFieldCount = in.getInt();
+            List<Result.Field> computedFields = new ArrayList<>(computedFieldCount);
+            for (int i = 0; i < computedFieldCount; i++) {
+                String name = readString(in);
+                String type = readString(in);
+                computedFields.add(new CachedValueField(name, type, readValue(in)));
+            }
+            this.computedFields = computedFields;
+            this.entryFields = entryFields;
+        }
+
+    }
+
+    private static void skipHeader(ByteBuffer in) {
+        for (int i = 0; i < 6; i++) {
+            int length = in.getInt();
+            in.position(in.position() + Math.max(0, length));
+        }
+        in.position(in.position() + 1 + 8 + 2);
+    }
+
+    private static TiesEntryHeader decodeHeader(ByteBuffer in) {
+        byte[] snr = readBytes(in);
+        byte[] sig = readBytes(in);
+        byte[] hsh = readBytes(in);
+        byte[] ohs = readBytes(in);
+        byte[] fhs = readBytes(in);
+        byte[] verBytes = readBytes(in);
+        BigInteger ver = null == verBytes ? null : new BigInteger(verBytes);
+        boolean hasTimestamp = 0 != in.get();
+        long timestamp = in.getLong();
+        Date tim = hasTimestamp ? new Date(timestamp) : null;
+        short net = in.getShort();
+
+        return new TiesEntryHeader() {
+
+            @Override
+            public byte[] getSigner() {
+                return snr;
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return sig;
+            }
+
+            @Override
+            public byte[] getHash() {
+                return hsh;
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return ver;
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return tim;
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return ohs;
+            }
+
+            @Override
+            public short getEntryNetwork() {
+                return net;
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return fhs;
+            }
+
+        };
+    }
+
+    private static abstract class CachedField implements Result.Field {
+
+        private final String name;
+        private final String type;
+
+        CachedField(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getType() {
+            return type;
+        }
+
+    }
+
+    private static final class CachedRawField extends CachedField implements Result.Field.RawField {
+
+        private final byte[] rawValue;
+
+        CachedRawField(String name, String type, byte[] rawValue) {
+            super(name, type);
+            this.rawValue = rawValue;
+        }
+
+        @Override
+        public byte[] getRawValue() {
+            return rawValue;
+        }
+
+        @Override
+        public byte[] getHash() {
+            Digest digest = DigestManager.getDigest(DigestManager.KECCAK_256);
+            digest.update(getValue());
+            byte[] hash = new byte[digest.getDigestSize()];
+            digest.doFinal(hash);
+            return hash;
+        }
+
+    }
+
+    private static final class CachedHashField extends CachedField implements Result.Field.HashField {
+
+        private final byte[] hash;
+
+        CachedHashField(String name, String type, byte[] hash) {
+            super(name, type);
+            this.hash = hash;
+        }
+
+        @Override
+        public byte[] getHash() {
+            return hash;
+        }
+
+    }
+
+    private static final class CachedValueField extends CachedField implements Result.Field.ValueField {
+
+        private final Object value;
+
+        CachedValueField(String name, String type, Object value) {
+            super(name, type);
+            this.value = value;
+        }
+
+        @Override
+        public Object getFieldValue() {
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generations of a table its cached results are stamped with. The table
+ * generation is incremented by coarse invalidations of the table and the scan
+ * generation by every modification of it.
+ */
+final class TiesTableGenerations {
+
+    final String tablespaceName;
+    final String tableName;
+    final AtomicLong generation = new AtomicLong();
+    final AtomicLong scan = new AtomicLong();
+    final TiesResultCacheTableStats stats;
+
+    TiesTableGenerations(String tablespaceName, String tableName) {
+        this.tablespaceName = tablespaceName;
+        this.tableName = tableName;
+        this.stats = new TiesResultCacheTableStats(tablespaceName, tableName);
+    }
+
+    /**
+     * Invalidates all cached results of the table.
+     */
+    void invalidate() {
+        generation.incrementAndGet();
+        stats.invalidations.increment();
+    }
+
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Entries written by this node kept by their partition key for write-through
+ * lookups. Every row is kept with the table generation and the partition
+ * stripe generation it is actual for, and is returned only while both are
+ * unchanged.
+ */
+final class TiesWrittenRows {
+
+    private static final class Key {
+
+        private final TiesTableGenerations table;
+        private final List<ByteBuffer> partitionKey;
+
+        Key(TiesTableGenerations table, List<ByteBuffer> partitionKey) {
+            this.table = table;
+            this.partitionKey = partitionKey;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(table) + partitionKey.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return table == other.table && partitionKey.equals(other.partitionKey);
+        }
+
+    }
+
+    private static final class Value {
+
+        private final TiesResultCacheRow row;
+        private final long generation;
+        private final long stamp;
+
+        Value(TiesResultCacheRow row, long generation, long stamp) {
+            this.row = row;
+            this.generation = generation;
+            this.stamp = stamp;
+        }
+
+    }
+
+    private final Cache<Key, Value> rows;
+
+    TiesWrittenRows(long sizeInMb, long expireAfterWriteInSeconds) {
+        this.rows = Caffeine.newBuilder() //
+                .maximumWeight(sizeInMb << 20) //
+                .weigher((Key key, Value value) -> value.row.weigh()) //
+                .expireAfterWrite(expireAfterWriteInSeconds, TimeUnit.SECONDS) //
+                .build();
+    }
+
+    /**
+     * @return row of the partition actual for the generations or null
+     */
+    TiesResultCacheRow get(TiesTableGenerations table, List<ByteBuffer> partitionKey, long generation, long stamp) {
+        Value value = rows.getIfPresent(new Key(table, partitionKey));
+        return null != value && value.generation == generation && value.stamp == stamp ? value.row : null;
+    }
+
+    /**
+     * Returns row of the partition actual for the current generations and
+     * drops it if it is not.
+     */
+    TiesResultCacheRow getActual(TiesTableGenerations table, List<ByteBuffer> partitionKey, long stamp) {
+        Key key = new Key(table, partitionKey);
+        Value value = rows.getIfPresent(key);
+        if (null == value) {
+            return null;
+        }
+        if (value.generation != table.generation.get() || value.stamp != stamp) {
+            rows.asMap().remove(key, value);
+            return null;
+        }
+        return value.row;
+    }
+
+    void put(TiesTableGenerations table, List<ByteBuffer> partitionKey, TiesResultCacheRow row, long generation, long stamp) {
+        rows.put(new Key(table, partitionKey), new Value(row, generation, stamp));
+    }
+
+    void remove(TiesTableGenerations table, List<ByteBuffer> partitionKey) {
+        rows.invalidate(new Key(table, partitionKey));
+    }
+
+    void clear(TiesTableGenerations table) {
+        rows.asMap().keySet().removeIf(key -> key.table == table);
+    }
+
+    void clear() {
+        rows.invalidateAll();
+    }
+
+}
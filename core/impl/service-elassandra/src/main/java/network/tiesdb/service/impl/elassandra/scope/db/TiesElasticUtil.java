@@ -0,0 +1,244 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getFieldNameIds;
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getTableNameId;
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.getTablespaceNameId;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.cql3.ColumnIdentifier;
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.service.ElassandraDaemon;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+
+/**
+ * Elasticsearch indexing of TiesDB tables. Each table gets its own index
+ * mapping FLD columns of searchable types. Indexed tables have Elassandra
+ * es_query and es_options columns and are searched with es_query CQL
+ * requests.
+ */
+public final class TiesElasticUtil {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesElasticUtil.class);
+
+    public static final String ES_QUERY = "es_query";
+    public static final String ES_OPTIONS = "es_options";
+
+    private TiesElasticUtil() {
+    }
+
+    public static String getIndexName(String tablespaceNameId, String tableNameId) {
+        return (tablespaceNameId + '_' + tableNameId).toLowerCase();
+    }
+
+    /**
+     * Creates the table index or adds missing fields to the index mapping and
+     * then the search columns of the table. Elasticsearch failures are logged
+     * and leave the table searchable by CQL only, failures to alter the table
+     * are thrown to fail the schema update.
+     */
+    public static void refreshIndex(String tablespaceName, String tableName, Collection<FieldDescription> fieldDescriptions) {
+        String tablespaceNameId = getTablespaceNameId(tablespaceName);
+        String tableNameId = getTableNameId(tableName);
+        Map<String, Object> properties = new HashMap<>();
+        for (FieldDescription fieldDescription : fieldDescriptions) {
+            String esType;
+            try {
+                esType = TiesTypeHelper.mapToElasticsearchType(fieldDescription.getType());
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Field `{}` of `{}`.`{}` is not indexed", fieldDescription.getName(), tablespaceName, tableName, e);
+                continue;
+            }
+            if (null == esType) {
+                continue;
+            }
+            Map<String, Object> property = new HashMap<>();
+            if ("string".equals(esType)) {
+                property.put("index", "not_analyzed");
+            }
+            property.put("type", esType);
+            property.put("cql_collection", "singleton");
+            properties.put(getFieldNameIds(fieldDescription.getName()).getField(), property);
+        }
+        Map<String, Object> mapping = new HashMap<>();
+        mapping.put("properties", properties);
+        try {
+            IndicesAdminClient indices = ElassandraDaemon.instance.node().client().admin().indices();
+            String indexName = getIndexName(tablespaceNameId, tableNameId);
+            if (indices.prepareExists(indexName).get().isExists()) {
+                indices.preparePutMapping(indexName).setType(tableNameId).setSource(mapping).get();
+                LOG.debug("Index {} mapping updated for `{}`.`{}`", indexName, tablespaceName, tableName);
+            } else {
+                Map<String, Object> settings = new HashMap<>();
+                settings.put("index.keyspace", tablespaceNameId);
+                indices.prepareCreate(indexName).setSettings(settings).addMapping(tableNameId, mapping).get();
+                LOG.debug("Index {} created for `{}`.`{}`", indexName, tablespaceName, tableName);
+            }
+        } catch (ElasticsearchException e) {
+            LOG.warn("Failed to index `{}`.`{}`, table will be searched without index", tablespaceName, tableName, e);
+            return;
+        }
+        createSearchColumns(tablespaceNameId, tableNameId);
+    }
+
+    private static void createSearchColumns(String tablespaceNameId, String tableNameId) {
+        CFMetaData tableMeta = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
+        if (null == tableMeta) {
+            throw new IllegalStateException("Table `" + tablespaceNameId + "`.`" + tableNameId + "` was not found in cassandra");
+        }
+        if (null != tableMeta.getColumnDefinition(ColumnIdentifier.getInterned(ES_QUERY, true))) {
+            return;
+        }
+        QueryProcessor.execute(//
+                "ALTER TABLE \"" + tablespaceNameId + "\".\"" + tableNameId + "\" ADD (" //
+                        + ES_QUERY + " text," //
+                        + ES_OPTIONS + " text" //
+                        + ")", //
+                ConsistencyLevel.ALL);
+    }
+
+    /**
+     * Builder of Elasticsearch filter queries. Supports equality, range and
+     * membership predicates over indexed fields.
+     */
+    public static final class QueryBuilder {
+
+        private final StringBuilder filters = new StringBuilder();
+
+        /**
+         * @return false if predicate can not be searched by index
+         */
+        public boolean add(String fieldNameId, String operator, List<Object> values) {
+            if (values.isEmpty()) {
+                return false;
+            }
+            String range;
+            switch (operator) {
+            case "=":
+                if (values.size() != 1) {
+                    return false;
+                }
+                next().append("{\"term\":{\"").append(fieldNameId).append("\":");
+                appendValue(values.get(0));
+                filters.append("}}");
+                return true;
+            case "in":
+                next().append("{\"terms\":{\"").append(fieldNameId).append("\":[");
+                for (Object value : values) {
+                    appendValue(value);
+                    filters.append(',');
+                }
+                filters.setLength(filters.length() - 1);
+                filters.append("]}}");
+                return true;
+            case ">":
+                range = "gt";
+                break;
+            case ">=":
+                range = "gte";
+                break;
+            case "<":
+                range = "lt";
+                break;
+            case "<=":
+                range = "lte";
+                break;
+            default:
+                return false;
+            }
+            if (values.size() != 1) {
+                return false;
+            }
+            next().append("{\"range\":{\"").append(fieldNameId).append("\":{\"").append(range).append("\":");
+            appendValue(values.get(0));
+            filters.append("}}}");
+            return true;
+        }
+
+        /**
+         * Builds the query without hits size limit. Query results should be
+         * fetched by pages, so Elassandra scrolls through all of the hits.
+         */
+        public String build() {
+            return "{\"query\":{\"bool\":{\"filter\":[" + filters + "]}}}";
+        }
+
+        /**
+         * Builds the query limited to size hits or without limit if size is 0.
+         */
+        public String build(int size) {
+            if (0 == size) {
+                return build();
+            }
+            return "{\"size\":" + size + ",\"query\":{\"bool\":{\"filter\":[" + filters + "]}}}";
+        }
+
+        private StringBuilder next() {
+            if (filters.length() > 0) {
+                filters.append(',');
+            }
+            return filters;
+        }
+
+        private void appendValue(Object value) {
+            if (value instanceof Number || value instanceof Boolean) {
+                filters.append(value);
+            } else if (value instanceof Date) {
+                filters.append(((Date) value).getTime());
+            } else {
+                String str = String.valueOf(value);
+                filters.append('"');
+                for (int i = 0; i < str.length(); i++) {
+                    char c = str.charAt(i);
+                    switch (c) {
+                    case '"':
+                        filters.append("\\\"");
+                        break;
+                    case '\\':
+                        filters.append("\\\\");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            filters.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            filters.append(c);
+                        }
+                    }
+                }
+                filters.append('"');
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Bounded concurrent cache of name identifiers. Names are evicted one by one
+ * when the bound is reached, so a burst of new names does not drop the ids of
+ * the hot table and field names.
+ */
+final class TiesNameIdCache<T> {
+
+    private final Cache<String, T> cache;
+    private final Function<String, T> loader;
+
+    TiesNameIdCache(int maxSize, Function<String, T> loader) {
+        this.cache = Caffeine.newBuilder() //
+                .maximumSize(maxSize) //
+                .build();
+        this.loader = loader;
+    }
+
+    T get(String name) {
+        T value = cache.getIfPresent(name);
+        if (null == value) {
+            value = cache.get(name, loader);
+        }
+        return value;
+    }
+
+    void clear() {
+        cache.invalidateAll();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent reads of a number of parts of a query. No more parts than the
+ * parallelism are read ahead of the consumer, and results of each part are
+ * passed to the consumer in the order of reading once all of the preceding
+ * parts are passed. So only the parts read ahead are held in memory.
+ */
+final class TiesParallelReader {
+
+    private TiesParallelReader() {
+    }
+
+    /**
+     * @param order
+     *            maps the sequence number of a read to the read part
+     * @param consumer
+     *            accepts results and returns false if no more of them are
+     *            needed, so the parts not read yet are skipped
+     */
+    static <T> void read(Executor executor, int parallelism, int count, IntUnaryOperator order, IntFunction<List<T>> reader,
+            Predicate<? super T> consumer) {
+        int window = Math.max(1, Math.min(parallelism, count));
+        AtomicBoolean done = new AtomicBoolean();
+        @SuppressWarnings("unchecked")
+        CompletableFuture<List<T>>[] reads = new CompletableFuture[window];
+        try {
+            for (int n = 0; n < window && n < count; n++) {
+                reads[n] = read(executor, order.applyAsInt(n), reader, done);
+            }
+            for (int n = 0; n < count; n++) {
+                List<T> result = join(reads[n % window]);
+                reads[n % window] = n + window < count ? read(executor, order.applyAsInt(n + window), reader, done) : null;
+                for (T value : result) {
+                    if (!consumer.test(value)) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            done.set(true);
+        }
+    }
+
+    private static <T> CompletableFuture<List<T>> read(Executor executor, int part, IntFunction<List<T>> reader,
+            AtomicBoolean done) {
+        return CompletableFuture.supplyAsync(() -> done.get() ? Collections.emptyList() : reader.apply(part), executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache.Kind;
+
+/**
+ * Parallel reads of a number of partitions. Each partition is read by its
+ * own single-partition query instead of a multi-partition IN query, so the
+ * reads are not serialized by the coordinator. Results are merged in the
+ * order of the partitions, and no more partitions are read once the limit of
+ * results is reached.
+ */
+public final class TiesPartitionLookup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesPartitionLookup.class);
+
+    private TiesPartitionLookup() {
+    }
+
+    /**
+     * Returns distinct keys of the cartesian product of the partition key
+     * column values in their order, or null if there are more than maxKeys
+     * of them.
+     *
+     * @param keyValues
+     *            values of each of the partition key columns
+     */
+    public static List<List<Object>> keys(List<List<Object>> keyValues, int maxKeys) {
+        Set<List<Object>> keys = new LinkedHashSet<>();
+        keys.add(Collections.emptyList());
+        for (List<Object> values : keyValues) {
+            if ((long) keys.size() * values.size() > maxKeys) {
+                return null;
+            }
+            Set<List<Object>> product = new LinkedHashSet<>();
+            for (List<Object> key : keys) {
+                for (Object value : values) {
+                    List<Object> k = new ArrayList<>(key.size() + 1);
+                    k.addAll(key);
+                    k.add(value);
+                    product.add(k);
+                }
+            }
+            keys = product;
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Reads the partitions with the select. Rows mapped to null are skipped.
+     * 
+     * @param select
+     *            select clause of the query up to the where keyword
+     * @param keys
+     *            values of partition key columns in the binding order
+     * @param limit
+     *            maximum count of results or 0 if results are not limited
+     */
+    public static <T> List<T> lookup(Executor executor, int parallelism, TiesTableBinding binding, String select,
+            List<Object> selectValues, List<List<Object>> keys, int limit, ConsistencyLevel cl, ConsistencyLevel serialCl,
+            Function<UntypedResultSet.Row, T> mapper) {
+        LOG.debug("Lookup of {}.{} by {} partitions", binding.getTablespaceNameId(), binding.getTableNameId(), keys.size());
+        String query = select + " where \"" + String.join("\" = ? and \"", binding.getPartitionKeyNames()) + "\" = ?";
+        List<T> results = new ArrayList<>();
+        TiesParallelReader.read(executor, parallelism, keys.size(), i -> i, i -> {
+            List<Object> values = new ArrayList<>(selectValues.size() + keys.get(i).size());
+            values.addAll(selectValues);
+            values.addAll(keys.get(i));
+            UntypedResultSet rows = TiesStatementCache.execute(binding, Kind.SELECT, query, () -> query, cl, serialCl,
+                    values.toArray());
+            List<T> result = new ArrayList<>(rows.size());
+            for (UntypedResultSet.Row row : rows) {
+                T value = mapper.apply(row);
+                if (null != value) {
+                    result.add(value);
+                }
+            }
+            return result;
+        }, value -> {
+            results.add(value);
+            return 0 == limit || results.size() < limit;
+        });
+        return results;
+    }
+
+}
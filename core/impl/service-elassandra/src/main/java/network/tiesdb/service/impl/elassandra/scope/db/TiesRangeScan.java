@@ -0,0 +1,167 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.apache.cassandra.locator.TokenMetadata;
+import org.apache.cassandra.service.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesStatementCache.Kind;
+
+/**
+ * Parallel scan of a table by token ranges of the ring. Contiguous ranges of
+ * the ring are merged into about as many splits as there are workers, and
+ * ranges replicated by the local node are merged only with each other and
+ * scanned first, so most of the scan is served by local replicas. Splits are
+ * fetched by a bounded count of workers and rows are mapped by the workers as
+ * soon as their split is fetched. Results of the splits are passed on in the
+ * order of the scan, and no more splits than workers are held in memory.
+ */
+public final class TiesRangeScan {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesRangeScan.class);
+
+    private static final class Ranges {
+
+        private final List<Range<Token>> ranges = new ArrayList<>();
+        private final List<Integer> order = new ArrayList<>();
+
+    }
+
+    private TiesRangeScan() {
+    }
+
+    /**
+     * Scans the table with the select restricted by token ranges. Rows mapped
+     * to null are skipped.
+     * 
+     * @param select
+     *            select clause of the query up to the where keyword
+     * @param restriction
+     *            conjunctive restriction of the where clause
+     * @param consumer
+     *            accepts results and returns false to stop the scan
+     */
+    public static <T> void scan(Executor executor, int parallelism, TiesTableBinding binding, String select,
+            List<Object> selectValues, String restriction, List<Object> restrictionValues, ConsistencyLevel cl,
+            ConsistencyLevel serialCl, Function<UntypedResultSet.Row, T> mapper, Predicate<? super T> consumer) {
+        Ranges ranges = getRanges(binding.getTablespaceNameId(), parallelism);
+        LOG.debug("Scan of {}.{} by {} ranges", binding.getTablespaceNameId(), binding.getTableNameId(), ranges.ranges.size());
+        String token = "token(\"" + String.join("\",\"", binding.getPartitionKeyNames()) + "\")";
+        TiesParallelReader.read(executor, parallelism, ranges.ranges.size(), ranges.order::get,
+                i -> scan(binding, select, selectValues, restriction, restrictionValues, token, ranges.ranges.get(i), cl, serialCl,
+                        mapper),
+                consumer);
+    }
+
+    private static <T> List<T> scan(TiesTableBinding binding, String select, List<Object> selectValues, String restriction,
+            List<Object> restrictionValues, String token, Range<Token> range, ConsistencyLevel cl, ConsistencyLevel serialCl,
+            Function<UntypedResultSet.Row, T> mapper) {
+        List<Object> values = new ArrayList<>(selectValues.size() + 2 + restrictionValues.size());
+        values.addAll(selectValues);
+        StringBuilder qb = new StringBuilder(select);
+        qb.append(" where ");
+        if (!range.left.isMinimum()) {
+            qb.append(token).append(" > ? and ");
+            values.add(range.left.getTokenValue());
+        }
+        if (!range.right.isMinimum()) {
+            qb.append(token).append(" <= ? and ");
+            values.add(range.right.getTokenValue());
+        }
+        qb.append(restriction);
+        qb.append(" ALLOW FILTERING");
+        values.addAll(restrictionValues);
+        String query = qb.toString();
+        UntypedResultSet rows = TiesStatementCache.execute(binding, Kind.SELECT, query, () -> query, cl, serialCl, values.toArray());
+        List<T> result = new ArrayList<>(rows.size());
+        for (UntypedResultSet.Row row : rows) {
+            T value = mapper.apply(row);
+            if (null != value) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns non-wrapping splits of the ring in token order and the order of
+     * their scan with splits replicated by the local node placed first.
+     * Contiguous ranges of the same locality are merged into splits of no
+     * more than the count of ranges per worker.
+     */
+    private static Ranges getRanges(String keyspaceName, int parallelism) {
+        Ranges ranges = new Ranges();
+        TokenMetadata tokenMetadata = StorageService.instance.getTokenMetadata();
+        Token minimum = tokenMetadata.partitioner.getMinimumToken();
+        List<Token> tokens = tokenMetadata.sortedTokens();
+        if (tokens.isEmpty()) {
+            ranges.ranges.add(new Range<>(minimum, minimum));
+            ranges.order.add(0);
+            return ranges;
+        }
+        Collection<Range<Token>> localRanges = StorageService.instance.getLocalRanges(keyspaceName);
+        Set<Range<Token>> local = null == localRanges ? new HashSet<>() : new HashSet<>(localRanges);
+        Token last = tokens.get(tokens.size() - 1);
+        boolean wrappingLocal = local.contains(new Range<>(last, tokens.get(0)));
+        int rangesPerSplit = Math.max(1, (tokens.size() + parallelism) / Math.max(1, parallelism));
+        List<Integer> remote = new ArrayList<>();
+        Token left = minimum;
+        Token splitLeft = minimum;
+        boolean splitLocal = wrappingLocal;
+        int splitSize = 0;
+        for (Token right : tokens) {
+            if (!right.isMinimum()) {
+                boolean isLocal = left.isMinimum() ? wrappingLocal : local.contains(new Range<>(left, right));
+                if (0 < splitSize && (isLocal != splitLocal || splitSize == rangesPerSplit)) {
+                    (splitLocal ? ranges.order : remote).add(ranges.ranges.size());
+                    ranges.ranges.add(new Range<>(splitLeft, left));
+                    splitLeft = left;
+                    splitSize = 0;
+                }
+                splitLocal = isLocal;
+                splitSize++;
+            }
+            left = right;
+        }
+        if (0 < splitSize) {
+            (splitLocal ? ranges.order : remote).add(ranges.ranges.size());
+            ranges.ranges.add(new Range<>(splitLeft, last));
+        }
+        (wrappingLocal ? ranges.order : remote).add(ranges.ranges.size());
+        ranges.ranges.add(new Range<>(last, minimum));
+        ranges.order.addAll(remote);
+        return ranges;
+    }
+
+}
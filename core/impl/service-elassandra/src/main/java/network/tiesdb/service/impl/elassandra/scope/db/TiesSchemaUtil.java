@@ -25,14 +25,17 @@ import java.io.IOException;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
@@ -279,6 +282,26 @@ public final class TiesSchemaUtil {
 
     }
 
+    private static final class FieldDescriptions {
+
+        private final UUID version;
+        private final List<FieldDescription> fields;
+        private volatile long checked;
+
+        FieldDescriptions(UUID version, List<FieldDescription> fields) {
+            this.version = version;
+            this.fields = Collections.unmodifiableList(fields);
+            this.checked = System.currentTimeMillis();
+        }
+
+        void forEach(Consumer<FieldDescription> c) {
+            for (FieldDescription fieldDescription : fields) {
+                c.accept(fieldDescription);
+            }
+        }
+
+    }
+
     public static final String ENTRY_HEADER = "ENTRY_HEADER";
     public static final String ENTRY_VERSION = "VERSION";
 
@@ -301,6 +324,8 @@ public final class TiesSchemaUtil {
 
     private static final Logger LOG = LoggerFactory.getLogger(TiesSchemaUtil.class);
 
+    public static final String SASI_INDEX_CLASS = "org.apache.cassandra.index.sasi.SASIIndex";
+
     private static final String KEYSPACE = "ties_schema";
     private static final String KEYSPACE_REPLICATION = "{ 'class' : 'org.apache.cassandra.locator.NetworkTopologyStrategy', 'DC1': '1' }";
     private static final String SCHEMAS_TABLE = "schemas";
@@ -325,21 +350,115 @@ public final class TiesSchemaUtil {
     private static final String PAYMENT_CHEQUE_SIGNATURE = "signature";
     private static final String PAYMENT_CHEQUE_VERSION = "version";
 
+    private static final String CACHE_GENERATIONS_TABLE = "cache_generations";
+
+    private static final String CACHE_GENERATION_TABLESPACE_NAME = "tablespace_name";
+    private static final String CACHE_GENERATION_TABLE_NAME = "table_name";
+    private static final String CACHE_GENERATION_NODE = "node";
+    private static final String CACHE_GENERATION = "generation";
+
     private static final int DEFAULT_FIELDS_SYNC_RETRY = 3;
     private static final int DEFAULT_CREATION_RETRY = 2;
 
+    /**
+     * Upper bound of staleness of cached field descriptions. Descriptions are
+     * dropped as soon as the column family of the table is altered and
+     * rechecked after any cluster cache generation change of the table, so the
+     * bound only applies when neither of them is observed.
+     */
+    private static final long FIELDS_VERSION_PROBE_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+
+    private static final Map<String, Map<String, FieldDescriptions>> FIELD_DESCRIPTIONS = new ConcurrentHashMap<>();
+
     private static final Encoder NAME_ENCODER = EncoderManager.getEncoder(EncoderManager.BASE32_NP);
+    private static final Charset NAME_CHARSET = Charset.forName("UTF-8");
 
     private static final String TYPE_ENTRY_HEADER = "ENTRY_HEADER";
 
+    public static final String TABLESPACE_PREFIX = "TIE";
+    public static final String TABLE_PREFIX = "TBL";
+    public static final String FIELD_PREFIX = "FLD";
+    public static final String HASH_PREFIX = "HSH";
+    public static final String VALUE_PREFIX = "VAL";
+
+    private static final int NAME_ID_CACHE_SIZE = 1 << 14;
+
+    public static final class FieldNameIds {
+
+        private final String field;
+        private final String hash;
+        private final String value;
+
+        private FieldNameIds(String nameId) {
+            this.field = FIELD_PREFIX + nameId;
+            this.hash = HASH_PREFIX + nameId;
+            this.value = VALUE_PREFIX + nameId;
+        }
+
+        public String getField() {
+            return field;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return "FieldNameIds [field=" + field + ", hash=" + hash + ", value=" + value + "]";
+        }
+
+    }
+
+    private static final TiesNameIdCache<String> NAME_IDS = new TiesNameIdCache<>(NAME_ID_CACHE_SIZE, TiesSchemaUtil::computeNameId);
+    private static final TiesNameIdCache<String> TABLESPACE_NAME_IDS = new TiesNameIdCache<>(NAME_ID_CACHE_SIZE,
+            name -> TABLESPACE_PREFIX + getNameId(name));
+    private static final TiesNameIdCache<String> TABLE_NAME_IDS = new TiesNameIdCache<>(NAME_ID_CACHE_SIZE,
+            name -> TABLE_PREFIX + getNameId(name));
+    private static final TiesNameIdCache<FieldNameIds> FIELD_NAME_IDS = new TiesNameIdCache<>(NAME_ID_CACHE_SIZE,
+            name -> new FieldNameIds(getNameId(name)));
+
+    public static String getTablespaceNameId(String tablespaceName) {
+        return TABLESPACE_NAME_IDS.get(tablespaceName);
+    }
+
+    public static String getTableNameId(String tableName) {
+        return TABLE_NAME_IDS.get(tableName);
+    }
+
+    public static FieldNameIds getFieldNameIds(String fieldName) {
+        return FIELD_NAME_IDS.get(fieldName);
+    }
+
     public static String getNameId(String prefix, String name) {
-        return prefix + getNameId(name);
+        switch (prefix) {
+        case TABLESPACE_PREFIX:
+            return getTablespaceNameId(name);
+        case TABLE_PREFIX:
+            return getTableNameId(name);
+        case FIELD_PREFIX:
+            return getFieldNameIds(name).getField();
+        case HASH_PREFIX:
+            return getFieldNameIds(name).getHash();
+        case VALUE_PREFIX:
+            return getFieldNameIds(name).getValue();
+        default:
+            return prefix + getNameId(name);
+        }
     }
 
     public static String getNameId(String name) {
+        return NAME_IDS.get(name);
+    }
+
+    private static String computeNameId(String name) {
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             Digest digest = DigestManager.getDigest(DigestManager.KECCAK_224);
-            digest.update(name.getBytes(Charset.forName("UTF-8")));
+            digest.update(name.getBytes(NAME_CHARSET));
             byte[] nameHash = new byte[digest.getDigestSize()];
             digest.doFinal(nameHash, 0);
             NAME_ENCODER.encode(nameHash, b -> baos.write(b));
@@ -400,6 +519,18 @@ public final class TiesSchemaUtil {
                 throw new TiesConfigurationException("TiesDB cheques table `" + KEYSPACE + "`.`" + PAYMENT_CHEQUES_TABLE + "` not found");
             }
         }
+        {
+            LOG.debug("Checking TiesDB cache generations table");
+            CFMetaData sch = Schema.instance.getCFMetaData(KEYSPACE, CACHE_GENERATIONS_TABLE);
+            if (null == sch) {
+                createCacheGenerationsTable();
+                sch = Schema.instance.getCFMetaData(KEYSPACE, CACHE_GENERATIONS_TABLE);
+            }
+            if (null == sch) {
+                throw new TiesConfigurationException(
+                        "TiesDB cache generations table `" + KEYSPACE + "`.`" + CACHE_GENERATIONS_TABLE + "` not found");
+            }
+        }
         LOG.debug("TiesDB schema table found");
     }
 
@@ -477,6 +608,65 @@ public final class TiesSchemaUtil {
                 ConsistencyLevel.ALL);
     }
 
+    private static void createCacheGenerationsTable() throws TiesConfigurationException {
+        LOG.debug("Creating TiesDB cache generations table: `{}`", CACHE_GENERATIONS_TABLE);
+        QueryProcessor.execute(//
+                "CREATE TABLE " + KEYSPACE + "." + CACHE_GENERATIONS_TABLE + " (\n"//
+                        + CACHE_GENERATION_TABLESPACE_NAME + " text,\n"//
+                        + CACHE_GENERATION_TABLE_NAME + " text,\n"//
+                        + CACHE_GENERATION_NODE + " uuid,\n"//
+                        + CACHE_GENERATION + " counter,\n"//
+                        + " PRIMARY KEY (("//
+                        + CACHE_GENERATION_TABLESPACE_NAME + ","//
+                        + CACHE_GENERATION_TABLE_NAME + "),"//
+                        + CACHE_GENERATION_NODE + ")\n"//
+                        + ")" //
+                , //
+                ConsistencyLevel.ALL);
+    }
+
+    /**
+     * Increments generation of cached results of the table modified by this
+     * node.
+     */
+    public static void incrementCacheGeneration(String tablespaceName, String tableName, ConsistencyLevel cl) {
+        TiesStatementCache.executeInternal(//
+                "UPDATE " + KEYSPACE + "." + CACHE_GENERATIONS_TABLE//
+                        + " SET " + CACHE_GENERATION + " = " + CACHE_GENERATION + " + 1"//
+                        + " WHERE " + CACHE_GENERATION_TABLESPACE_NAME + " = ?" //
+                        + " AND " + CACHE_GENERATION_TABLE_NAME + " = ?" //
+                        + " AND " + CACHE_GENERATION_NODE + " = ?" //
+                , //
+                cl, ConsistencyLevel.SERIAL, //
+                tablespaceName, //
+                tableName, //
+                StorageService.instance.getLocalHostUUID());
+    }
+
+    /**
+     * @return sum of generations of cached results of the table modified by
+     *         other nodes
+     */
+    public static long readRemoteCacheGeneration(String tablespaceName, String tableName, ConsistencyLevel cl) {
+        UUID localNode = StorageService.instance.getLocalHostUUID();
+        UntypedResultSet result = TiesStatementCache.executeInternal(//
+                "SELECT " + CACHE_GENERATION_NODE + ", " + CACHE_GENERATION//
+                        + " FROM " + KEYSPACE + "." + CACHE_GENERATIONS_TABLE//
+                        + " WHERE " + CACHE_GENERATION_TABLESPACE_NAME + " = ?" //
+                        + " AND " + CACHE_GENERATION_TABLE_NAME + " = ?" //
+                , //
+                cl, ConsistencyLevel.SERIAL, //
+                tablespaceName, //
+                tableName);
+        long generation = 0;
+        for (UntypedResultSet.Row row : result) {
+            if (row.has(CACHE_GENERATION) && !row.getUUID(CACHE_GENERATION_NODE).equals(localNode)) {
+                generation += row.getLong(CACHE_GENERATION);
+            }
+        }
+        return generation;
+    }
+
     private static void awaitStorageService() throws TiesConfigurationException {
         LOG.debug("Waiting for cassandra StorageService");
         try {
@@ -770,9 +960,96 @@ public final class TiesSchemaUtil {
     }
 
     public static void loadFieldDescriptions(String tablespaceName, String tableName, Consumer<FieldDescription> c) {
+        FieldDescriptions cached = getCachedFieldDescriptions(tablespaceName, tableName);
+        if (null != cached) {
+            long now = System.currentTimeMillis();
+            if (now - cached.checked < FIELDS_VERSION_PROBE_INTERVAL) {
+                cached.forEach(c);
+                return;
+            }
+            if (cached.version.equals(getSchemaVersion(tablespaceName, tableName))) {
+                cached.checked = now;
+                cached.forEach(c);
+                return;
+            }
+            LOG.debug("Field descriptions `{}`.`{}` version {} is outdated", tablespaceName, tableName, cached.version);
+        }
+        reloadFieldDescriptions(tablespaceName, tableName, c);
+    }
+
+    public static void reloadFieldDescriptions(String tablespaceName, String tableName, Consumer<FieldDescription> c) {
+        FieldDescriptions loaded = readFieldDescriptions(tablespaceName, tableName);
+        if (null == loaded) {
+            invalidateFieldDescriptions(tablespaceName, tableName);
+            return;
+        }
+        putCachedFieldDescriptions(tablespaceName, tableName, loaded);
+        loaded.forEach(c);
+    }
+
+    public static void cacheFieldDescriptions(String tablespaceName, String tableName, UUID schemaVersion,
+            Collection<FieldDescription> fieldDescriptions) {
+        List<FieldDescription> fields = new ArrayList<>(fieldDescriptions);
+        fields.sort((a, b) -> a.name.compareTo(b.name));
+        putCachedFieldDescriptions(tablespaceName, tableName, new FieldDescriptions(schemaVersion, fields));
+    }
+
+    public static void invalidateFieldDescriptions(String tablespaceName, String tableName) {
+        Map<String, FieldDescriptions> tsCache = FIELD_DESCRIPTIONS.get(tablespaceName);
+        if (null != tsCache) {
+            tsCache.remove(tableName);
+        }
+    }
+
+    /**
+     * Drops field descriptions of the tables stored in the keyspace.
+     */
+    public static void invalidateFieldDescriptionsOf(String keyspaceName) {
+        FIELD_DESCRIPTIONS.keySet().removeIf(tablespaceName -> getTablespaceNameId(tablespaceName).equals(keyspaceName));
+    }
+
+    /**
+     * Drops field descriptions of the table stored in the column family.
+     */
+    public static void invalidateFieldDescriptionsOf(String keyspaceName, String columnFamilyName) {
+        FIELD_DESCRIPTIONS.forEach((tablespaceName, tsCache) -> {
+            if (getTablespaceNameId(tablespaceName).equals(keyspaceName)) {
+                tsCache.keySet().removeIf(tableName -> getTableNameId(tableName).equals(columnFamilyName));
+            }
+        });
+    }
+
+    /**
+     * Makes the next load of field descriptions of the table check their
+     * schema version.
+     */
+    public static void expireFieldDescriptions(String tablespaceName, String tableName) {
+        FieldDescriptions cached = getCachedFieldDescriptions(tablespaceName, tableName);
+        if (null != cached) {
+            cached.checked = 0;
+        }
+    }
+
+    static boolean isFieldDescriptionsCached(String tablespaceName, String tableName) {
+        return null != getCachedFieldDescriptions(tablespaceName, tableName);
+    }
+
+    private static FieldDescriptions getCachedFieldDescriptions(String tablespaceName, String tableName) {
+        Map<String, FieldDescriptions> tsCache = FIELD_DESCRIPTIONS.get(tablespaceName);
+        return null == tsCache ? null : tsCache.get(tableName);
+    }
+
+    private static void putCachedFieldDescriptions(String tablespaceName, String tableName, FieldDescriptions fieldDescriptions) {
+        LOG.debug("Caching field descriptions `{}`.`{}` version {}", tablespaceName, tableName, fieldDescriptions.version);
+        FIELD_DESCRIPTIONS//
+                .computeIfAbsent(tablespaceName, (key) -> new ConcurrentHashMap<>()) //
+                .put(tableName, fieldDescriptions);
+    }
+
+    private static FieldDescriptions readFieldDescriptions(String tablespaceName, String tableName) {
         UUID schemaVersion = getSchemaVersion(tablespaceName, tableName);
         if (null == schemaVersion) {
-            return;
+            return null;
         }
         UntypedResultSet result;
         {
@@ -802,11 +1079,13 @@ public final class TiesSchemaUtil {
             }
         }
         if (null == schemaVersion) {
-            return;
+            return null;
         }
+        List<FieldDescription> fields = new ArrayList<>();
         for (UntypedResultSet.Row row : result) {
-            c.accept(new FieldDescription(row.getString(SCHEMA_FIELD_NAME), row.getString(SCHEMA_FIELD_TYPE)));
+            fields.add(new FieldDescription(row.getString(SCHEMA_FIELD_NAME), row.getString(SCHEMA_FIELD_TYPE)));
         }
+        return new FieldDescriptions(schemaVersion, fields);
     }
 
     public static void storeFieldDescription(String tablespaceName, String tableName, UUID schemaVersion, FieldDescription fieldDescription)
@@ -879,6 +1158,10 @@ public final class TiesSchemaUtil {
 
     public static void removeFieldDescriptionsByVersion(String tablespaceName, String tableName, UUID schemaVersion)
             throws TiesServiceScopeException {
+        FieldDescriptions cached = getCachedFieldDescriptions(tablespaceName, tableName);
+        if (null != cached && cached.version.equals(schemaVersion)) {
+            invalidateFieldDescriptions(tablespaceName, tableName);
+        }
         QueryProcessor.execute(//
                 "DELETE FROM " + KEYSPACE + "." + FIELDS_TABLE //
                         + " WHERE " + SCHEMA_TABLESPACE_NAME + " = ?" //
@@ -900,8 +1183,8 @@ public final class TiesSchemaUtil {
         LinkedList<FieldDescription> cachedDescriptions = new LinkedList<>();
         loadFieldDescriptions(tablespaceName, tableName, cachedDescriptions::add);
 
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
+        String tablespaceNameId = getTablespaceNameId(tablespaceName);
+        String tableNameId = getTableNameId(tableName);
 
         Keyspace ks;
         {
@@ -930,20 +1213,21 @@ public final class TiesSchemaUtil {
             query.append("\" varint,");
 
             for (FieldDescription field : primaryIndex) {
+                FieldNameIds fieldNameIds = getFieldNameIds(field.name);
                 query.append('"');
-                query.append(getNameId("FLD", field.name));
+                query.append(fieldNameIds.getField());
                 query.append("\" ");
                 query.append(TiesTypeHelper.mapToCassandraType(field.type));
                 query.append(",\"");
-                query.append(getNameId("HSH", field.name));
+                query.append(fieldNameIds.getHash());
                 query.append("\" blob, \"");
-                query.append(getNameId("VAL", field.name));
+                query.append(fieldNameIds.getValue());
                 query.append("\" blob,");
             }
             query.append("PRIMARY KEY (");
             for (FieldDescription field : primaryIndex) {
                 query.append('"');
-                query.append(getNameId("FLD", field.name));
+                query.append(getFieldNameIds(field.name).getField());
                 query.append("\",");
             }
             query.setLength(query.length() - 1);
@@ -958,7 +1242,7 @@ public final class TiesSchemaUtil {
     }
 
     private static void createTiesDBTablespace(String tablespaceName) {
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
+        String tablespaceNameId = getTablespaceNameId(tablespaceName);
         Keyspace ks = Schema.instance.getKeyspaceInstance(tablespaceNameId);
         if (null == ks) {
             QueryProcessor.execute(//
@@ -984,8 +1268,8 @@ public final class TiesSchemaUtil {
     }
 
     public static void refreshTiesDBStorage(String tablespaceName, String tableName, Collection<FieldDescription> fieldDescriptions) {
-        String tablespaceNameId = getNameId("TIE", tablespaceName);
-        String tableNameId = getNameId("TBL", tableName);
+        String tablespaceNameId = getTablespaceNameId(tablespaceName);
+        String tableNameId = getTableNameId(tableName);
 
         CFMetaData tableMeta = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
         if (null == tableMeta) {
@@ -993,23 +1277,68 @@ public final class TiesSchemaUtil {
                     + ") was not found in cassandra");
         }
         fieldDescriptions.forEach(fieldDescription -> {
-            String fieldNameId = getNameId("FLD", fieldDescription.getName());
-            ColumnDefinition columnDefinition = tableMeta.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
+            FieldNameIds fieldNameIds = getFieldNameIds(fieldDescription.getName());
+            ColumnDefinition columnDefinition = tableMeta.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameIds.getField(), true));
             if (null == columnDefinition) {
                 QueryProcessor.execute(//
                         "ALTER TABLE \"" + tablespaceNameId + "\".\"" + tableNameId + "\" ADD (" //
-                                + "\"" + getNameId("FLD", fieldDescription.name) + "\" "//
+                                + "\"" + fieldNameIds.getField() + "\" "//
                                 + TiesTypeHelper.mapToCassandraType(fieldDescription.type) + "," //
-                                + "\"" + getNameId("HSH", fieldDescription.name) + "\" blob," //
-                                + "\"" + getNameId("VAL", fieldDescription.name) + "\" blob" //
+                                + "\"" + fieldNameIds.getHash() + "\" blob," //
+                                + "\"" + fieldNameIds.getValue() + "\" blob" //
                                 + ")", //
                         ConsistencyLevel.ALL);
             }
         });
     }
 
-    public static void createChequeSession(ChequeDescription c) throws TiesServiceScopeException {
-        UntypedResultSet result = QueryProcessor.execute(//
+    /**
+     * Creates SASI indexes of the fields missing them. Primary key fields are
+     * not indexed. Indexing failures are logged and leave fields searchable
+     * by filtering only.
+     */
+    public static void createSecondaryIndexes(String tablespaceName, String tableName, Collection<String> fieldNames) {
+        String tablespaceNameId = getTablespaceNameId(tablespaceName);
+        String tableNameId = getTableNameId(tableName);
+
+        CFMetaData tableMeta = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
+        if (null == tableMeta) {
+            throw new IllegalStateException("Table `" + tablespaceNameId + "`.`" + tableNameId + "`(" + tablespaceName + "." + tableName
+                    + ") was not found in cassandra");
+        }
+        for (String fieldName : fieldNames) {
+            String fieldNameId = getFieldNameIds(fieldName).getField();
+            ColumnDefinition columnDefinition = tableMeta.getColumnDefinition(ColumnIdentifier.getInterned(fieldNameId, true));
+            if (null == columnDefinition || columnDefinition.isPrimaryKeyColumn()) {
+                continue;
+            }
+            String indexName = getSecondaryIndexName(tableNameId, fieldNameId);
+            if (tableMeta.getIndexes().has(indexName)) {
+                continue;
+            }
+            try {
+                QueryProcessor.execute(//
+                        "CREATE CUSTOM INDEX IF NOT EXISTS \"" + indexName + "\"" //
+                                + " ON \"" + tablespaceNameId + "\".\"" + tableNameId + "\" (\"" + fieldNameId + "\")" //
+                                + " USING '" + SASI_INDEX_CLASS + "'", //
+                        ConsistencyLevel.ALL);
+                LOG.debug("Index {} created for `{}`.`{}`.`{}`", indexName, tablespaceName, tableName, fieldName);
+            } catch (Throwable e) {
+                LOG.warn("Failed to index `{}`.`{}`.`{}`, field will be searched without index", tablespaceName, tableName, fieldName,
+                        e);
+            }
+        }
+    }
+
+    private static String getSecondaryIndexName(String tableNameId, String fieldNameId) {
+        // Names of table and field ids are too long for index names
+        UUID id = UUID.nameUUIDFromBytes((tableNameId + '.' + fieldNameId).getBytes(NAME_CHARSET));
+        return String.format("SASI_%016x%016x", id.getMostSignificantBits(), id.getLeastSignificantBits());
+    }
+
+    public static void createChequeSession(ChequeDescription c, ConsistencyLevel cl, ConsistencyLevel serialCl)
+            throws TiesServiceScopeException {
+        UntypedResultSet result = TiesStatementCache.executeInternal(//
                 "INSERT INTO " + KEYSPACE + "." + PAYMENT_CHEQUES_TABLE + " ("//
                         + PAYMENT_CHEQUE_TABLESPACE_NAME + ", " //
                         + PAYMENT_CHEQUE_TABLE_NAME + ", " //
@@ -1030,7 +1359,7 @@ public final class TiesSchemaUtil {
                         + "?" //
                         + ") IF NOT EXISTS" //
                 , //
-                ConsistencyLevel.ALL, new Object[] { //
+                cl, serialCl, new Object[] { //
                         c.tablespaceName, //
                         c.tableName, //
                         c.session, //
@@ -1049,8 +1378,9 @@ public final class TiesSchemaUtil {
         }
     }
 
-    public static void updateChequeSession(ChequeDescription c, BigInteger cropDelta) throws TiesServiceScopeException {
-        UntypedResultSet result = QueryProcessor.execute(//
+    public static void updateChequeSession(ChequeDescription c, BigInteger cropDelta, ConsistencyLevel cl,
+            ConsistencyLevel serialCl) throws TiesServiceScopeException {
+        UntypedResultSet result = TiesStatementCache.executeInternal(//
                 "UPDATE " + KEYSPACE + "." + PAYMENT_CHEQUES_TABLE + " SET "//
                         + PAYMENT_CHEQUE_NUMBER + " = ?, " //
                         + PAYMENT_CHEQUE_CRP_AMOUNT + " = ?, " //
@@ -1063,7 +1393,7 @@ public final class TiesSchemaUtil {
                         + " IF " //
                         + PAYMENT_CHEQUE_CRP_AMOUNT + " <= ?" //
                 , //
-                ConsistencyLevel.ALL, new Object[] { //
+                cl, serialCl, new Object[] { //
                         c.number, //
                         c.cropAmount, //
                         c.signature, //
@@ -0,0 +1,290 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.cassandra.cql3.QueryOptions;
+import org.apache.cassandra.cql3.QueryProcessor;
+import org.apache.cassandra.cql3.UntypedResultSet;
+import org.apache.cassandra.cql3.statements.ParsedStatement;
+import org.apache.cassandra.cql3.statements.SelectStatement;
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.partitions.PartitionIterator;
+import org.apache.cassandra.exceptions.RequestExecutionException;
+import org.apache.cassandra.exceptions.RequestValidationException;
+import org.apache.cassandra.service.ClientState;
+import org.apache.cassandra.service.QueryState;
+import org.apache.cassandra.service.pager.PagingState;
+import org.apache.cassandra.service.pager.QueryPager;
+import org.apache.cassandra.transport.ProtocolVersion;
+import org.apache.cassandra.transport.messages.ResultMessage;
+import org.apache.cassandra.utils.FBUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+
+/**
+ * Cache of prepared data-plane statements. Statements are keyed by table
+ * binding, operation kind and the ordered column shape of the query, so the
+ * query text is built and parsed only on a cache miss.
+ */
+public final class TiesStatementCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesStatementCache.class);
+
+    private static final int STATEMENT_CACHE_SIZE = 1 << 12;
+
+    public static enum Kind {
+        INSERT, UPSERT, UPDATE, DELETE, BATCH, SELECT
+    }
+
+    private static final class StatementKey {
+
+        private final TiesTableBinding binding;
+        private final Kind kind;
+        private final Object shape;
+        private final int hash;
+
+        StatementKey(TiesTableBinding binding, Kind kind, Object shape) {
+            this.binding = binding;
+            this.kind = kind;
+            this.shape = shape;
+            this.hash = 31 * (31 * System.identityHashCode(binding) + kind.hashCode()) + shape.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) obj;
+            return binding == other.binding && kind == other.kind && shape.equals(other.shape);
+        }
+
+    }
+
+    /**
+     * Pager of select results fetching them page by page. Pages are processed
+     * with no bound values, so the statement should bind values only in its
+     * restrictions.
+     */
+    public static final class Pager {
+
+        private final SelectStatement statement;
+        private final QueryPager pager;
+        private final ConsistencyLevel cl;
+        private final int nowInSec;
+
+        private Pager(SelectStatement statement, QueryPager pager, ConsistencyLevel cl, int nowInSec) {
+            this.statement = statement;
+            this.pager = pager;
+            this.cl = cl;
+            this.nowInSec = nowInSec;
+        }
+
+        /**
+         * Fetches at most pageSize rows following the previous page.
+         */
+        public UntypedResultSet fetchPage(int pageSize) throws RequestExecutionException {
+            if (0 >= pageSize) {
+                throw new IllegalArgumentException("Page size should be positive but was " + pageSize);
+            }
+            try (PartitionIterator partitions = pager.fetchPage(pageSize, cl, ClientState.forInternalCalls(), System.nanoTime())) {
+                return UntypedResultSet.create(statement.process(partitions, nowInSec));
+            }
+        }
+
+        public boolean isExhausted() {
+            return pager.isExhausted();
+        }
+
+        /**
+         * @return serialized paging state of the next page or null if there
+         *         are no more pages
+         */
+        public ByteBuffer getPagingState() {
+            PagingState state = pager.isExhausted() ? null : pager.state();
+            return null == state ? null : state.serialize(ProtocolVersion.CURRENT);
+        }
+
+    }
+
+    private static final Cache<StatementKey, ParsedStatement.Prepared> STATEMENTS = Caffeine.newBuilder() //
+            .maximumSize(STATEMENT_CACHE_SIZE) //
+            .build();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private TiesStatementCache() {
+    }
+
+    public static UntypedResultSet execute(TiesTableBinding binding, Kind kind, Object shape, Supplier<String> query,
+            ConsistencyLevel cl, ConsistencyLevel serialCl, Object... values) throws RequestExecutionException {
+        return execute(getPrepared(binding, kind, shape, query), cl, serialCl, values);
+    }
+
+    /**
+     * Returns pager of a select statement starting from the beginning.
+     */
+    public static Pager newPager(TiesTableBinding binding, Kind kind, Object shape, Supplier<String> query, ConsistencyLevel cl,
+            Object... values) {
+        return newPager(getPrepared(binding, kind, shape, query), cl, null, values);
+    }
+
+    /**
+     * Returns pager of a select statement resuming from the serialized paging
+     * state.
+     *
+     * @throws TiesServiceScopeException if the paging state is malformed
+     */
+    public static Pager resumePager(TiesTableBinding binding, Kind kind, Object shape, Supplier<String> query, ConsistencyLevel cl,
+            ByteBuffer pagingState, Object... values) throws TiesServiceScopeException {
+        PagingState state;
+        try {
+            state = PagingState.deserialize(pagingState.duplicate(), ProtocolVersion.CURRENT);
+        } catch (RuntimeException e) {
+            throw new TiesServiceScopeException("Invalid paging token", e);
+        }
+        return newPager(getPrepared(binding, kind, shape, query), cl, state, values);
+    }
+
+    private static Pager newPager(ParsedStatement.Prepared prepared, ConsistencyLevel cl, PagingState state, Object[] values) {
+        if (!(prepared.statement instanceof SelectStatement)) {
+            throw new IllegalArgumentException("Select statement expected for pager");
+        }
+        SelectStatement statement = (SelectStatement) prepared.statement;
+        int nowInSec = FBUtilities.nowInSeconds();
+        QueryPager pager = statement.getQuery(makeOptions(prepared, values, cl, null), nowInSec).getPager(state,
+                ProtocolVersion.CURRENT);
+        return new Pager(statement, pager, cl, nowInSec);
+    }
+
+    private static ParsedStatement.Prepared getPrepared(TiesTableBinding binding, Kind kind, Object shape, Supplier<String> query) {
+        Objects.requireNonNull(shape);
+        StatementKey key = new StatementKey(binding, kind, shape);
+        ParsedStatement.Prepared prepared = STATEMENTS.getIfPresent(key);
+        if (null != prepared) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+            prepared = prepare(query.get());
+            STATEMENTS.put(key, prepared);
+        }
+        return prepared;
+    }
+
+    /**
+     * Executes a fixed text statement. Such statements are few and are cached
+     * by Cassandra internal statements cache.
+     */
+    public static UntypedResultSet executeInternal(String query, ConsistencyLevel cl, ConsistencyLevel serialCl, Object... values)
+            throws RequestExecutionException {
+        ParsedStatement.Prepared prepared;
+        try {
+            prepared = QueryProcessor.prepareInternal(query);
+        } catch (RequestValidationException e) {
+            throw new RuntimeException("Error validating " + query, e);
+        }
+        return execute(prepared, cl, serialCl, values);
+    }
+
+    private static UntypedResultSet execute(ParsedStatement.Prepared prepared, ConsistencyLevel cl, ConsistencyLevel serialCl,
+            Object[] values) throws RequestExecutionException {
+        ResultMessage result = prepared.statement.execute(QueryState.forInternalCalls(),
+                makeOptions(prepared, values, cl, serialCl), System.nanoTime());
+        if (result instanceof ResultMessage.Rows) {
+            return UntypedResultSet.create(((ResultMessage.Rows) result).result);
+        }
+        return null;
+    }
+
+    private static ParsedStatement.Prepared prepare(String query) {
+        LOG.debug("Preparing statement {}", query);
+        try {
+            ClientState state = ClientState.forInternalCalls();
+            ParsedStatement.Prepared prepared = QueryProcessor.getStatement(query, state);
+            prepared.statement.validate(state);
+            return prepared;
+        } catch (RequestValidationException e) {
+            throw new RuntimeException("Error validating " + query, e);
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static QueryOptions makeOptions(ParsedStatement.Prepared prepared, Object[] values, ConsistencyLevel cl,
+            ConsistencyLevel serialCl) {
+        if (prepared.boundNames.size() != values.length) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid number of values. Expecting %d but got %d", prepared.boundNames.size(), values.length));
+        }
+        List<ByteBuffer> boundValues = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            AbstractType type = prepared.boundNames.get(i).type;
+            boundValues.add(value instanceof ByteBuffer || value == null ? (ByteBuffer) value : type.decompose(value));
+        }
+        return QueryOptions.create(cl, boundValues, false, -1, null, serialCl, ProtocolVersion.CURRENT);
+    }
+
+    public static void invalidate(String tablespaceNameId, String tableNameId) {
+        STATEMENTS.asMap().keySet().removeIf(key -> key.binding.getTablespaceNameId().equals(tablespaceNameId)
+                && key.binding.getTableNameId().equals(tableNameId));
+    }
+
+    public static void invalidate(String tablespaceNameId) {
+        STATEMENTS.asMap().keySet().removeIf(key -> key.binding.getTablespaceNameId().equals(tablespaceNameId));
+    }
+
+    public static void clear() {
+        STATEMENTS.invalidateAll();
+    }
+
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    public static int size() {
+        return (int) STATEMENTS.estimatedSize();
+    }
+
+}
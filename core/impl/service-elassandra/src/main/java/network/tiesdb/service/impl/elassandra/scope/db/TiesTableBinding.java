@@ -0,0 +1,288 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.ENTRY_HEADER;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cassandra.config.CFMetaData;
+import org.apache.cassandra.config.ColumnDefinition;
+import org.apache.cassandra.config.Schema;
+import org.apache.cassandra.cql3.FieldIdentifier;
+import org.apache.cassandra.cql3.statements.IndexTarget;
+import org.apache.cassandra.db.marshal.AbstractType;
+import org.apache.cassandra.db.marshal.UserType;
+import org.apache.cassandra.schema.IndexMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.HeaderField;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+
+/**
+ * Immutable compiled metadata of a TiesDB table. Bindings are created once per
+ * schema version of a table and dropped by schema migration events.
+ * Cassandra updates table metadata in place, so bindings are never checked
+ * against it and only invalidation rebinds a table.
+ */
+public final class TiesTableBinding {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TiesTableBinding.class);
+
+    private static final ConcurrentHashMap<String, TiesTableBinding> BINDINGS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong GENERATION = new AtomicLong();
+
+    private final String tablespaceName;
+    private final String tableName;
+    private final String tablespaceNameId;
+    private final String tableNameId;
+    private final UUID schemaVersion;
+    private final CFMetaData cfMetaData;
+    private final List<String> partitionKeyNames;
+    private final Set<String> columnNames;
+    private final Map<String, ColumnDefinition> columns;
+    private final Map<String, AbstractType<?>> columnTypes;
+    private final Set<String> secondaryIndexedNames;
+    private final UserType headerType;
+    private final String headerError;
+    private final HeaderField[] headerFields;
+    private final int[] headerFieldPositions;
+
+    private TiesTableBinding(String tablespaceName, String tableName, String tablespaceNameId, String tableNameId,
+            CFMetaData cfMetaData) {
+        this.tablespaceName = tablespaceName;
+        this.tableName = tableName;
+        this.tablespaceNameId = tablespaceNameId;
+        this.tableNameId = tableNameId;
+        this.schemaVersion = Schema.instance.getVersion();
+        this.cfMetaData = cfMetaData;
+        {
+            List<ColumnDefinition> partKeyColumns = cfMetaData.partitionKeyColumns();
+            List<String> names = new ArrayList<>(partKeyColumns.size());
+            for (ColumnDefinition columnDefinition : partKeyColumns) {
+                names.add(columnDefinition.name.toString().toUpperCase());
+            }
+            this.partitionKeyNames = Collections.unmodifiableList(names);
+        }
+        {
+            Collection<ColumnDefinition> allColumns = cfMetaData.allColumns();
+            Set<String> names = new HashSet<>(allColumns.size());
+            Map<String, ColumnDefinition> definitions = new HashMap<>(allColumns.size());
+            Map<String, AbstractType<?>> types = new HashMap<>(allColumns.size());
+            for (ColumnDefinition c : allColumns) {
+                String name = c.name.toString();
+                names.add(name);
+                definitions.put(name, c);
+                types.put(name, c.getExactTypeIfKnown(cfMetaData.ksName));
+            }
+            this.columnNames = Collections.unmodifiableSet(names);
+            this.columns = Collections.unmodifiableMap(definitions);
+            this.columnTypes = Collections.unmodifiableMap(types);
+        }
+        {
+            Set<String> names = new HashSet<>();
+            for (IndexMetadata index : cfMetaData.getIndexes()) {
+                String target = index.options.get(IndexTarget.TARGET_OPTION_NAME);
+                if (index.isCustom() && TiesSchemaUtil.SASI_INDEX_CLASS.equals(index.options.get(IndexTarget.CUSTOM_INDEX_OPTION_NAME))
+                        && null != target) {
+                    names.add(target.startsWith("\"") ? target.substring(1, target.length() - 1).replace("\"\"", "\"") : target);
+                }
+            }
+            this.secondaryIndexedNames = Collections.unmodifiableSet(names);
+        }
+        {
+            ColumnDefinition columnDefinition = columns.get(ENTRY_HEADER);
+            if (null == columnDefinition) {
+                this.headerType = null;
+                this.headerError = "No " + ENTRY_HEADER + " column found";
+            } else if (!(columnDefinition.type instanceof UserType)) {
+                this.headerType = null;
+                this.headerError = "Type of " + ENTRY_HEADER + " column should be UserType";
+            } else {
+                this.headerType = (UserType) columnDefinition.type;
+                this.headerError = null;
+            }
+        }
+        if (null != headerType) {
+            this.headerFields = new HeaderField[headerType.size()];
+            for (int i = 0; i < headerFields.length; i++) {
+                try {
+                    headerFields[i] = HeaderField.valueOfIgnoreCase(headerType.fieldNameAsString(i));
+                } catch (IllegalArgumentException e) {
+                    headerFields[i] = null;
+                }
+            }
+            this.headerFieldPositions = new int[HeaderField.values().length];
+            for (HeaderField field : HeaderField.values()) {
+                headerFieldPositions[field.ordinal()] = headerType.fieldPosition(FieldIdentifier.forUnquoted(field.name()));
+            }
+        } else {
+            this.headerFields = new HeaderField[0];
+            this.headerFieldPositions = new int[0];
+        }
+    }
+
+    public static TiesTableBinding get(String tablespaceName, String tableName) {
+        String tablespaceNameId = TiesSchemaUtil.getTablespaceNameId(tablespaceName);
+        String tableNameId = TiesSchemaUtil.getTableNameId(tableName);
+        String key = key(tablespaceNameId, tableNameId);
+        TiesTableBinding binding = BINDINGS.get(key);
+        if (null != binding) {
+            return binding;
+        }
+        long generation = GENERATION.get();
+        CFMetaData cfMetaData = Schema.instance.getCFMetaData(tablespaceNameId, tableNameId);
+        if (null == cfMetaData) {
+            return null;
+        }
+        TiesTableBinding newBinding = new TiesTableBinding(tablespaceName, tableName, tablespaceNameId, tableNameId, cfMetaData);
+        LOG.debug("Table `{}`.`{}` bound to {}.{} for schema version {}", tablespaceName, tableName, tablespaceNameId, tableNameId,
+                newBinding.schemaVersion);
+        // Binding built while an invalidation was running may be stale, so it
+        // is used for this call only and is not published
+        binding = BINDINGS.compute(key, (k, b) -> null == b && generation == GENERATION.get() ? newBinding : b);
+        return null != binding ? binding : newBinding;
+    }
+
+    public static void invalidate(String tablespaceNameId, String tableNameId) {
+        GENERATION.incrementAndGet();
+        if (null != BINDINGS.remove(key(tablespaceNameId, tableNameId))) {
+            LOG.debug("Table binding {}.{} invalidated", tablespaceNameId, tableNameId);
+        }
+    }
+
+    public static void invalidate(String tablespaceNameId) {
+        String prefix = tablespaceNameId + '.';
+        GENERATION.incrementAndGet();
+        BINDINGS.keySet().removeIf(key -> key.startsWith(prefix));
+        LOG.debug("Tablespace bindings {} invalidated", tablespaceNameId);
+    }
+
+    private static String key(String tablespaceNameId, String tableNameId) {
+        return tablespaceNameId + '.' + tableNameId;
+    }
+
+    public String getTablespaceName() {
+        return tablespaceName;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getTablespaceNameId() {
+        return tablespaceNameId;
+    }
+
+    public String getTableNameId() {
+        return tableNameId;
+    }
+
+    public UUID getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public CFMetaData getCFMetaData() {
+        return cfMetaData;
+    }
+
+    public List<String> getPartitionKeyNames() {
+        return partitionKeyNames;
+    }
+
+    public boolean isPartitionKey(String columnName) {
+        return partitionKeyNames.contains(columnName);
+    }
+
+    public Set<String> getColumnNames() {
+        return columnNames;
+    }
+
+    public ColumnDefinition getColumn(String columnName) {
+        return columns.get(columnName);
+    }
+
+    public AbstractType<?> getColumnType(String columnName) {
+        return columnTypes.get(columnName);
+    }
+
+    /**
+     * Serializes partition key values in the partition key order.
+     *
+     * @return serialized partition key or null if any of key values is missing
+     */
+    @SuppressWarnings("unchecked")
+    public List<ByteBuffer> decomposePartitionKey(Map<String, ?> values) {
+        List<ByteBuffer> key = new ArrayList<>(partitionKeyNames.size());
+        for (String name : partitionKeyNames) {
+            Object value = values.get(name);
+            if (null == value) {
+                return null;
+            }
+            key.add(value instanceof ByteBuffer ? (ByteBuffer) value : ((AbstractType<Object>) columnTypes.get(name)).decompose(value));
+        }
+        return key;
+    }
+
+    /**
+     * @return true if the column has SASI index
+     */
+    public boolean isSecondaryIndexed(String columnName) {
+        return secondaryIndexedNames.contains(columnName);
+    }
+
+    public boolean isElasticsearchIndexed() {
+        return columnNames.contains(TiesElasticUtil.ES_QUERY);
+    }
+
+    public UserType getHeaderType() throws TiesServiceScopeException {
+        if (null == headerType) {
+            throw new TiesServiceScopeException(headerError);
+        }
+        return headerType;
+    }
+
+    public HeaderField getHeaderField(int position) {
+        return headerFields[position];
+    }
+
+    public int getHeaderFieldPosition(HeaderField field) {
+        return headerFieldPositions[field.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        return "TiesTableBinding [tablespaceName=" + tablespaceName + ", tableName=" + tableName + ", tablespaceNameId="
+                + tablespaceNameId + ", tableNameId=" + tableNameId + ", schemaVersion=" + schemaVersion + "]";
+    }
+
+}
@@ -227,4 +227,38 @@ public final class TiesTypeHelper {
         }
     }
 
+    /**
+     * Maps TiesDB type to Elasticsearch field type. Types without exact
+     * Elasticsearch ordering (bigint, decimal) and types which can not be
+     * searched (binary, duration) are mapped to null and stay unindexed.
+     */
+    public static String mapToElasticsearchType(String tiesType) throws IllegalArgumentException {
+        requireNonNull(tiesType);
+        switch (tiesType.toLowerCase()) {
+        case "integer":
+            return "integer";
+        case "long":
+            return "long";
+        case "float":
+            return "float";
+        case "double":
+            return "double";
+        case "ascii":
+        case "string":
+        case "uuid":
+            return "string";
+        case "time":
+            return "date";
+        case "boolean":
+            return "boolean";
+        case "decimal":
+        case "bigint":
+        case "binary":
+        case "duration":
+            return null;
+        default:
+            throw new IllegalArgumentException("Unknown TiesDB type " + tiesType);
+        }
+    }
+
 }
@@ -0,0 +1,156 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.apache.cassandra.db.WriteType;
+import org.apache.cassandra.exceptions.InvalidRequestException;
+import org.apache.cassandra.exceptions.WriteTimeoutException;
+import org.junit.Test;
+
+public class TiesBatchExecutorTest {
+
+    /**
+     * Batch of modifications with scripted partition outcomes. Single
+     * executions of the indexes listed as failing throw.
+     */
+    private static class ScriptedBatch implements TiesBatchExecutor.Batch<String> {
+
+        private final Object partitionOutcome;
+        private final List<Integer> failing;
+        private final List<List<Integer>> batches = new ArrayList<>();
+        private final List<Integer> singles = new ArrayList<>();
+        private final Map<Integer, Object> reported = new TreeMap<>();
+
+        ScriptedBatch(Object partitionOutcome, Integer... failing) {
+            this.partitionOutcome = partitionOutcome;
+            this.failing = Arrays.asList(failing);
+        }
+
+        @Override
+        public boolean execute(List<Integer> partition) throws Throwable {
+            batches.add(partition);
+            if (partitionOutcome instanceof Throwable) {
+                throw (Throwable) partitionOutcome;
+            }
+            return (Boolean) partitionOutcome;
+        }
+
+        @Override
+        public String execute(int index) {
+            singles.add(index);
+            if (failing.contains(index)) {
+                throw new IllegalStateException("Modification " + index + " failed");
+            }
+            return "single" + index;
+        }
+
+        @Override
+        public String success(int index) {
+            return "batched" + index;
+        }
+
+        @Override
+        public void setResult(int index, String result) {
+            assertTrue("Modification " + index + " reported twice", null == reported.put(index, result));
+        }
+
+        @Override
+        public void setError(int index, Throwable error) {
+            assertTrue("Modification " + index + " reported twice", null == reported.put(index, error));
+        }
+
+    }
+
+    @SafeVarargs
+    private static List<List<Integer>> partitions(List<Integer>... partitions) {
+        return Arrays.asList(partitions);
+    }
+
+    @Test
+    public void testAppliedBatchReportsEveryModification() throws Exception {
+        ScriptedBatch batch = new ScriptedBatch(true);
+
+        TiesBatchExecutor.execute("b", partitions(Arrays.asList(0, 2), Arrays.asList(1, 3)), batch);
+
+        assertEquals(partitions(Arrays.asList(0, 2), Arrays.asList(1, 3)), batch.batches);
+        assertEquals(Collections.emptyList(), batch.singles);
+        assertEquals("batched0", batch.reported.get(0));
+        assertEquals("batched3", batch.reported.get(3));
+        assertEquals(4, batch.reported.size());
+    }
+
+    @Test
+    public void testUnappliedBatchFallsBackToSingleModifications() throws Exception {
+        ScriptedBatch batch = new ScriptedBatch(false, 1);
+
+        TiesBatchExecutor.execute("b", partitions(Arrays.asList(0, 1, 2)), batch);
+
+        assertEquals(Arrays.asList(0, 1, 2), batch.singles);
+        assertEquals("single0", batch.reported.get(0));
+        assertTrue(batch.reported.get(1) instanceof IllegalStateException);
+        assertEquals("single2", batch.reported.get(2));
+    }
+
+    @Test
+    public void testRejectedBatchFallsBackToSingleModifications() throws Exception {
+        ScriptedBatch batch = new ScriptedBatch(new InvalidRequestException("Batch too large"));
+
+        TiesBatchExecutor.execute("b", partitions(Arrays.asList(0, 1)), batch);
+
+        assertEquals(Arrays.asList(0, 1), batch.singles);
+        assertEquals("single0", batch.reported.get(0));
+        assertEquals("single1", batch.reported.get(1));
+    }
+
+    @Test
+    public void testRejectionWrappedByTheStatementCacheFallsBack() throws Exception {
+        ScriptedBatch batch = new ScriptedBatch(new RuntimeException("Error validating", new InvalidRequestException("Invalid")));
+
+        TiesBatchExecutor.execute("b", partitions(Arrays.asList(0, 1)), batch);
+
+        assertEquals(Arrays.asList(0, 1), batch.singles);
+    }
+
+    @Test
+    public void testFailedBatchIsNotRetried() throws Exception {
+        WriteTimeoutException timeout = new WriteTimeoutException(WriteType.CAS, ConsistencyLevel.QUORUM, 1, 2);
+        ScriptedBatch batch = new ScriptedBatch(timeout);
+
+        TiesBatchExecutor.execute("b", partitions(Arrays.asList(0, 1), Arrays.asList(2)), batch);
+
+        // Only the partition of a single modification is written one by one
+        assertEquals(Arrays.asList(2), batch.singles);
+        assertSame(timeout, batch.reported.get(0));
+        assertSame(timeout, batch.reported.get(1));
+        assertEquals("single2", batch.reported.get(2));
+    }
+
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import network.tiesdb.api.TiesVersion;
+import network.tiesdb.service.scope.api.TiesServiceScopeBillingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeHealingAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeResultAction;
+import network.tiesdb.service.scope.api.TiesServiceScopeSchemaAction;
+
+public class TiesServiceScopeAsyncImplTest {
+
+    /**
+     * Scope whose selects block until released.
+     */
+    private static class BlockingScope implements TiesServiceScopeExtended {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+        }
+
+        @Override
+        public TiesVersion getServiceVersion() {
+            return null;
+        }
+
+        @Override
+        public void insert(TiesServiceScopeModificationAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void update(TiesServiceScopeModificationAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void delete(TiesServiceScopeModificationAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void select(TiesServiceScopeRecollectionAction action) throws TiesServiceScopeException {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new TiesServiceScopeException("Select was interrupted", e);
+            }
+        }
+
+        @Override
+        public void heal(TiesServiceScopeHealingAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void batch(TiesServiceScopeBatchModificationAction action) throws TiesServiceScopeException {
+            throw new TiesServiceScopeException("Batch failed");
+        }
+
+        @Override
+        public void schema(TiesServiceScopeSchemaAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void result(TiesServiceScopeResultAction action) throws TiesServiceScopeException {
+        }
+
+        @Override
+        public void billing(TiesServiceScopeBillingAction action) throws TiesServiceScopeException {
+        }
+
+    }
+
+    private BlockingScope scope;
+    private ThreadPoolExecutor executor;
+    private TiesServiceScopeAsyncImpl async;
+
+    @Before
+    public void setUp() {
+        scope = new BlockingScope();
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        async = new TiesServiceScopeAsyncImpl(scope, executor);
+    }
+
+    @After
+    public void tearDown() {
+        scope.release.countDown();
+        executor.shutdownNow();
+    }
+
+    private static void assertFailsWithScopeException(CompletableFuture<Void> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("Action should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TiesServiceScopeException);
+        } catch (TimeoutException e) {
+            fail("Action should have completed");
+        }
+    }
+
+    @Test
+    public void testActionFailureCompletesFuture() throws Exception {
+        assertFailsWithScopeException(async.batch(null));
+    }
+
+    @Test
+    public void testSaturatedExecutorRejectsAction() throws Exception {
+        CompletableFuture<Void> running = async.select(null);
+        CompletableFuture<Void> queued = async.select(null);
+        CompletableFuture<Void> rejected = async.select(null);
+        assertFailsWithScopeException(rejected);
+        assertFalse(running.isDone());
+        assertFalse(queued.isDone());
+        scope.release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testCloseWaitsForActionsInFlight() throws Exception {
+        CompletableFuture<Void> running = async.select(null);
+        CompletableFuture<Void> queued = async.select(null);
+        Thread closer = new Thread(() -> {
+            try {
+                async.close();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        closer.start();
+        closer.join(200);
+        assertTrue(closer.isAlive());
+        assertFalse(scope.closed);
+        assertFailsWithScopeException(async.insert(null));
+        scope.release.countDown();
+        closer.join(5000);
+        assertFalse(closer.isAlive());
+        assertTrue(running.isDone());
+        assertTrue(queued.isDone());
+        assertTrue(scope.closed);
+    }
+
+    @Test
+    public void testTasksDroppedByShutdownDoNotBlockClose() throws Exception {
+        CompletableFuture<Void> running = async.select(null);
+        CompletableFuture<Void> queued = async.select(null);
+        for (Runnable task : executor.shutdownNow()) {
+            ((Future<?>) task).cancel(false);
+        }
+        assertFailsWithScopeException(queued);
+        assertFailsWithScopeException(running);
+        async.close();
+        assertTrue(scope.closed);
+    }
+
+}
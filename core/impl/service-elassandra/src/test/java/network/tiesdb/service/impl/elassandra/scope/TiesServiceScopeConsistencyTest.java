@@ -0,0 +1,160 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.junit.Test;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceConsistencyConfig;
+import network.tiesdb.service.scope.api.TiesServiceScopeException;
+import network.tiesdb.service.scope.api.TiesServiceScopeModificationAction.ActionConsistency;
+
+public class TiesServiceScopeConsistencyTest {
+
+    private static ActionConsistency count(int value) {
+        return new ActionConsistency.CountConsistency() {
+
+            @Override
+            public int getValue() {
+                return value;
+            }
+
+            @Override
+            public <T> T accept(Visitor<T> v) throws TiesServiceScopeException {
+                return v.on(this);
+            }
+
+        };
+    }
+
+    private static ActionConsistency percent(int value) {
+        return new ActionConsistency.PercentConsistency() {
+
+            @Override
+            public int getValue() {
+                return value;
+            }
+
+            @Override
+            public <T> T accept(Visitor<T> v) throws TiesServiceScopeException {
+                return v.on(this);
+            }
+
+        };
+    }
+
+    private static ActionConsistency quorum() {
+        return new ActionConsistency.QuorumConsistency() {
+
+            @Override
+            public <T> T accept(Visitor<T> v) throws TiesServiceScopeException {
+                return v.on(this);
+            }
+
+        };
+    }
+
+    @Test
+    public void testDefaults() throws TiesServiceScopeException {
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(null);
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getReadLevel("ts", null));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getWriteLevel("ts", null));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getWriteLevel("ts"));
+        assertEquals(ConsistencyLevel.SERIAL, consistency.getSerialLevel("ts"));
+    }
+
+    @Test
+    public void testCountConsistency() throws TiesServiceScopeException {
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(null);
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("ts", count(0)));
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("ts", count(1)));
+        assertEquals(ConsistencyLevel.TWO, consistency.getReadLevel("ts", count(2)));
+        assertEquals(ConsistencyLevel.THREE, consistency.getWriteLevel("ts", count(3)));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", count(4)));
+    }
+
+    @Test
+    public void testPercentConsistency() throws TiesServiceScopeException {
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(null);
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("ts", percent(0)));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getReadLevel("ts", percent(1)));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getReadLevel("ts", percent(50)));
+        assertEquals(ConsistencyLevel.ALL, consistency.getReadLevel("ts", percent(51)));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", percent(99)));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", percent(100)));
+    }
+
+    @Test
+    public void testQuorumConsistency() throws TiesServiceScopeException {
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(null);
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getReadLevel("ts", quorum()));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getWriteLevel("ts", quorum()));
+    }
+
+    @Test
+    public void testLocalConsistency() throws TiesServiceScopeException {
+        TiesServiceConsistencyConfig config = new TiesServiceConsistencyConfig();
+        config.setLocal(true);
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(config);
+        assertEquals(ConsistencyLevel.LOCAL_QUORUM, consistency.getReadLevel("ts", null));
+        assertEquals(ConsistencyLevel.LOCAL_QUORUM, consistency.getWriteLevel("ts"));
+        assertEquals(ConsistencyLevel.LOCAL_SERIAL, consistency.getSerialLevel("ts"));
+        assertEquals(ConsistencyLevel.LOCAL_ONE, consistency.getReadLevel("ts", count(1)));
+        assertEquals(ConsistencyLevel.TWO, consistency.getReadLevel("ts", count(2)));
+        assertEquals(ConsistencyLevel.LOCAL_QUORUM, consistency.getWriteLevel("ts", quorum()));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", percent(100)));
+    }
+
+    @Test
+    public void testActionNotHonored() throws TiesServiceScopeException {
+        TiesServiceConsistencyConfig config = new TiesServiceConsistencyConfig();
+        config.setHonorAction(false);
+        config.setRead(ConsistencyLevel.ONE);
+        config.setWrite(ConsistencyLevel.ALL);
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(config);
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("ts", count(3)));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", quorum()));
+    }
+
+    @Test
+    public void testTablespaceOverridesDefaults() throws TiesServiceScopeException {
+        TiesServiceConsistencyConfig tablespace = new TiesServiceConsistencyConfig();
+        tablespace.setWrite(ConsistencyLevel.ALL);
+        TiesServiceConsistencyConfig config = new TiesServiceConsistencyConfig();
+        config.setRead(ConsistencyLevel.ONE);
+        config.setTablespaces(Collections.singletonMap("ts", tablespace));
+        TiesServiceScopeConsistency consistency = new TiesServiceScopeConsistency(config);
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("ts", null));
+        assertEquals(ConsistencyLevel.ALL, consistency.getWriteLevel("ts", null));
+        assertEquals(ConsistencyLevel.ONE, consistency.getReadLevel("other", null));
+        assertEquals(ConsistencyLevel.QUORUM, consistency.getWriteLevel("other", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonSerialLevelRejected() {
+        TiesServiceConsistencyConfig config = new TiesServiceConsistencyConfig();
+        config.setSerial(ConsistencyLevel.QUORUM);
+        new TiesServiceScopeConsistency(config);
+    }
+
+}
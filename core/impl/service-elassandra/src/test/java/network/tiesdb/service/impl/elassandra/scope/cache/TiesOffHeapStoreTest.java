@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TiesOffHeapStoreTest {
+
+    private static byte[] record(int length, int value) {
+        byte[] record = new byte[length];
+        for (int i = 0; i < length; i++) {
+            record[i] = (byte) (value + i);
+        }
+        return record;
+    }
+
+    @Test
+    public void testPutGet() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(64);
+        assertTrue(store.put("a", record(8, 1)));
+        assertTrue(store.put("b", record(16, 2)));
+        assertArrayEquals(record(8, 1), store.get("a"));
+        assertArrayEquals(record(16, 2), store.get("b"));
+        assertNull(store.get("c"));
+        assertEquals(2, store.size());
+        assertEquals(64, store.getAllocated());
+        assertEquals(64, store.getCapacity());
+    }
+
+    @Test
+    public void testOversizedRecordRejected() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(16);
+        assertFalse(store.put("a", record(17, 1)));
+        assertNull(store.get("a"));
+        assertEquals(0, store.getAllocated());
+    }
+
+    @Test
+    public void testRecycleEvictsOldestSlab() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(16);
+        assertTrue(store.put("a", record(8, 1)));
+        assertTrue(store.put("b", record(8, 2)));
+        assertTrue(store.put("c", record(8, 3)));
+        assertNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertArrayEquals(record(8, 3), store.get("c"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testRecycleKeepsRecordRewrittenInNewEpoch() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(16);
+        assertTrue(store.put("a", record(8, 1)));
+        assertTrue(store.put("b", record(8, 2)));
+        assertTrue(store.put("b", record(8, 3)));
+        assertNull(store.get("a"));
+        assertArrayEquals(record(8, 3), store.get("b"));
+        assertTrue(store.put("c", record(8, 4)));
+        assertArrayEquals(record(8, 3), store.get("b"));
+        assertTrue(store.put("d", record(8, 5)));
+        assertNull(store.get("b"));
+        assertNull(store.get("c"));
+        assertArrayEquals(record(8, 5), store.get("d"));
+    }
+
+    @Test
+    public void testStaleHandleIsNotRead() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(16);
+        assertTrue(store.put("a", record(16, 1)));
+        store.clear();
+        assertTrue(store.put("b", record(16, 2)));
+        assertNull(store.get("a"));
+        assertArrayEquals(record(16, 2), store.get("b"));
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        TiesOffHeapStore<String> store = new TiesOffHeapStore<>(64);
+        assertTrue(store.put("a", record(8, 1)));
+        assertTrue(store.put("b", record(8, 2)));
+        store.remove("a");
+        assertNull(store.get("a"));
+        assertArrayEquals(record(8, 2), store.get("b"));
+        store.clear();
+        assertNull(store.get("b"));
+        assertEquals(0, store.size());
+        assertEquals(64, store.getAllocated());
+        assertTrue(store.put("c", record(8, 3)));
+        assertArrayEquals(record(8, 3), store.get("c"));
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.junit.Test;
+
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+
+public class TiesQueryFingerprintTest {
+
+    private static final List<Object> NO_VALUES = Collections.emptyList();
+    private static final List<FieldDescription> NO_COMPUTES = Collections.emptyList();
+
+    private static TiesQueryFingerprint of(Object... values) {
+        return TiesQueryFingerprint.of("ts", "tbl", "select", Arrays.asList(values), ConsistencyLevel.QUORUM, NO_COMPUTES);
+    }
+
+    @Test
+    public void testSameQueryHasSameFingerprint() {
+        TiesQueryFingerprint fingerprint = of(1, "a", null);
+        assertEquals(fingerprint, of(1, "a", null));
+        assertEquals(fingerprint.hashCode(), of(1, "a", null).hashCode());
+        assertTrue(fingerprint.toString().matches("[0-9a-f]{32}"));
+    }
+
+    @Test
+    public void testNamesAreLengthPrefixed() {
+        assertNotEquals(TiesQueryFingerprint.of("ab", "c", "select", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES),
+                TiesQueryFingerprint.of("a", "bc", "select", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES));
+        assertNotEquals(TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES),
+                TiesQueryFingerprint.of("ts", "tb", "lselect", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES));
+    }
+
+    @Test
+    public void testValuesAreLengthPrefixed() {
+        assertNotEquals(of("ab"), of("a", "b"));
+        assertNotEquals(of("a", ""), of("a"));
+        assertNotEquals(of(), of(""));
+    }
+
+    @Test
+    public void testValuesAreTaggedWithClass() {
+        assertNotEquals(of(1), of(1L));
+        assertNotEquals(of(1), of("1"));
+        assertNotEquals(of((Object) null), of(""));
+        assertNotEquals(of(new byte[] { 1 }), of(ByteBuffer.wrap(new byte[] { 1 })));
+    }
+
+    @Test
+    public void testBinaryValuesAreComparedByContent() {
+        assertEquals(of(new byte[] { 1, 2 }), of(new byte[] { 1, 2 }));
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 0, 1, 2 });
+        buffer.position(1);
+        assertEquals(of(ByteBuffer.wrap(new byte[] { 1, 2 })), of(buffer));
+        assertEquals(1, buffer.position());
+        assertNotEquals(of(new byte[] { 1, 2 }), of(new byte[] { 2, 1 }));
+    }
+
+    @Test
+    public void testDatesAreComparedByTime() {
+        assertEquals(of(new Date(1000)), of(new Date(1000)));
+        assertNotEquals(of(new Date(1000)), of(new Date(1001)));
+    }
+
+    @Test
+    public void testReadConsistencyIsPartOfFingerprint() {
+        assertNotEquals(TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES),
+                TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.QUORUM, NO_COMPUTES));
+    }
+
+    @Test
+    public void testComputesArePartOfFingerprint() {
+        List<FieldDescription> computes = Collections.singletonList(new FieldDescription("sum", "long"));
+        TiesQueryFingerprint fingerprint = TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                computes);
+        assertEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", "long"))));
+        assertNotEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE, NO_COMPUTES));
+        assertNotEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", "integer"))));
+        assertNotEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("total", "long"))));
+        assertNotEquals(
+                TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                        Arrays.asList(new FieldDescription("a", "b"), new FieldDescription("c", "d"))),
+                TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                        Arrays.asList(new FieldDescription("c", "d"), new FieldDescription("a", "b"))));
+    }
+
+    @Test
+    public void testUntypedComputesArePartOfFingerprint() {
+        TiesQueryFingerprint fingerprint = TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", null)));
+        assertEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", null))));
+        assertNotEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", "long"))));
+        assertNotEquals(fingerprint, TiesQueryFingerprint.of("ts", "tbl", "select", NO_VALUES, ConsistencyLevel.ONE,
+                Collections.singletonList(new FieldDescription("sum", ""))));
+    }
+
+}
@@ -0,0 +1,601 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.junit.After;
+import org.junit.Test;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceCacheConfig;
+import network.tiesdb.service.scope.api.TiesEntryHeader;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result;
+
+public class TiesResultCacheTest {
+
+    private TiesResultCache cache;
+
+    private static TiesServiceCacheConfig config(long sizeInMb) {
+        TiesServiceCacheConfig config = new TiesServiceCacheConfig();
+        config.setSizeInMb(sizeInMb);
+        // Probes of other nodes need a running Cassandra, so keep them off
+        config.setClusterInvalidation(false);
+        return config;
+    }
+
+    private TiesResultCache start(TiesServiceCacheConfig config) {
+        cache = new TiesResultCache(config);
+        return cache;
+    }
+
+    @After
+    public void close() {
+        if (null != cache) {
+            cache.close();
+        }
+    }
+
+    private static TiesResultCache.Key key(TiesResultCache cache, String tablespaceName, String query,
+            Collection<List<ByteBuffer>> partitions) {
+        return cache.newKey(tablespaceName, "t", query, Collections.emptyList(), ConsistencyLevel.QUORUM, Collections.emptyList(),
+                partitions);
+    }
+
+    private static List<ByteBuffer> partition(int id) {
+        return Collections.singletonList(ByteBuffer.wrap(new byte[] { (byte) id }));
+    }
+
+    private static List<Result.Entry> entries(int bytes) {
+        byte[] value = new byte[bytes];
+        Result.Field field = new Result.Field.RawField() {
+
+            @Override
+            public String getName() {
+                return "f";
+            }
+
+            @Override
+            public String getType() {
+                return "binary";
+            }
+
+            @Override
+            public byte[] getRawValue() {
+                return value;
+            }
+
+            @Override
+            public byte[] getHash() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+        return Collections.singletonList(new Result.Entry() {
+
+            @Override
+            public TiesEntryHeader getEntryHeader() {
+                return null;
+            }
+
+            @Override
+            public List<Result.Field> getEntryFields() {
+                return Collections.singletonList(field);
+            }
+
+            @Override
+            public List<Result.Field> getComputedFields() {
+                return Collections.emptyList();
+            }
+
+        });
+    }
+
+    /**
+     * Removals are notified asynchronously, so their accounting is awaited.
+     */
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("Condition was not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private static TiesResultCacheTableStats stats(TiesResultCache cache, String tablespaceName) {
+        return cache.getTableStats().stream().filter(s -> s.getTablespaceName().equals(tablespaceName)).findAny().get();
+    }
+
+    @Test
+    public void testCachedResultsAreReturned() {
+        TiesResultCache cache = start(config(1));
+        List<Result.Entry> entries = entries(16);
+
+        cache.put(key(cache, "ts", "q", null), entries);
+
+        assertSame(entries, cache.get(key(cache, "ts", "q", null)));
+        assertNull(cache.get(key(cache, "ts", "other", null)));
+    }
+
+    @Test
+    public void testResultsAreEvictedByWeight() throws InterruptedException {
+        TiesResultCache cache = start(config(1));
+        for (int i = 0; i < 64; i++) {
+            cache.put(key(cache, "ts", "q" + i, null), entries(64 << 10));
+        }
+
+        TiesResultCacheTableStats stats = stats(cache, "ts");
+        assertTrue(cache.size() < 64);
+        await(() -> stats.getEstimatedBytes() <= 1 << 20);
+        assertTrue(stats.getEvictionCount() > 0);
+    }
+
+    @Test
+    public void testDisabledCacheKeepsNothing() {
+        TiesServiceCacheConfig config = config(1);
+        config.setEnabled(false);
+        TiesResultCache cache = start(config);
+
+        cache.put(key(cache, "ts", "q", null), entries(16));
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get(key(cache, "ts", "q", null)));
+    }
+
+    @Test
+    public void testPartitionInvalidationKeepsResultsOfOtherPartitions() {
+        TiesResultCache cache = start(config(1));
+        List<Result.Entry> first = entries(16);
+        List<Result.Entry> second = entries(16);
+        cache.put(key(cache, "ts", "q1", Collections.singleton(partition(1))), first);
+        cache.put(key(cache, "ts", "q2", Collections.singleton(partition(2))), second);
+        cache.put(key(cache, "ts", "scan", null), entries(16));
+
+        cache.invalidate("ts", "t", partition(1));
+
+        assertNull(cache.get(key(cache, "ts", "q1", Collections.singleton(partition(1)))));
+        assertSame(second, cache.get(key(cache, "ts", "q2", Collections.singleton(partition(2)))));
+        // Results not restricted to partitions could read the modified one
+        assertNull(cache.get(key(cache, "ts", "scan", null)));
+    }
+
+    @Test
+    public void testTableInvalidationDropsResultsOfAllPartitions() {
+        TiesResultCache cache = start(config(1));
+        cache.put(key(cache, "ts", "q", Collections.singleton(partition(1))), entries(16));
+        List<Result.Entry> other = entries(16);
+        cache.put(key(cache, "other", "q", null), other);
+
+        cache.invalidate("ts", "t");
+
+        assertNull(cache.get(key(cache, "ts", "q", Collections.singleton(partition(1)))));
+        assertSame(other, cache.get(key(cache, "other", "q", null)));
+    }
+
+    @Test
+    public void testForgottenTableKeepsNoResultsNorCounters() {
+        TiesResultCache cache = start(config(1));
+        List<TiesResultCacheTableStats> removed = new ArrayList<>();
+        cache.setTableListener(new TiesResultCache.TableListener() {
+
+            @Override
+            public void added(TiesResultCacheTableStats stats) {
+            }
+
+            @Override
+            public void removed(TiesResultCacheTableStats stats) {
+                removed.add(stats);
+            }
+
+        });
+        cache.put(key(cache, "ts", "q", null), entries(16));
+        List<Result.Entry> other = entries(16);
+        cache.put(key(cache, "other", "q", null), other);
+        TiesResultCacheTableStats stats = stats(cache, "ts");
+
+        // The table is dropped and created again under the same name
+        cache.forget("ts", "t");
+
+        assertEquals(Collections.singletonList(stats), removed);
+        assertFalse(cache.getTableStats().contains(stats));
+        assertNull(cache.get(key(cache, "ts", "q", null)));
+        assertSame(other, cache.get(key(cache, "other", "q", null)));
+    }
+
+    @Test
+    public void testResultsLoadedAcrossInvalidationAreNotReturned() {
+        TiesResultCache cache = start(config(1));
+        TiesResultCache.Key partitionKey = key(cache, "ts", "q", Collections.singleton(partition(1)));
+        TiesResultCache.Key tableKey = key(cache, "ts", "scan", null);
+
+        // Modifications land while the results are being read
+        cache.invalidate("ts", "t", partition(1));
+        cache.put(partitionKey, entries(16));
+        cache.put(tableKey, entries(16));
+
+        assertNull(cache.get(partitionKey));
+        assertNull(cache.get(key(cache, "ts", "q", Collections.singleton(partition(1)))));
+        assertNull(cache.get(tableKey));
+
+        TiesResultCache.Key generationKey = key(cache, "ts", "q2", Collections.singleton(partition(2)));
+        cache.invalidate("ts", "t");
+        cache.put(generationKey, entries(16));
+
+        assertNull(cache.get(key(cache, "ts", "q2", Collections.singleton(partition(2)))));
+    }
+
+    @Test
+    public void testConcurrentLoadsAreCoalesced() throws Exception {
+        TiesResultCache cache = start(config(1));
+        List<Result.Entry> entries = entries(16);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<List<Result.Entry>> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return entries;
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Result.Entry>> first = executor.submit(() -> cache.get(key(cache, "ts", "q", null), loader));
+            loading.await();
+            Future<List<Result.Entry>> second = executor.submit(() -> cache.get(key(cache, "ts", "q", null), loader));
+            await(() -> 1 == cache.getCoalescedCount());
+            release.countDown();
+
+            assertSame(entries, first.get(5, TimeUnit.SECONDS));
+            assertSame(entries, second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testLoadOverlappedByModificationIsNotShared() throws Exception {
+        TiesResultCache cache = start(config(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Result.Entry> stale = entries(16);
+        List<Result.Entry> fresh = entries(16);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<Result.Entry>> first = executor.submit(() -> cache.get(key(cache, "ts", "scan", null), () -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return stale;
+            }));
+            loading.await();
+            cache.invalidate("ts", "t", partition(1));
+
+            // The running load could have missed the modification
+            assertSame(fresh, cache.get(key(cache, "ts", "scan", null), () -> fresh));
+            release.countDown();
+            assertSame(stale, first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, cache.getCoalescedCount());
+        assertNotSame(stale, cache.get(key(cache, "ts", "scan", null)));
+    }
+
+    @Test
+    public void testFailedLoadIsPassedToWaitingCallers() throws Exception {
+        TiesResultCache cache = start(config(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<List<Result.Entry>> select = () -> cache.get(key(cache, "ts", "q", null), () -> {
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                throw new IllegalStateException("Read failed");
+            });
+            Future<List<Result.Entry>> first = executor.submit(select);
+            loading.await();
+            Future<List<Result.Entry>> second = executor.submit(select);
+            await(() -> 1 == cache.getCoalescedCount());
+            release.countDown();
+
+            for (Future<List<Result.Entry>> result : Arrays.asList(first, second)) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                    fail("Load failure was not passed");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof IllegalStateException);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertNull(cache.get(key(cache, "ts", "q", null)));
+    }
+
+    @Test
+    public void testQuotaKeepsResultsFromOtherTablespaces() throws InterruptedException {
+        TiesServiceCacheConfig config = config(2);
+        config.setTablespaceQuotasInMb(Collections.singletonMap("quoted", 1L));
+        TiesResultCache cache = start(config);
+        List<Result.Entry> quoted = entries(16);
+        cache.put(key(cache, "quoted", "q", null), quoted);
+
+        for (int i = 0; i < 64; i++) {
+            cache.put(key(cache, "ts", "q" + i, null), entries(64 << 10));
+        }
+        TiesResultCacheTableStats stats = stats(cache, "ts");
+        cache.size();
+        await(() -> stats.getEstimatedBytes() <= 1 << 20);
+
+        assertSame(quoted, cache.get(key(cache, "quoted", "q", null)));
+        assertEquals(0, stats(cache, "quoted").getEvictionCount());
+    }
+
+    @Test
+    public void testTablespaceWithQuotaIsBoundByIt() throws InterruptedException {
+        TiesServiceCacheConfig config = config(3);
+        config.setTablespaceQuotasInMb(Collections.singletonMap("quoted", 1L));
+        TiesResultCache cache = start(config);
+
+        for (int i = 0; i < 64; i++) {
+            cache.put(key(cache, "quoted", "q" + i, null), entries(64 << 10));
+        }
+        TiesResultCacheTableStats stats = stats(cache, "quoted");
+        cache.size();
+
+        // Results evicted from the quota may stay in the shared pool
+        await(() -> stats.getEstimatedBytes() <= 3 << 20);
+        assertTrue(stats.getEvictionCount() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQuotasExceedingCacheSizeAreRejected() {
+        TiesServiceCacheConfig config = config(1);
+        Map<String, Long> quotas = new HashMap<>();
+        quotas.put("a", 1L);
+        quotas.put("b", 1L);
+        config.setTablespaceQuotasInMb(quotas);
+        start(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyQuotaIsRejected() {
+        TiesServiceCacheConfig config = config(1);
+        config.setTablespaceQuotasInMb(Collections.singletonMap("a", 0L));
+        start(config);
+    }
+
+    private static TiesResultCacheRow row(long version) {
+        TiesEntryHeader header = new TiesEntryHeader() {
+
+            @Override
+            public byte[] getSigner() {
+                return new byte[] { 1 };
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return new byte[] { 2 };
+            }
+
+            @Override
+            public byte[] getHash() {
+                return new byte[] { 3 };
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return BigInteger.valueOf(version);
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return new Date(0);
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return null;
+            }
+
+            @Override
+            public short getEntryNetwork() {
+                return 60;
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return new byte[0];
+            }
+
+        };
+        return new TiesResultCacheRow(header,
+                Collections.singletonMap("f", new TiesResultCacheRow.Field(new byte[] { 4 }, new byte[] { (byte) version })));
+    }
+
+    private TiesResultCache startWriteThrough() {
+        TiesServiceCacheConfig config = config(1);
+        config.setWriteThroughSizeInMb(1L);
+        return start(config);
+    }
+
+    /**
+     * Modifies the partition the way the scope does: the stamp is taken
+     * before the write and the row is kept after its invalidation.
+     */
+    private static void write(TiesResultCache cache, List<ByteBuffer> partition, TiesResultCacheRow row) {
+        TiesResultCache.Stamp stamp = cache.newStamp("ts", "t", partition);
+        cache.invalidate("ts", "t", partition);
+        cache.putRow(stamp, row);
+    }
+
+    @Test
+    public void testWrittenRowIsReadBack() {
+        TiesResultCache cache = startWriteThrough();
+        TiesResultCacheRow row = row(1);
+
+        write(cache, partition(1), row);
+
+        assertSame(row, cache.getRow("ts", "t", partition(1)));
+        assertNull(cache.getRow("ts", "t", partition(2)));
+        assertEquals(BigInteger.ONE, cache.getRow("ts", "t", partition(1)).getHeader().getEntryVersion());
+    }
+
+    @Test
+    public void testRowOfOverlappedWriteIsDropped() {
+        TiesResultCache cache = startWriteThrough();
+        TiesResultCache.Stamp first = cache.newStamp("ts", "t", partition(1));
+        cache.invalidate("ts", "t", partition(1));
+        TiesResultCache.Stamp second = cache.newStamp("ts", "t", partition(1));
+        cache.invalidate("ts", "t", partition(1));
+
+        // The first write finishes last, after the second one overlapped it
+        cache.putRow(second, row(2));
+        cache.putRow(first, row(1));
+
+        assertNull(cache.getRow("ts", "t", partition(1)));
+    }
+
+    @Test
+    public void testLaterModificationsDropWrittenRow() {
+        TiesResultCache cache = startWriteThrough();
+
+        write(cache, partition(1), row(1));
+        cache.invalidate("ts", "t", partition(1));
+        assertNull(cache.getRow("ts", "t", partition(1)));
+
+        write(cache, partition(2), row(2));
+        cache.invalidate("ts", "t");
+        assertNull(cache.getRow("ts", "t", partition(2)));
+    }
+
+    @Test
+    public void testWriteThroughIsDisabledByDefault() {
+        TiesResultCache cache = start(config(1));
+
+        assertFalse(cache.isWriteThrough());
+        assertNull(cache.newStamp("ts", "t", partition(1)));
+        assertNull(cache.getRow("ts", "t", partition(1)));
+    }
+
+    private TiesResultCache startNegative(long negativeExpireAfterWriteInMillis) {
+        TiesServiceCacheConfig config = config(1);
+        config.setNegativeExpireAfterWriteInMillis(negativeExpireAfterWriteInMillis);
+        return start(config);
+    }
+
+    @Test
+    public void testEmptyResultsExpireAfterNegativeTtl() throws InterruptedException {
+        TiesResultCache cache = startNegative(200);
+        cache.put(key(cache, "ts", "empty", null), Collections.emptyList());
+        List<Result.Entry> entries = entries(16);
+        cache.put(key(cache, "ts", "q", null), entries);
+
+        assertEquals(Collections.emptyList(), cache.get(key(cache, "ts", "empty", null)));
+        assertEquals(1, cache.negativeSize());
+
+        Thread.sleep(300);
+
+        assertNull(cache.get(key(cache, "ts", "empty", null)));
+        // Positive results live for the regular expiration
+        assertSame(entries, cache.get(key(cache, "ts", "q", null)));
+    }
+
+    @Test
+    public void testEmptyResultsAreInvalidatedByModifications() {
+        TiesResultCache cache = startNegative(60000);
+        cache.put(key(cache, "ts", "empty", Collections.singleton(partition(1))), Collections.emptyList());
+
+        cache.invalidate("ts", "t", partition(1));
+
+        assertNull(cache.get(key(cache, "ts", "empty", Collections.singleton(partition(1)))));
+    }
+
+    @Test
+    public void testAbsentTableExpiresOrIsForgottenOnModification() throws InterruptedException {
+        TiesResultCache cache = startNegative(200);
+
+        cache.putAbsent("ts", "t");
+        assertTrue(cache.isAbsent("ts", "t"));
+        assertFalse(cache.isAbsent("ts", "other"));
+        Thread.sleep(300);
+        assertFalse(cache.isAbsent("ts", "t"));
+
+        cache.putAbsent("ts", "t");
+        cache.invalidate("ts", "t", partition(1));
+        assertFalse(cache.isAbsent("ts", "t"));
+
+        cache.putAbsent("ts", "t");
+        cache.clearAbsent();
+        assertFalse(cache.isAbsent("ts", "t"));
+    }
+
+    @Test
+    public void testNegativeCachingCanBeDisabled() {
+        TiesResultCache cache = startNegative(0);
+
+        cache.putAbsent("ts", "t");
+        assertFalse(cache.isAbsent("ts", "t"));
+        assertEquals(0, cache.negativeSize());
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cassandra.db.ConsistencyLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import network.tiesdb.service.impl.elassandra.TiesServiceCacheConfig;
+import network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.FieldDescription;
+
+public class TiesResultCacheWarmupTest {
+
+    private static final FieldDescription ID = new FieldDescription("id", "integer");
+    private static final FieldDescription NAME = new FieldDescription("name", "string");
+    private static final FieldDescription DATA = new FieldDescription("data", "binary");
+
+    private Path dir;
+    private TiesServiceCacheConfig config;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("warmup");
+        config = new TiesServiceCacheConfig();
+        config.setClusterInvalidation(false);
+        config.setWarmupSaveIntervalInSeconds(0L);
+        config.setWarmupQueriesPerSecond(1000);
+        config.setWarmupFile(dir.resolve("warmup.db").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dir.resolve("warmup.db"));
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    public void testQueryWithSelectorsIsRestored() throws InterruptedException {
+        Map<FieldDescription, String> selected = new LinkedHashMap<>();
+        selected.put(NAME, "FLDNAME");
+        TiesResultCacheWarmup.Query query = new TiesResultCacheWarmup.Query("ts", "tbl",
+                "select \"FLDNAME\" from \"TIE\".\"TBL\" where \"FLDID\" = ?", Arrays.asList(7), ConsistencyLevel.LOCAL_QUORUM,
+                false, true, selected, Collections.emptyList(), Collections.emptyMap(), null);
+
+        TiesResultCacheWarmup saving = new TiesResultCacheWarmup(config);
+        saving.start(q -> {
+        });
+        TiesResultCache cache = new TiesResultCache(config);
+        saving.record(cache.newKey("ts", "tbl", query.getQuery(), query.getValues(), query.getReadCl(), query.getComputes(), null),
+                () -> query);
+        saving.stop();
+
+        List<TiesResultCacheWarmup.Query> replayed = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        TiesResultCacheWarmup restoring = new TiesResultCacheWarmup(config);
+        restoring.start(q -> {
+            replayed.add(q);
+            latch.countDown();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        restoring.stop();
+
+        assertEquals(1, replayed.size());
+        TiesResultCacheWarmup.Query restored = replayed.get(0);
+        assertEquals(query.getQuery(), restored.getQuery());
+        assertEquals(query.getValues(), restored.getValues());
+        assertEquals(ConsistencyLevel.LOCAL_QUORUM, restored.getReadCl());
+        assertEquals(selected, restored.getFields());
+        assertTrue(restored.isSelectable(Arrays.asList(ID, NAME, DATA), Arrays.asList("FLDID", "FLDNAME", "FLDDATA")));
+    }
+
+    @Test
+    public void testQueryOfChangedFieldsIsNotSelectable() {
+        Map<FieldDescription, String> selected = new LinkedHashMap<>();
+        selected.put(ID, "FLDID");
+        selected.put(NAME, "FLDNAME");
+        TiesResultCacheWarmup.Query query = new TiesResultCacheWarmup.Query("ts", "tbl", "select", Collections.emptyList(),
+                ConsistencyLevel.ONE, false, true, selected, Collections.emptyList(), Collections.emptyMap(), null);
+
+        assertTrue(query.isSelectable(Arrays.asList(ID, NAME), Arrays.asList("FLDID", "FLDNAME")));
+        assertTrue(query.isSelectable(Arrays.asList(DATA, NAME, ID), Arrays.asList("FLDDATA", "FLDNAME", "FLDID")));
+        assertFalse(query.isSelectable(Arrays.asList(ID, DATA), Arrays.asList("FLDID", "FLDDATA")));
+        assertFalse(query.isSelectable(Arrays.asList(ID, new FieldDescription("name", "binary")), Arrays.asList("FLDID", "FLDNAME")));
+        assertFalse(query.isSelectable(Arrays.asList(ID, NAME), Arrays.asList("FLDID")));
+    }
+
+}
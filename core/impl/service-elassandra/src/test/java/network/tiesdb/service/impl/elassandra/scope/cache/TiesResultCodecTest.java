@@ -0,0 +1,278 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import network.tiesdb.service.scope.api.TiesEntryHeader;
+import network.tiesdb.service.scope.api.TiesServiceScopeRecollectionAction.Result;
+
+public class TiesResultCodecTest {
+
+    private static TiesEntryHeader newHeader(BigInteger version, Date timestamp) {
+        return new TiesEntryHeader() {
+
+            @Override
+            public byte[] getSigner() {
+                return new byte[] { 1, 2 };
+            }
+
+            @Override
+            public byte[] getSignature() {
+                return new byte[] { 3 };
+            }
+
+            @Override
+            public byte[] getHash() {
+                return new byte[] { 4, 5, 6 };
+            }
+
+            @Override
+            public BigInteger getEntryVersion() {
+                return version;
+            }
+
+            @Override
+            public Date getEntryTimestamp() {
+                return timestamp;
+            }
+
+            @Override
+            public byte[] getEntryOldHash() {
+                return null;
+            }
+
+            @Override
+            public short getEntryNetwork() {
+                return 60;
+            }
+
+            @Override
+            public byte[] getEntryFldHash() {
+                return new byte[0];
+            }
+
+        };
+    }
+
+    private static Result.Entry newEntry(TiesEntryHeader header, List<Result.Field> entryFields, List<Result.Field> computedFields) {
+        return new Result.Entry() {
+
+            @Override
+            public TiesEntryHeader getEntryHeader() {
+                return header;
+            }
+
+            @Override
+            public List<Result.Field> getEntryFields() {
+                return entryFields;
+            }
+
+            @Override
+            public List<Result.Field> getComputedFields() {
+                return computedFields;
+            }
+
+        };
+    }
+
+    private static Result.Field.RawField newRawField(String name, String type, byte[] rawValue) {
+        return new Result.Field.RawField() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public byte[] getRawValue() {
+                return rawValue;
+            }
+
+            @Override
+            public byte[] getHash() {
+                throw new UnsupportedOperationException();
+            }
+
+        };
+    }
+
+    private static Result.Field.HashField newHashField(String name, String type, byte[] hash) {
+        return new Result.Field.HashField() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public byte[] getHash() {
+                return hash;
+            }
+
+        };
+    }
+
+    private static Result.Field.ValueField newValueField(String name, String type, Object value) {
+        return new Result.Field.ValueField() {
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public Object getFieldValue() {
+                return value;
+            }
+
+        };
+    }
+
+    @Test
+    public void testRecordRoundTrip() {
+        Result.Entry first = newEntry(newHeader(BigInteger.valueOf(3), new Date(12345)),
+                Arrays.asList(newRawField("name", "string", new byte[] { 'a' }), newHashField("blob", "binary", new byte[] { 7, 8 })),
+                Collections.singletonList(newValueField("cnt", "long", 42L)));
+        Result.Entry second = newEntry(newHeader(null, null), Collections.emptyList(), Collections.emptyList());
+
+        byte[] bytes = TiesResultCodec.encode(1000, new int[] { 5, 9 }, new long[] { 1, 2 }, Arrays.asList(first, second));
+        TiesResultCodec.Record record = TiesResultCodec.decode(bytes);
+
+        assertEquals(1000, record.getWritten());
+        assertArrayEquals(new int[] { 5, 9 }, record.getStripes());
+        assertArrayEquals(new long[] { 1, 2 }, record.getStamps());
+        assertEquals(2, record.getEntries().size());
+
+        Result.Entry entry = record.getEntries().get(0);
+        TiesEntryHeader header = entry.getEntryHeader();
+        assertArrayEquals(new byte[] { 1, 2 }, header.getSigner());
+        assertArrayEquals(new byte[] { 3 }, header.getSignature());
+        assertArrayEquals(new byte[] { 4, 5, 6 }, header.getHash());
+        assertNull(header.getEntryOldHash());
+        assertArrayEquals(new byte[0], header.getEntryFldHash());
+        assertEquals(BigInteger.valueOf(3), header.getEntryVersion());
+        assertEquals(new Date(12345), header.getEntryTimestamp());
+        assertEquals(60, header.getEntryNetwork());
+
+        List<Result.Field> entryFields = entry.getEntryFields();
+        assertEquals(2, entryFields.size());
+        assertTrue(entryFields.get(0) instanceof Result.Field.RawField);
+        assertEquals("name", entryFields.get(0).getName());
+        assertEquals("string", entryFields.get(0).getType());
+        assertArrayEquals(new byte[] { 'a' }, ((Result.Field.RawField) entryFields.get(0)).getRawValue());
+        assertTrue(entryFields.get(1) instanceof Result.Field.HashField);
+        assertEquals("blob", entryFields.get(1).getName());
+        assertArrayEquals(new byte[] { 7, 8 }, ((Result.Field.HashField) entryFields.get(1)).getHash());
+
+        List<Result.Field> computedFields = entry.getComputedFields();
+        assertEquals(1, computedFields.size());
+        assertEquals("cnt", computedFields.get(0).getName());
+        assertEquals("long", computedFields.get(0).getType());
+        assertEquals(42L, ((Result.Field.ValueField) computedFields.get(0)).getFieldValue());
+
+        Result.Entry empty = record.getEntries().get(1);
+        assertNull(empty.getEntryHeader().getEntryVersion());
+        assertNull(empty.getEntryHeader().getEntryTimestamp());
+        assertTrue(empty.getEntryFields().isEmpty());
+        assertTrue(empty.getComputedFields().isEmpty());
+    }
+
+    @Test
+    public void testRecordWithoutStripes() {
+        TiesResultCodec.Record record = TiesResultCodec
+                .decode(TiesResultCodec.encode(7, null, new long[] { 3 }, Collections.emptyList()));
+        assertNull(record.getStripes());
+        assertArrayEquals(new long[] { 3 }, record.getStamps());
+        assertTrue(record.getEntries().isEmpty());
+    }
+
+    @Test
+    public void testUnsupportedValueIsNotEncoded() {
+        Result.Entry entry = newEntry(newHeader(BigInteger.ONE, null), Collections.emptyList(),
+                Collections.singletonList(newValueField("obj", "unknown", new Object())));
+        assertNull(TiesResultCodec.encode(0, null, new long[] { 0 }, Collections.singletonList(entry)));
+    }
+
+    @Test
+    public void testValueRoundTrip() throws IOException {
+        List<Object> values = Arrays.asList(null, 1, 2L, 3.5f, 4.25, new BigDecimal("-12.345"), new BigInteger("123456789012345678901"),
+                "str", new Date(99), UUID.randomUUID(), true, false);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Object value : values) {
+            assertTrue(TiesResultCodec.writeValue(out, value));
+        }
+        assertTrue(TiesResultCodec.writeValue(out, new byte[] { 1, 2, 3 }));
+        out.flush();
+        ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+        for (Object value : values) {
+            assertEquals(value, TiesResultCodec.readValue(in));
+        }
+        assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) TiesResultCodec.readValue(in));
+        assertEquals(0, in.remaining());
+    }
+
+    @Test
+    public void testStringRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TiesResultCodec.writeString(out, "тест");
+        TiesResultCodec.writeString(out, null);
+        TiesResultCodec.writeString(out, "");
+        out.flush();
+        ByteBuffer in = ByteBuffer.wrap(bytes.toByteArray());
+        assertEquals("тест", TiesResultCodec.readString(in));
+        assertNull(TiesResultCodec.readString(in));
+        assertEquals("", TiesResultCodec.readString(in));
+    }
+
+}
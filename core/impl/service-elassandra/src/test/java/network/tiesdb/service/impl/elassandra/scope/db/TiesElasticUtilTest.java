@@ -0,0 +1,88 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TiesElasticUtilTest {
+
+    private static List<Object> values(Object... values) {
+        return Arrays.asList(values);
+    }
+
+    @Test
+    public void testTermFilter() {
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        assertTrue(builder.add("fld", "=", values(42)));
+        assertEquals("{\"query\":{\"bool\":{\"filter\":[{\"term\":{\"fld\":42}}]}}}", builder.build());
+    }
+
+    @Test
+    public void testTermsAndRangeFilters() {
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        assertTrue(builder.add("a", "in", values("x", "y")));
+        assertTrue(builder.add("b", ">", values(1)));
+        assertTrue(builder.add("c", ">=", values(2L)));
+        assertTrue(builder.add("d", "<", values(3.5)));
+        assertTrue(builder.add("e", "<=", values(new Date(1000))));
+        assertEquals("{\"query\":{\"bool\":{\"filter\":[" //
+                + "{\"terms\":{\"a\":[\"x\",\"y\"]}}," //
+                + "{\"range\":{\"b\":{\"gt\":1}}}," //
+                + "{\"range\":{\"c\":{\"gte\":2}}}," //
+                + "{\"range\":{\"d\":{\"lt\":3.5}}}," //
+                + "{\"range\":{\"e\":{\"lte\":1000}}}" //
+                + "]}}}", builder.build());
+    }
+
+    @Test
+    public void testSizeLimit() {
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        assertTrue(builder.add("flag", "=", values(true)));
+        assertEquals("{\"size\":10,\"query\":{\"bool\":{\"filter\":[{\"term\":{\"flag\":true}}]}}}", builder.build(10));
+        assertEquals(builder.build(), builder.build(0));
+    }
+
+    @Test
+    public void testStringsAreEscaped() {
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        assertTrue(builder.add("s", "=", values("a\"b\\c\nd")));
+        assertEquals("{\"query\":{\"bool\":{\"filter\":[{\"term\":{\"s\":\"a\\\"b\\\\c\\u000ad\"}}]}}}", builder.build());
+    }
+
+    @Test
+    public void testUnsupportedPredicates() {
+        TiesElasticUtil.QueryBuilder builder = new TiesElasticUtil.QueryBuilder();
+        assertFalse(builder.add("a", "=", Collections.emptyList()));
+        assertFalse(builder.add("a", "=", values(1, 2)));
+        assertFalse(builder.add("a", ">", values(1, 2)));
+        assertFalse(builder.add("a", "like", values("x")));
+        assertFalse(builder.add("a", "in", Collections.emptyList()));
+        assertEquals("{\"query\":{\"bool\":{\"filter\":[]}}}", builder.build());
+    }
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TiesNameIdCacheTest {
+
+    @Test
+    public void testNameIdIsComputedOnce() {
+        AtomicInteger loads = new AtomicInteger();
+        TiesNameIdCache<String> cache = new TiesNameIdCache<>(16, name -> {
+            loads.incrementAndGet();
+            return "ID" + name;
+        });
+
+        assertEquals("IDa", cache.get("a"));
+        assertEquals("IDa", cache.get("a"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testOverflowEvictsInsteadOfClearing() throws InterruptedException {
+        TiesNameIdCache<String> cache = new TiesNameIdCache<>(16, name -> "ID" + name);
+        for (int i = 0; i < 1000; i++) {
+            cache.get("hot");
+            cache.get("name" + i);
+        }
+
+        // Evictions run asynchronously and may still be pending
+        long deadline = System.currentTimeMillis() + 5000;
+        long size;
+        while ((size = cache.size()) > 16) {
+            assertTrue("Size " + size + " exceeds the bound", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        assertTrue("Cache was dropped", size > 1);
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TiesParallelReaderTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testResultsArePassedInReadOrder() {
+        List<Integer> results = new ArrayList<>();
+        // Parts are read in reverse and the first read parts are the slowest
+        TiesParallelReader.read(executor, 4, 8, n -> 7 - n, i -> {
+            sleep(i * 5);
+            return Arrays.asList(i * 10, i * 10 + 1);
+        }, results::add);
+        assertEquals(Arrays.asList(70, 71, 60, 61, 50, 51, 40, 41, 30, 31, 20, 21, 10, 11, 0, 1), results);
+    }
+
+    @Test
+    public void testPartsAreNotReadAheadOfConsumer() {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger consumed = new AtomicInteger();
+        TiesParallelReader.read(executor, 3, 100, n -> n, i -> {
+            read.incrementAndGet();
+            return Arrays.asList(i);
+        }, value -> {
+            sleep(1);
+            assertTrue(read.get() <= consumed.incrementAndGet() + 3);
+            return true;
+        });
+        assertEquals(100, consumed.get());
+    }
+
+    @Test
+    public void testRemainingPartsAreSkippedWhenConsumerStops() {
+        AtomicInteger read = new AtomicInteger();
+        List<Integer> results = new ArrayList<>();
+        TiesParallelReader.read(executor, 2, 100, n -> n, i -> {
+            read.incrementAndGet();
+            return Arrays.asList(i, i);
+        }, value -> results.add(value) && results.size() < 5);
+        assertEquals(Arrays.asList(0, 0, 1, 1, 2), results);
+        assertTrue(read.get() <= 5);
+    }
+
+    @Test
+    public void testReadFailureIsRethrown() {
+        try {
+            TiesParallelReader.read(executor, 2, 10, n -> n, i -> {
+                if (3 == i) {
+                    throw new IllegalStateException("part " + i);
+                }
+                return Arrays.asList(i);
+            }, value -> true);
+            fail("Failure of a part should be rethrown");
+        } catch (IllegalStateException e) {
+            assertEquals("part 3", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testNoParts() {
+        List<Object> results = new ArrayList<>();
+        TiesParallelReader.read(executor, 2, 0, n -> n, i -> Arrays.asList(i), results::add);
+        assertTrue(results.isEmpty());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
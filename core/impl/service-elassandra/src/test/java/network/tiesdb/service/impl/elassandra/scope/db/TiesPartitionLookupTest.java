@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TiesPartitionLookupTest {
+
+    private static List<Object> values(Object... values) {
+        return Arrays.asList(values);
+    }
+
+    @Test
+    public void testSingleColumnKeys() {
+        assertEquals(Arrays.asList(values(1), values(2)), TiesPartitionLookup.keys(Arrays.asList(values(1, 2)), 16));
+    }
+
+    @Test
+    public void testCartesianProductInColumnOrder() {
+        assertEquals(Arrays.asList(values(1, "a"), values(1, "b"), values(2, "a"), values(2, "b"), values(3, "a"), values(3, "b")),
+                TiesPartitionLookup.keys(Arrays.asList(values(1, 2, 3), values("a", "b")), 16));
+    }
+
+    @Test
+    public void testDuplicateKeysAreRemoved() {
+        assertEquals(Arrays.asList(values(1, "a"), values(2, "a")),
+                TiesPartitionLookup.keys(Arrays.asList(values(1, 2, 1), values("a", "a")), 16));
+    }
+
+    @Test
+    public void testNoColumnsGiveEmptyKey() {
+        assertEquals(Collections.singletonList(Collections.emptyList()), TiesPartitionLookup.keys(Collections.emptyList(), 16));
+    }
+
+    @Test
+    public void testTooManyKeys() {
+        assertEquals(4, TiesPartitionLookup.keys(Arrays.asList(values(1, 2), values(3, 4)), 4).size());
+        assertNull(TiesPartitionLookup.keys(Arrays.asList(values(1, 2), values(3, 4), values(5, 6)), 4));
+        assertNull(TiesPartitionLookup.keys(Arrays.asList(values(1, 2, 3, 4, 5)), 4));
+    }
+
+}
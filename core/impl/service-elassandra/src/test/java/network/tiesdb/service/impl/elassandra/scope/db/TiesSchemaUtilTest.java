@@ -0,0 +1,93 @@
+/**
+ * Copyright © 2017 Ties BV
+ *
+ * This file is part of Ties.DB project.
+ *
+ * Ties.DB project is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Ties.DB project is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along
+ * with Ties.DB project. If not, see <https://www.gnu.org/licenses/lgpl-3.0>.
+ */
+package network.tiesdb.service.impl.elassandra.scope.db;
+
+import static network.tiesdb.service.impl.elassandra.scope.db.TiesSchemaUtil.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class TiesSchemaUtilTest {
+
+    private static final List<FieldDescription> FIELDS = Arrays.asList( //
+            new FieldDescription("id", "integer"), //
+            new FieldDescription("name", "string"));
+
+    @After
+    public void cleanUp() {
+        invalidateFieldDescriptions("ts", "t1");
+        invalidateFieldDescriptions("ts", "t2");
+        invalidateFieldDescriptions("other", "t1");
+    }
+
+    @Test
+    public void testCachedFieldDescriptionsAreLoadedWithinProbeInterval() {
+        cacheFieldDescriptions("ts", "t1", UUID.randomUUID(), FIELDS);
+
+        List<FieldDescription> loaded = new ArrayList<>();
+        loadFieldDescriptions("ts", "t1", loaded::add);
+
+        assertEquals(FIELDS, loaded);
+    }
+
+    @Test
+    public void testColumnFamilyUpdateDropsOnlyItsTable() {
+        cacheFieldDescriptions("ts", "t1", UUID.randomUUID(), FIELDS);
+        cacheFieldDescriptions("ts", "t2", UUID.randomUUID(), FIELDS);
+        cacheFieldDescriptions("other", "t1", UUID.randomUUID(), FIELDS);
+
+        invalidateFieldDescriptionsOf(getTablespaceNameId("ts"), getTableNameId("t1"));
+
+        assertFalse(isFieldDescriptionsCached("ts", "t1"));
+        assertTrue(isFieldDescriptionsCached("ts", "t2"));
+        assertTrue(isFieldDescriptionsCached("other", "t1"));
+    }
+
+    @Test
+    public void testKeyspaceDropDropsAllItsTables() {
+        cacheFieldDescriptions("ts", "t1", UUID.randomUUID(), FIELDS);
+        cacheFieldDescriptions("ts", "t2", UUID.randomUUID(), FIELDS);
+        cacheFieldDescriptions("other", "t1", UUID.randomUUID(), FIELDS);
+
+        invalidateFieldDescriptionsOf(getTablespaceNameId("ts"));
+
+        assertFalse(isFieldDescriptionsCached("ts", "t1"));
+        assertFalse(isFieldDescriptionsCached("ts", "t2"));
+        assertTrue(isFieldDescriptionsCached("other", "t1"));
+    }
+
+    @Test
+    public void testUnrelatedColumnFamilyKeepsDescriptions() {
+        cacheFieldDescriptions("ts", "t1", UUID.randomUUID(), FIELDS);
+
+        invalidateFieldDescriptionsOf(getTablespaceNameId("ts"), getTableNameId("t2"));
+        invalidateFieldDescriptionsOf(getTablespaceNameId("other"), getTableNameId("t1"));
+
+        assertTrue(isFieldDescriptionsCached("ts", "t1"));
+    }
+
+}